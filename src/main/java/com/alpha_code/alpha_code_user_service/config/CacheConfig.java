@@ -31,11 +31,13 @@ public class CacheConfig {
                 .disableCachingNullValues();
 
         cacheConfigs.put("notifications", notificationsConfig);
-        cacheConfigs.put("notifications_list", notificationsConfig);
+        // notifications_list dùng TTL mặc định: trang cũ bị bỏ bằng generation trong key, TTL chỉ để dọn bộ nhớ
 
         return RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigs)
+                // Đếm hit / miss từng cache, xem qua /api/v1/metrics/caches
+                .enableStatistics()
                 .build();
     }
 }
@@ -0,0 +1,55 @@
+package com.alpha_code.alpha_code_user_service.config;
+
+import com.alpha_code.alpha_code_user_service.consumer.WebSocketPresenceListener;
+import com.alpha_code.alpha_code_user_service.service.DashboardStreamService;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Only admins may subscribe to the dashboard stream; the role comes from the token checked on
+ * CONNECT by {@link WebSocketPresenceListener}. The simple broker treats a subscription destination
+ * as an Ant pattern, so destinations are matched the same way and non-admins may not subscribe to
+ * any pattern under {@link #BROKER_PREFIX}.
+ */
+@Component
+public class DashboardSubscriptionInterceptor implements ChannelInterceptor {
+
+    static final Set<String> DASHBOARD_DESTINATIONS = Set.of(DashboardStreamService.TOPIC, "/app/dashboard");
+    static final String BROKER_PREFIX = "/topic/";
+
+    // Cùng kiểu so khớp với DefaultSubscriptionRegistry của simple broker
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        if (StompCommand.SUBSCRIBE.equals(accessor.getCommand()) && isAdminOnly(accessor.getDestination())) {
+            Map<String, Object> attributes = accessor.getSessionAttributes();
+            Object roleName = attributes != null ? attributes.get(WebSocketPresenceListener.ROLE_NAME_ATTRIBUTE) : null;
+            if (!"Admin".equals(roleName)) {
+                throw new AccessDeniedException("Dashboard stream requires an admin token on CONNECT");
+            }
+        }
+        return message;
+    }
+
+    private boolean isAdminOnly(String destination) {
+        if (destination == null) {
+            return false;
+        }
+        if (pathMatcher.isPattern(destination) && destination.startsWith(BROKER_PREFIX)) {
+            return true;
+        }
+        return DASHBOARD_DESTINATIONS.stream().anyMatch(target -> pathMatcher.match(destination, target));
+    }
+}
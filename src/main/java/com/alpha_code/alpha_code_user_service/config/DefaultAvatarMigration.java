@@ -0,0 +1,80 @@
+package com.alpha_code.alpha_code_user_service.config;
+
+import com.alpha_code.alpha_code_user_service.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One-off cleanup: accounts registered before the shared default avatar stored the logo as a
+ * base64 data URI. Rewrites rows holding exactly that data URI to the default avatar URL; other
+ * images are left alone. Runs once per Redis, guarded by {@link #DONE_KEY}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DefaultAvatarMigration {
+
+    // Có key này nghĩa là đã chạy xong
+    static final String DONE_KEY = "accounts:migration:default-avatar:v1";
+
+    private static final String LEGACY_LOGO = "images/alphacode-logo.png";
+
+    private static final List<String> ACCOUNT_CACHES = List.of("accounts", "accounts_list", "grpc_account");
+
+    private final AccountRepository accountRepository;
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${app.default-avatar-url}")
+    private String defaultAvatarUrl;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(DONE_KEY, Instant.now().toString()))) {
+            return;
+        }
+
+        int updated;
+        try {
+            updated = accountRepository.replaceImage(legacyDataUri(), defaultAvatarUrl);
+        } catch (Exception e) {
+            // Lần khởi động sau thử lại
+            redisTemplate.delete(DONE_KEY);
+            log.error("Failed to replace base64 default avatar", e);
+            return;
+        }
+        if (updated == 0) {
+            return;
+        }
+
+        // Entry cũ trong cache vẫn chứa base64
+        ACCOUNT_CACHES.forEach(name -> {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+        log.info("Replaced base64 avatar with default avatar URL on {} account(s)", updated);
+    }
+
+    // Đúng chuỗi mà lúc đăng ký cũ đã lưu vào account.image
+    static String legacyDataUri() throws IOException {
+        try (InputStream in = new ClassPathResource(LEGACY_LOGO).getInputStream()) {
+            return "data:image/png;base64," + Base64.getEncoder().encodeToString(in.readAllBytes());
+        }
+    }
+}
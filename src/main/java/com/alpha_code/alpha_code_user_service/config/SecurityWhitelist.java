@@ -14,6 +14,8 @@ public class SecurityWhitelist {
             "/docs",
             "/",
             "/api/v1/auth/**",
+            "/.well-known/**",
+            "/assets/**",
             "/ws/**"
     };
 
@@ -1,6 +1,8 @@
 package com.alpha_code.alpha_code_user_service.config;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -10,10 +12,13 @@ import org.slf4j.LoggerFactory;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private static final Logger logger = LoggerFactory.getLogger(WebSocketConfig.class);
 
+    private final DashboardSubscriptionInterceptor dashboardSubscriptionInterceptor;
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         logger.info("🔌 Registering STOMP WebSocket endpoint: /ws");
@@ -42,4 +47,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
         logger.info("✅ Message broker configured successfully");
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(dashboardSubscriptionInterceptor);
+    }
 }
@@ -3,6 +3,7 @@ package com.alpha_code.alpha_code_user_service.consumer;
 import com.alpha_code.alpha_code_user_service.dto.NotificationDto;
 import com.alpha_code.alpha_code_user_service.enums.NotificationTypeEnum;
 import com.alpha_code.alpha_code_user_service.service.NotificationService;
+import com.alpha_code.alpha_code_user_service.service.PaymentKeyService;
 import com.alpha_code.alpha_code_user_service.util.PaymentNotification;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,6 +19,7 @@ import java.util.UUID;
 @Slf4j
 public class NotificationConsumer {
     private final NotificationService notificationService;
+    private final PaymentKeyService paymentKeyService;
 
     @RabbitListener(
             queues = "notification.send.queue",
@@ -42,6 +44,9 @@ public class NotificationConsumer {
         noti.setStatus(1);
 
         notificationService.create(noti);
+
+        // Thanh toán xong thì key có thể đã đổi
+        paymentKeyService.invalidate(accountId);
     }
 
     // --- New listener for course completion ---
@@ -0,0 +1,75 @@
+package com.alpha_code.alpha_code_user_service.consumer;
+
+import com.alpha_code.alpha_code_user_service.service.PresenceService;
+import com.alpha_code.alpha_code_user_service.service.TokenRevocationService;
+import com.alpha_code.alpha_code_user_service.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Presence heartbeats from STOMP sessions: a CONNECT frame carrying a valid
+ * {@code Authorization: Bearer} header marks the account online, its disconnect marks it offline.
+ * The account and role are kept in the session attributes for later subscription checks.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WebSocketPresenceListener {
+
+    public static final String ACCOUNT_ID_ATTRIBUTE = "presence.accountId";
+    public static final String ROLE_NAME_ATTRIBUTE = "presence.roleName";
+
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+    private final PresenceService presenceService;
+
+    @EventListener
+    public void handleConnect(SessionConnectEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String header = accessor.getFirstNativeHeader("Authorization");
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (header == null || !header.startsWith("Bearer ") || attributes == null) {
+            return;
+        }
+        jwtUtil.parseVerifiedClaims(header.substring(7))
+                .filter(claims -> !tokenRevocationService.isRevoked(claims))
+                .ifPresent(claims -> {
+                    UUID accountId = accountIdOf(claims);
+                    String roleName = claims.get("roleName", String.class);
+                    if (accountId != null) {
+                        attributes.put(ACCOUNT_ID_ATTRIBUTE, accountId);
+                        if (roleName != null) {
+                            attributes.put(ROLE_NAME_ATTRIBUTE, roleName);
+                        }
+                        presenceService.heartbeat(accountId, roleName);
+                    }
+                });
+    }
+
+    @EventListener
+    public void handleDisconnect(SessionDisconnectEvent event) {
+        Map<String, Object> attributes = StompHeaderAccessor.wrap(event.getMessage()).getSessionAttributes();
+        if (attributes != null && attributes.get(ACCOUNT_ID_ATTRIBUTE) instanceof UUID accountId) {
+            presenceService.offline(accountId);
+        }
+    }
+
+    private static UUID accountIdOf(Claims claims) {
+        String id = claims.get("id", String.class);
+        try {
+            return id == null ? null : UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring WebSocket token with invalid account id {}", id);
+            return null;
+        }
+    }
+}
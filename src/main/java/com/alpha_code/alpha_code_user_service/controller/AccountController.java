@@ -2,6 +2,7 @@ package com.alpha_code.alpha_code_user_service.controller;
 
 import com.alpha_code.alpha_code_user_service.dto.AccountDto;
 import com.alpha_code.alpha_code_user_service.dto.PagedResult;
+import com.alpha_code.alpha_code_user_service.service.AccountAvailabilityService;
 import com.alpha_code.alpha_code_user_service.service.AccountService;
 import com.alpha_code.alpha_code_user_service.validation.OnUpdate;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,6 +16,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -25,13 +27,15 @@ import java.util.UUID;
 public class AccountController {
 
     private final AccountService service;
+    private final AccountAvailabilityService availabilityService;
 
     @GetMapping
-    @Operation(summary = "Get all accounts with pagination and optional status filter")
+    @Operation(summary = "Get all accounts with pagination and optional status filter; count=ESTIMATE skips the exact total")
     public PagedResult<AccountDto> getAll(@RequestParam(value = "page", defaultValue = "1") int page,
                                           @RequestParam(value = "size", defaultValue = "10") int size,
-                                          @RequestParam(value = "status", required = false) Integer status) {
-        return service.getAll(page, size, status);
+                                          @RequestParam(value = "status", required = false) Integer status,
+                                          @RequestParam(value = "count", defaultValue = "EXACT") PagedResult.CountMode count) {
+        return service.getAll(page, size, status, count);
     }
 
     @GetMapping("/full-name")
@@ -40,6 +44,14 @@ public class AccountController {
         return service.findAccountByFullName(fullName);
     }
 
+    @GetMapping("/availability")
+    @Operation(summary = "Check whether username, email and/or phone are still available")
+    public Map<String, Boolean> checkAvailability(@RequestParam(value = "username", required = false) String username,
+                                                  @RequestParam(value = "email", required = false) String email,
+                                                  @RequestParam(value = "phone", required = false) String phone) {
+        return availabilityService.checkAvailability(username, email, phone);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get account by id")
     public AccountDto getById(@PathVariable UUID id) {
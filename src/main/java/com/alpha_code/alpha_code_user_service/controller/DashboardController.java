@@ -1,14 +1,18 @@
 package com.alpha_code.alpha_code_user_service.controller;
 
+import com.alpha_code.alpha_code_user_service.dto.TimeSeriesPointDto;
 import com.alpha_code.alpha_code_user_service.service.DashboardService;
+import com.alpha_code.alpha_code_user_service.service.SignupRollupService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +24,7 @@ import java.util.Map;
 public class DashboardController {
 
     private final DashboardService service;
+    private final SignupRollupService signupRollupService;
 
     @GetMapping("/online-users")
     @Operation(summary = "Get count of online users")
@@ -27,6 +32,24 @@ public class DashboardController {
         return ResponseEntity.ok(service.countOnlineUsers());
     }
 
+    @GetMapping("/active-users")
+    @Operation(summary = "Get online users per role and daily / monthly active users")
+    @PreAuthorize("hasAuthority('ROLE_Admin')")
+    public ResponseEntity<Map<String, Object>> getActiveUserStats() {
+        return ResponseEntity.ok(service.getActiveUserStats());
+    }
+
+    @GetMapping("/signups/series")
+    @Operation(summary = "Get signups per day / week / month over a date range, optionally for one role")
+    @PreAuthorize("hasAuthority('ROLE_Admin')")
+    public ResponseEntity<List<TimeSeriesPointDto>> getSignupTimeSeries(
+            @RequestParam(defaultValue = "DAY") DashboardService.Granularity granularity,
+            @RequestParam(required = false) String roleName,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(service.getSignupTimeSeries(granularity, roleName, from, to));
+    }
+
     @GetMapping("/stats/{roleName}")
     @Operation(summary = "Get user stats by role (Teacher, Admin, etc.)")
     @PreAuthorize("hasAuthority('ROLE_Admin')")
@@ -45,6 +68,13 @@ public class DashboardController {
         return ResponseEntity.ok(service.getUserStats());
     }
 
+    @PostMapping("/signup-rollup/rebuild")
+    @Operation(summary = "Rebuild the daily signup rollup from the account table")
+    @PreAuthorize("hasAuthority('ROLE_Admin')")
+    public ResponseEntity<Integer> rebuildSignupRollup() {
+        return ResponseEntity.ok(signupRollupService.rebuild());
+    }
+
     @GetMapping("/summary")
     @Operation(summary = "Get summary stats")
     public ResponseEntity<Map<String, Long>> getSummaryStats() {
@@ -0,0 +1,21 @@
+package com.alpha_code.alpha_code_user_service.controller;
+
+import com.alpha_code.alpha_code_user_service.service.DashboardStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.Map;
+
+@Controller
+@RequiredArgsConstructor
+public class DashboardStreamController {
+
+    private final DashboardStreamService dashboardStreamService;
+
+    // Client subscribe /app/dashboard để lấy snapshot đầy đủ, sau đó nghe /topic/dashboard cho phần thay đổi
+    @SubscribeMapping("/dashboard")
+    public Map<String, Object> getSnapshot() {
+        return dashboardStreamService.getSnapshot();
+    }
+}
@@ -0,0 +1,30 @@
+package com.alpha_code.alpha_code_user_service.controller;
+
+import com.alpha_code.alpha_code_user_service.service.JwtKeyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "JWKS")
+public class JwksController {
+
+    private final JwtKeyService jwtKeyService;
+
+    // Service khác cache bộ key này; gặp kid lạ thì tải lại
+    @GetMapping("/.well-known/jwks.json")
+    @Operation(summary = "Get public keys for verifying access tokens")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(jwtKeyService.getJwks());
+    }
+}
@@ -0,0 +1,83 @@
+package com.alpha_code.alpha_code_user_service.controller;
+
+import com.alpha_code.alpha_code_user_service.service.CacheStatsService;
+import com.alpha_code.alpha_code_user_service.service.MailOutboxService;
+import com.alpha_code.alpha_code_user_service.service.PasswordHashingService;
+import com.alpha_code.alpha_code_user_service.service.PaymentKeyService;
+import com.alpha_code.alpha_code_user_service.service.TokenRevocationService;
+import com.alpha_code.alpha_code_user_service.util.JwtUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/metrics")
+@RequiredArgsConstructor
+@Tag(name = "Metrics")
+public class MetricsController {
+
+    private final JwtUtil jwtUtil;
+    private final PasswordHashingService passwordHashingService;
+    private final MailOutboxService mailOutboxService;
+    private final PaymentKeyService paymentKeyService;
+    private final TokenRevocationService tokenRevocationService;
+    private final CacheStatsService cacheStatsService;
+
+    @GetMapping("/jwt-cache")
+    @Operation(summary = "Get hit/miss counters of the verified JWT cache")
+    @PreAuthorize("hasAuthority('ROLE_Admin')")
+    public ResponseEntity<Map<String, Object>> getJwtCacheStats() {
+        return ResponseEntity.ok(jwtUtil.getVerifiedTokenCacheStats());
+    }
+
+    @GetMapping("/password-hashing")
+    @Operation(summary = "Get pool and queue usage of the password hashing executor")
+    @PreAuthorize("hasAuthority('ROLE_Admin')")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHashingService.getStats());
+    }
+
+    @GetMapping("/mail-outbox")
+    @Operation(summary = "Get mail outbox backlog per status and worker usage")
+    @PreAuthorize("hasAuthority('ROLE_Admin')")
+    public ResponseEntity<Map<String, Object>> getMailOutboxStats() {
+        return ResponseEntity.ok(mailOutboxService.getStats());
+    }
+
+    @GetMapping("/payment-key")
+    @Operation(summary = "Get payment key cache counters and circuit breaker state")
+    @PreAuthorize("hasAuthority('ROLE_Admin')")
+    public ResponseEntity<Map<String, Object>> getPaymentKeyStats() {
+        return ResponseEntity.ok(paymentKeyService.getStats());
+    }
+
+    @GetMapping("/token-revocation")
+    @Operation(summary = "Get Bloom filter hit and Redis fallback counters of the token revocation list")
+    @PreAuthorize("hasAuthority('ROLE_Admin')")
+    public ResponseEntity<Map<String, Object>> getTokenRevocationStats() {
+        return ResponseEntity.ok(tokenRevocationService.getStats());
+    }
+
+    @GetMapping("/caches")
+    @Operation(summary = "Get hit ratio of each Spring cache")
+    @PreAuthorize("hasAuthority('ROLE_Admin')")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(cacheStatsService.getStats());
+    }
+
+    @PostMapping("/caches/reset")
+    @Operation(summary = "Reset the hit / miss counters of every Spring cache")
+    @PreAuthorize("hasAuthority('ROLE_Admin')")
+    public ResponseEntity<Void> resetCacheStats() {
+        cacheStatsService.resetStats();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.alpha_code.alpha_code_user_service.controller;
 
+import com.alpha_code.alpha_code_user_service.dto.CursorPage;
 import com.alpha_code.alpha_code_user_service.dto.NotificationDto;
 import com.alpha_code.alpha_code_user_service.dto.PagedResult;
 import com.alpha_code.alpha_code_user_service.service.NotificationService;
@@ -29,6 +30,25 @@ public class NotificationController {
         return service.getAll(page, size, accountId, status);
     }
 
+    @GetMapping("/feed")
+    @Operation(summary = "Get notifications by cursor for infinite scroll; pass since to fetch only newer ones")
+    public CursorPage<NotificationDto> getFeed(@RequestParam(value = "accountId", required = false) UUID accountId,
+                                               @RequestParam(value = "status", required = false) Integer status,
+                                               @RequestParam(value = "cursor", required = false) String cursor,
+                                               @RequestParam(value = "since", required = false) String since,
+                                               @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (since != null) {
+            return service.getFeedSince(accountId, status, since, size);
+        }
+        return service.getFeed(accountId, status, cursor, size);
+    }
+
+    @GetMapping("/unread-count")
+    @Operation(summary = "Get number of unread notifications of an account")
+    public long getUnreadCount(@RequestParam UUID accountId) {
+        return service.getUnreadCount(accountId);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get notification by id")
     public NotificationDto getById(@PathVariable UUID id) {
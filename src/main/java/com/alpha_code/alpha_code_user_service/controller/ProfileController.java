@@ -31,8 +31,9 @@ public class ProfileController {
                                           @RequestParam(value = "accountId", required = false) UUID accountId,
                                           @RequestParam(value = "status", required = false) Integer status,
                                           @RequestParam(value = "isKid", required = false) Boolean isKid,
-                                          @RequestParam(value = "passCode", required = false) String passCode) {
-        return profileService.searchProfiles(page, size, name, accountId, status, isKid, passCode);
+                                          @RequestParam(value = "passCode", required = false) String passCode,
+                                          @RequestParam(value = "count", defaultValue = "EXACT") PagedResult.CountMode count) {
+        return profileService.searchProfiles(page, size, name, accountId, status, isKid, passCode, count);
     }
 
     @GetMapping("/{id}")
@@ -21,15 +21,16 @@ public class RequestController {
     private final RequestService service;
 
     @GetMapping
-    @Operation(summary = "Get all requests with pagination and optional filters")
+    @Operation(summary = "Get all requests with pagination and optional filters; count=ESTIMATE skips the exact total")
     public PagedResult<RequestDto> getAllRequest(@RequestParam(value = "page", defaultValue = "1") int page,
                                                          @RequestParam(value = "size", defaultValue = "10") int size,
                                                          @RequestParam(value = "title", required = false) String title,
                                                          @RequestParam(value = "type", required = false) String type,
                                                          @RequestParam(value = "status", required = false) Integer status,
                                                          @RequestParam(value = "accountId", required = false) UUID accountId,
-                                                         @RequestParam(value = "rate", required = false) Integer rate) {
-        return service.getAllRequest(page, size, title, type, status, accountId, rate);
+                                                         @RequestParam(value = "rate", required = false) Integer rate,
+                                                         @RequestParam(value = "count", defaultValue = "EXACT") PagedResult.CountMode count) {
+        return service.getAllRequest(page, size, title, type, status, accountId, rate, count);
     }
 
     @GetMapping("/{id}")
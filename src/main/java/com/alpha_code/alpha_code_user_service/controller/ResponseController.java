@@ -22,13 +22,14 @@ public class ResponseController {
     private final ResponseService service;
 
     @GetMapping
-    @Operation(summary = "Get all responses with pagination and optional filters")
+    @Operation(summary = "Get all responses with pagination and optional filters; count=ESTIMATE skips the exact total")
     public PagedResult<ResponseDto> getAllResponse(@RequestParam(value = "page", defaultValue = "1") int page,
                                                    @RequestParam(value = "size", defaultValue = "10") int size,
                                                    @RequestParam(value = "status", required = false) Integer status,
                                                    @RequestParam(value = "requestId", required = false) UUID requestId,
-                                                   @RequestParam(value = "responderId", required = false) UUID responderId) {
-        return service.getAll(page, size, status, requestId, responderId);
+                                                   @RequestParam(value = "responderId", required = false) UUID responderId,
+                                                   @RequestParam(value = "count", defaultValue = "EXACT") PagedResult.CountMode count) {
+        return service.getAll(page, size, status, requestId, responderId, count);
     }
 
     @GetMapping("/{id}")
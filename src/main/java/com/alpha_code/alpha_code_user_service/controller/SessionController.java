@@ -0,0 +1,63 @@
+package com.alpha_code.alpha_code_user_service.controller;
+
+import com.alpha_code.alpha_code_user_service.dto.SessionDto;
+import com.alpha_code.alpha_code_user_service.exception.ResourceNotFoundException;
+import com.alpha_code.alpha_code_user_service.service.SessionService;
+import com.alpha_code.alpha_code_user_service.util.SecurityUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/sessions")
+@RequiredArgsConstructor
+@Tag(name = "Sessions")
+public class SessionController {
+
+    private final SessionService service;
+
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Get active sessions (devices) of the current account")
+    public List<SessionDto> getMine() {
+        return service.list(SecurityUtil.currentAccountId(), SecurityUtil.currentSessionId());
+    }
+
+    @DeleteMapping("/{sessionId}")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Revoke one session of the current account")
+    public String revoke(@PathVariable String sessionId) {
+        if (!service.revoke(SecurityUtil.currentAccountId(), sessionId)) {
+            throw new ResourceNotFoundException("Không tìm thấy session");
+        }
+        return "Session revoked";
+    }
+
+    @DeleteMapping
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Revoke all other sessions of the current account")
+    public String revokeOthers() {
+        service.revokeOthers(SecurityUtil.currentAccountId(), SecurityUtil.currentSessionId());
+        return "Other sessions revoked";
+    }
+
+    @GetMapping("/accounts/{accountId}")
+    @PreAuthorize("hasAuthority('ROLE_Admin')")
+    @Operation(summary = "Get active sessions of an account")
+    public List<SessionDto> getByAccount(@PathVariable UUID accountId) {
+        return service.list(accountId, null);
+    }
+
+    @DeleteMapping("/accounts/{accountId}")
+    @PreAuthorize("hasAuthority('ROLE_Admin')")
+    @Operation(summary = "Revoke all sessions of an account")
+    public String revokeAll(@PathVariable UUID accountId) {
+        service.revokeAll(accountId);
+        return "All sessions revoked";
+    }
+}
@@ -0,0 +1,26 @@
+package com.alpha_code.alpha_code_user_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> implements Serializable {
+    // Mới nhất trước
+    private List<T> data;
+    // Gửi lại qua ?cursor= để lấy phần cũ hơn; null khi đã hết
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+    // Gửi lại qua ?since= khi kết nối lại để chỉ lấy phần mới hơn (chỉ có ở trang đầu và ở kết quả since)
+    @JsonProperty("since_cursor")
+    private String sinceCursor;
+    // Còn dữ liệu theo chiều đang đọc
+    @JsonProperty("has_more")
+    private boolean hasMore;
+}
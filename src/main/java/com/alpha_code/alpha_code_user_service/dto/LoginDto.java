@@ -20,6 +20,8 @@ public class LoginDto implements Serializable {
     public static class LoginRequest {
         private String username;
         private String password;
+        // Tên thiết bị hiển thị trong danh sách session, không bắt buộc
+        private String deviceName;
     }
 
     @Data
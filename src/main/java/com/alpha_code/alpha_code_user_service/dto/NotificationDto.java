@@ -3,6 +3,7 @@ package com.alpha_code.alpha_code_user_service.dto;
 import com.alpha_code.alpha_code_user_service.enums.NotificationStatusEnum;
 import com.alpha_code.alpha_code_user_service.enums.NotificationTypeEnum;
 import com.alpha_code.alpha_code_user_service.validation.OnCreate;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -42,6 +43,10 @@ public class NotificationDto implements Serializable {
 
     private LocalDateTime lastUpdated;
 
+    // Chỉ có trong bản push realtime, không lưu vào Redis
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long unreadCount;
+
     // Các field chỉ dùng khi tạo notification thanh toán — có thể null
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private Long orderCode;
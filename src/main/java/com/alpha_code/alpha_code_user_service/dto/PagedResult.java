@@ -3,15 +3,23 @@ package com.alpha_code.alpha_code_user_service.dto;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.io.Serializable;
 import java.util.List;
 
 @Data
 public class PagedResult<T> implements Serializable {
+    public enum CountMode {
+        EXACT,
+        ESTIMATE
+    }
+
     private List<T> data;
     @JsonProperty("total_count")
     private long totalCount;
+    @JsonProperty("total_is_estimate")
+    private boolean totalIsEstimate;
     private int page;
     @JsonProperty("per_page")
     private int perPage;
@@ -31,4 +39,23 @@ public class PagedResult<T> implements Serializable {
         this.hasNext = pageData.hasNext();
         this.hasPrevious = pageData.hasPrevious();
     }
+
+    /**
+     * Page read without a COUNT query. The total is at least what the slice proves to exist and
+     * at least {@code estimatedTotal} (e.g. planner statistics, 0 when unknown); it is exact only
+     * when this is the last page.
+     */
+    public PagedResult(Slice<T> sliceData, long estimatedTotal) {
+        this.data = sliceData.getContent();
+        this.page = sliceData.getNumber() + 1;
+        this.perPage = sliceData.getSize();
+        this.hasNext = sliceData.hasNext();
+        this.hasPrevious = sliceData.hasPrevious();
+
+        long seen = (long) sliceData.getNumber() * sliceData.getSize() + data.size();
+        boolean lastPage = !hasNext && (!data.isEmpty() || sliceData.getNumber() == 0);
+        this.totalIsEstimate = !lastPage;
+        this.totalCount = lastPage ? seen : Math.max(seen + (hasNext ? 1 : 0), estimatedTotal);
+        this.totalPages = perPage == 0 ? 1 : (int) Math.ceil((double) totalCount / perPage);
+    }
 }
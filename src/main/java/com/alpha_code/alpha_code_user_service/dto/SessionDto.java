@@ -0,0 +1,21 @@
+package com.alpha_code.alpha_code_user_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SessionDto implements Serializable {
+    private String sessionId;
+    private String device;
+    private LocalDateTime createdDate;
+    private LocalDateTime lastUsedDate;
+    private boolean current;
+}
@@ -0,0 +1,19 @@
+package com.alpha_code.alpha_code_user_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimeSeriesPointDto implements Serializable {
+    // Ngày đầu tiên của bucket (thứ Hai với WEEK, ngày 1 với MONTH)
+    private LocalDate bucketStart;
+    private long count;
+}
@@ -9,4 +9,5 @@ public class SwitchProfileRequest {
     private UUID accountId;
     private UUID profileId;
     private String passCode;
+    private String deviceName;
 }
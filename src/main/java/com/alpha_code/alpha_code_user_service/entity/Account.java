@@ -3,6 +3,7 @@ package com.alpha_code.alpha_code_user_service.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import com.alpha_code.alpha_code_user_service.entity.listener.AccountSignupRollupListener;
 import lombok.*;
 import org.hibernate.annotations.GenericGenerator;
 
@@ -15,7 +16,11 @@ import java.util.UUID;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "account")
+@EntityListeners(AccountSignupRollupListener.class)
+@Table(name = "account", indexes = {
+        @Index(name = "idx_account_username", columnList = "username"),
+        @Index(name = "idx_account_email", columnList = "email")
+})
 public class Account {
     @Id
     @GeneratedValue(generator = "UUID")
@@ -72,6 +77,12 @@ public class Account {
     @Column(name = "role_id", nullable = false, columnDefinition = "uuid")
     private UUID roleId;
 
+    // role_id lúc load từ DB, để listener biết role cũ khi account đổi role
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private UUID loadedRoleId;
+
     @Column(name = "license_id", columnDefinition = "uuid")
     private UUID licenseId;
 
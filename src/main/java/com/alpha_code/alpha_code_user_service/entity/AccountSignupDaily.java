@@ -0,0 +1,48 @@
+package com.alpha_code.alpha_code_user_service.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Number of accounts created on {@code signupDate} whose current role is {@code roleId}. Maintained by
+ * {@link com.alpha_code.alpha_code_user_service.entity.listener.AccountSignupRollupListener} in the
+ * transaction that writes the account, so dashboard counts never touch the account table.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@IdClass(AccountSignupDaily.Key.class)
+@Table(name = "account_signup_daily", indexes = {
+        @Index(name = "idx_account_signup_daily_role_day", columnList = "role_id, signup_date")
+})
+public class AccountSignupDaily {
+    @Id
+    @Column(name = "signup_date", nullable = false)
+    private LocalDate signupDate;
+
+    @Id
+    @Column(name = "role_id", nullable = false, columnDefinition = "uuid")
+    private UUID roleId;
+
+    @NotNull
+    @Column(name = "signups", nullable = false)
+    private Long signups;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate signupDate;
+        private UUID roleId;
+    }
+}
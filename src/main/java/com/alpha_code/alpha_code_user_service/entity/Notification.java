@@ -15,6 +15,7 @@ import java.util.UUID;
 @Builder
 @Entity
 @Table(name = "notification")
+// Kho lạnh của notification: bảng partition theo tháng của created_date, do NotificationArchiveServiceImpl tạo
 public class Notification {
     @Id
     @GeneratedValue(generator = "UUID")
@@ -41,9 +42,8 @@ public class Notification {
     @Column(name = "title", nullable = false)
     private String title;
 
-    @Size(max = 255)
     @NotNull
-    @Column(name = "message", nullable = false)
+    @Column(name = "message", nullable = false, columnDefinition = "text")
     private String message;
 
     @NotNull
@@ -57,6 +57,15 @@ public class Notification {
     @Column(name = "last_updated")
     private LocalDateTime lastUpdated;
 
+    @Column(name = "order_code")
+    private Long orderCode;
+
+    @Column(name = "service_name")
+    private String serviceName;
+
+    @Column(name = "price")
+    private Integer price;
+
     //Relationship
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "account_id", nullable = false, insertable = false, updatable = false)
@@ -0,0 +1,48 @@
+package com.alpha_code.alpha_code_user_service.entity.listener;
+
+import com.alpha_code.alpha_code_user_service.entity.Account;
+import com.alpha_code.alpha_code_user_service.service.SignupRollupService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Keeps the daily signup rollup in step with every account insert, role change and delete,
+ * whichever service performed it. Created by Hibernate through Spring, so the service is resolved
+ * lazily; it is absent in JPA-only test slices, where the listener does nothing.
+ */
+public class AccountSignupRollupListener {
+
+    private final ObjectProvider<SignupRollupService> rollupService;
+
+    public AccountSignupRollupListener(ObjectProvider<SignupRollupService> rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @PostLoad
+    public void onLoad(Account account) {
+        account.setLoadedRoleId(account.getRoleId());
+    }
+
+    @PostPersist
+    public void onPersist(Account account) {
+        rollupService.ifAvailable(service -> service.recordSignup(account.getCreatedDate(), account.getRoleId()));
+        account.setLoadedRoleId(account.getRoleId());
+    }
+
+    @PostUpdate
+    public void onUpdate(Account account) {
+        if (account.getLoadedRoleId() != null) {
+            rollupService.ifAvailable(service ->
+                    service.recordRoleChange(account.getCreatedDate(), account.getLoadedRoleId(), account.getRoleId()));
+        }
+        account.setLoadedRoleId(account.getRoleId());
+    }
+
+    @PostRemove
+    public void onRemove(Account account) {
+        rollupService.ifAvailable(service -> service.recordRemoval(account.getCreatedDate(), account.getLoadedRoleId()));
+    }
+}
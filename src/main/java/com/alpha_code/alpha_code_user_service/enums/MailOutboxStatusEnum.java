@@ -0,0 +1,26 @@
+package com.alpha_code.alpha_code_user_service.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum MailOutboxStatusEnum {
+    PENDING(0, "CHỜ GỬI"),
+    SENDING(1, "ĐANG GỬI"),
+    SENT(2, "ĐÃ GỬI"),
+    FAILED(3, "GỬI THẤT BẠI");
+
+    private final int code;
+    private final String description;
+
+    public static String fromCode(Integer code) {
+        if (code == null) return null;
+        for (MailOutboxStatusEnum s : values()) {
+            if (s.code == code) {
+                return s.description;
+            }
+        }
+        return "KHÔNG XÁC ĐỊNH";
+    }
+}
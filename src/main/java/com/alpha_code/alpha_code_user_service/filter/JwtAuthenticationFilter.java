@@ -1,5 +1,7 @@
 package com.alpha_code.alpha_code_user_service.filter;
 
+import com.alpha_code.alpha_code_user_service.service.PresenceService;
+import com.alpha_code.alpha_code_user_service.service.TokenRevocationService;
 import com.alpha_code.alpha_code_user_service.util.JwtUtil;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
@@ -16,6 +18,8 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -23,6 +27,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private PresenceService presenceService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -34,8 +44,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
 
-            if (jwtUtil.validateJwtToken(token)) {
-                Claims claims = jwtUtil.getAllClaims(token);
+            // Token đã logout / bị ban thì coi như không có token
+            Optional<Claims> verifiedClaims = jwtUtil.parseVerifiedClaims(token)
+                    .filter(claims -> !tokenRevocationService.isRevoked(claims));
+            if (verifiedClaims.isPresent()) {
+                Claims claims = verifiedClaims.get();
 
                 String username = claims.get("username", String.class);
 //                UUID roleId = claims.get("roleId", UUID.class);
@@ -46,8 +59,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(username, null, authorities);
+                // Giữ claims để service lấy accountId / sid mà không parse lại token
+                authentication.setDetails(claims);
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+
+                String accountId = claims.get("id", String.class);
+                if (accountId != null) {
+                    presenceService.heartbeat(UUID.fromString(accountId), roleName);
+                }
             }
         }
 
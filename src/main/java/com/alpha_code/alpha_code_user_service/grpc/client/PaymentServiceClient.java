@@ -1,5 +1,6 @@
 package com.alpha_code.alpha_code_user_service.grpc.client;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import io.grpc.StatusRuntimeException;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.client.inject.GrpcClient;
@@ -8,6 +9,7 @@ import payment.GetKeyResponse;
 import payment.PaymentServiceGrpc;
 
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
@@ -15,6 +17,9 @@ public class PaymentServiceClient {
     @GrpcClient("alpha-payment-service")
     private PaymentServiceGrpc.PaymentServiceBlockingStub blockingStub;
 
+    @GrpcClient("alpha-payment-service")
+    private PaymentServiceGrpc.PaymentServiceFutureStub futureStub;
+
     public GetKeyResponse getKeyByAccountId(UUID accountId) {
         try {
             payment.GetRequest request = payment.GetRequest.newBuilder()
@@ -26,4 +31,12 @@ public class PaymentServiceClient {
             throw e;
         }
     }
+
+    // Không block thread gọi; deadline tính từ lúc gọi, hết hạn thì future fail với DEADLINE_EXCEEDED
+    public ListenableFuture<GetKeyResponse> getKeyByAccountIdAsync(UUID accountId, long deadlineMs) {
+        payment.GetRequest request = payment.GetRequest.newBuilder()
+                .setId(accountId.toString())
+                .build();
+        return futureStub.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS).getKeyByAccountId(request);
+    }
 }
@@ -8,6 +8,15 @@ import user.User.AccountInformation;
 
 public class AccountMapper {
     public static AccountDto toDto(Account account) {
+        AccountDto dto = toDto(account, null);
+        if (dto != null && account.getRole() != null) {
+            dto.setRoleName(account.getRole().getName());
+        }
+        return dto;
+    }
+
+    // Dùng khi tên role đã có sẵn (RoleRegistry), tránh lazy-load quan hệ role
+    public static AccountDto toDto(Account account, String roleName) {
         if (account == null) {
             return null;
         }
@@ -24,11 +33,7 @@ public class AccountMapper {
         dto.setCreatedDate(account.getCreatedDate());
         dto.setLastUpdated(account.getLastUpdated());
         dto.setRoleId(account.getRoleId());
-
-        if (account.getRole() != null) {
-            dto.setRoleName(account.getRole().getName());
-        }
-
+        dto.setRoleName(roleName);
         dto.setLicenseId(account.getLicenseId());
         dto.setStatus(account.getStatus());
         return dto;
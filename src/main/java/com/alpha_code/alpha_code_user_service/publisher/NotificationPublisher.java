@@ -6,6 +6,7 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Component
@@ -20,6 +21,12 @@ public class NotificationPublisher {
         messagingTemplate.convertAndSend(destination, notification);
     }
 
+    // Badge chuông: client subscribe /topic/notifications/{accountId}/unread-count
+    public void sendUnreadCount(UUID accountId, long unreadCount) {
+        messagingTemplate.convertAndSend("/topic/notifications/" + accountId + "/unread-count",
+                Map.of("accountId", accountId, "unreadCount", unreadCount));
+    }
+
     public void sendToUsers(List<UUID> accountIds, NotificationDto notification) {
         for (UUID accountId : accountIds) {
             sendToUser(accountId, notification);
@@ -3,15 +3,28 @@ package com.alpha_code.alpha_code_user_service.repository;
 import com.alpha_code.alpha_code_user_service.entity.Account;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface AccountRepository extends JpaRepository<Account, UUID> {
+
+    interface AccountIdentifiers {
+        String getUsername();
+
+        String getEmail();
+
+        String getPhone();
+    }
+
     @Query("""
     SELECT a
     FROM Account a
@@ -21,6 +34,11 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
 """)
     Page<Account> findAllByStatus(@Param("status") Integer status, Pageable pageable);
 
+    // Phân trang không chạy COUNT, dùng cho chế độ đếm ước lượng
+    Slice<Account> findSliceBy(Pageable pageable);
+
+    Slice<Account> findSliceByStatus(Integer status, Pageable pageable);
+
 
     Account findAccountByFullName(String fullName);
 
@@ -28,18 +46,54 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
 
     Optional<Account> findByEmail(String email);
 
+    // Login: username hoặc email trong 1 query, fetch luôn profiles (role lấy từ RoleRegistry)
+    @Query("""
+    SELECT DISTINCT a
+    FROM Account a
+    LEFT JOIN FETCH a.profiles
+    WHERE a.username = :login OR a.email = :login
+""")
+    List<Account> findForLogin(@Param("login") String login);
+
+    @Query("""
+    SELECT DISTINCT a
+    FROM Account a
+    LEFT JOIN FETCH a.profiles
+    WHERE a.email = :email
+""")
+    Optional<Account> findWithProfilesByEmail(@Param("email") String email);
+
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
 
     boolean existsByPhone(String phone);
 
+    // Kiểm tra trùng username/email/phone trong 1 query
+    @Query("""
+    SELECT a.username AS username, a.email AS email, a.phone AS phone
+    FROM Account a
+    WHERE a.username = :username OR a.email = :email OR a.phone = :phone
+""")
+    List<AccountIdentifiers> findConflicts(@Param("username") String username,
+                                           @Param("email") String email,
+                                           @Param("phone") String phone);
+
+    @Query("SELECT a.username AS username, a.email AS email, a.phone AS phone FROM Account a")
+    Slice<AccountIdentifiers> findAllIdentifiers(Pageable pageable);
+
     long countByRoleId(UUID roleId);
 
     long countByRoleIdAndCreatedDateBetween(UUID roleId, LocalDateTime start, LocalDateTime end);
 
     long countByCreatedDateBetween(LocalDateTime start, LocalDateTime end);
 
+    // Đổi mọi account đang dùng đúng ảnh :from sang :to
+    @Modifying
+    @Transactional
+    @Query("UPDATE Account a SET a.image = :to WHERE a.image = :from")
+    int replaceImage(@Param("from") String from, @Param("to") String to);
+
     @Query("SELECT a FROM Account a WHERE a.id = :id")
     Optional<Account> findAccountByIdGrpc(@Param("id") UUID id);
 
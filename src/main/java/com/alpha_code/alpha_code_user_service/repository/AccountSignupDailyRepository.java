@@ -0,0 +1,82 @@
+package com.alpha_code.alpha_code_user_service.repository;
+
+import com.alpha_code.alpha_code_user_service.entity.AccountSignupDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AccountSignupDailyRepository extends JpaRepository<AccountSignupDaily, AccountSignupDaily.Key> {
+
+    interface BucketCount {
+        // yyyy-MM-dd của ngày đầu bucket
+        String getBucket();
+
+        Long getTotal();
+    }
+
+    @Query("SELECT COALESCE(SUM(s.signups), 0) FROM AccountSignupDaily s")
+    long sumAll();
+
+    // [from, to)
+    @Query("SELECT COALESCE(SUM(s.signups), 0) FROM AccountSignupDaily s WHERE s.signupDate >= :from AND s.signupDate < :to")
+    long sumBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT COALESCE(SUM(s.signups), 0) FROM AccountSignupDaily s WHERE s.roleId = :roleId")
+    long sumByRoleId(@Param("roleId") UUID roleId);
+
+    @Query("""
+        SELECT COALESCE(SUM(s.signups), 0)
+        FROM AccountSignupDaily s
+        WHERE s.roleId = :roleId AND s.signupDate >= :from AND s.signupDate < :to
+    """)
+    long sumByRoleIdBetween(@Param("roleId") UUID roleId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // unit: 'day' | 'week' | 'month' (date_trunc của Postgres, tuần bắt đầu thứ Hai)
+    @Query(value = """
+        SELECT to_char(b.bucket, 'YYYY-MM-DD') AS bucket, SUM(b.signups) AS total
+        FROM (
+            SELECT date_trunc(:unit, signup_date) AS bucket, signups
+            FROM account_signup_daily
+            WHERE signup_date >= :from AND signup_date < :to
+        ) b
+        GROUP BY b.bucket
+    """, nativeQuery = true)
+    List<BucketCount> sumByBucket(@Param("unit") String unit, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(value = """
+        SELECT to_char(b.bucket, 'YYYY-MM-DD') AS bucket, SUM(b.signups) AS total
+        FROM (
+            SELECT date_trunc(:unit, signup_date) AS bucket, signups
+            FROM account_signup_daily
+            WHERE role_id = :roleId AND signup_date >= :from AND signup_date < :to
+        ) b
+        GROUP BY b.bucket
+    """, nativeQuery = true)
+    List<BucketCount> sumByRoleIdAndBucket(@Param("unit") String unit, @Param("roleId") UUID roleId,
+                                           @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Chặn upsert của giao dịch khác trong lúc rebuild
+    @Modifying
+    @Query(value = "LOCK TABLE account_signup_daily IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM account_signup_daily", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO account_signup_daily (signup_date, role_id, signups)
+        SELECT CAST(created_date AS date), role_id, COUNT(*)
+        FROM account
+        GROUP BY CAST(created_date AS date), role_id
+    """, nativeQuery = true)
+    int insertFromAccounts();
+}
@@ -0,0 +1,43 @@
+package com.alpha_code.alpha_code_user_service.repository;
+
+import com.alpha_code.alpha_code_user_service.entity.MailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, UUID> {
+
+    interface StatusCount {
+        Integer getStatus();
+
+        Long getTotal();
+    }
+
+    // Lấy các mail đến hạn (kể cả SENDING đã hết lease), bỏ qua row instance khác đang giữ
+    @Query(value = """
+        SELECT *
+        FROM mail_outbox
+        WHERE status IN (0, 1) AND next_attempt_at <= :now
+        ORDER BY next_attempt_at
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<MailOutbox> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query("SELECT m.status AS status, COUNT(m) AS total FROM MailOutbox m GROUP BY m.status")
+    List<StatusCount> countByStatus();
+
+    @Query("SELECT MIN(m.createdDate) FROM MailOutbox m WHERE m.status = 0")
+    LocalDateTime findOldestPendingCreatedDate();
+
+    @Modifying
+    @Query("DELETE FROM MailOutbox m WHERE m.status = 2 AND m.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
@@ -3,6 +3,7 @@ package com.alpha_code.alpha_code_user_service.repository;
 import com.alpha_code.alpha_code_user_service.entity.Response;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,14 +13,25 @@ import java.util.UUID;
 
 @Repository
 public interface ResponseRepository extends JpaRepository<Response, UUID> {
-    @Query("SELECT r FROM Response r " +
+    String SEARCH_QUERY = "SELECT r FROM Response r " +
             "WHERE (:status IS NULL OR r.status = :status) " +
             "AND (:requestId IS NULL OR r.requestId = :requestId) " +
-            "AND (:responderId IS NULL OR r.responderId = :responderId)")
+            "AND (:responderId IS NULL OR r.responderId = :responderId)";
+
+    @Query(SEARCH_QUERY)
     Page<Response> search(
             @Param("status") Integer status,
             @Param("requestId") UUID requestId,
             @Param("responderId") UUID responderId,
             Pageable pageable
     );
+
+    // Như search nhưng không chạy COUNT
+    @Query(SEARCH_QUERY)
+    Slice<Response> searchSlice(
+            @Param("status") Integer status,
+            @Param("requestId") UUID requestId,
+            @Param("responderId") UUID responderId,
+            Pageable pageable
+    );
 }
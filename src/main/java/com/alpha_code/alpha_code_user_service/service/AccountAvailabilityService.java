@@ -0,0 +1,11 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import java.util.Map;
+
+public interface AccountAvailabilityService {
+    Map<String, Boolean> checkAvailability(String username, String email, String phone);
+
+    void assertAvailable(String username, String email, String phone);
+
+    void recordTaken(String username, String email, String phone);
+}
@@ -9,7 +9,7 @@ import user.User;
 import java.util.UUID;
 
 public interface AccountService {
-    PagedResult<AccountDto> getAll(int page, int size, Integer status);
+    PagedResult<AccountDto> getAll(int page, int size, Integer status, PagedResult.CountMode countMode);
 
     AccountDto getById(UUID id);
 
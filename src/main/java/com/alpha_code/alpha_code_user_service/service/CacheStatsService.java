@@ -0,0 +1,13 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import java.util.Map;
+
+public interface CacheStatsService {
+    /**
+     * Hits, misses and hit ratio of every Redis-backed Spring cache since start-up or the last reset.
+     */
+    Map<String, Object> getStats();
+
+    // Xoá bộ đếm để đo lại từ đầu (so sánh trước / sau khi đổi cách invalidate)
+    void resetStats();
+}
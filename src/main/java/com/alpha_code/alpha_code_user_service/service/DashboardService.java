@@ -1,14 +1,41 @@
 package com.alpha_code.alpha_code_user_service.service;
 
+import com.alpha_code.alpha_code_user_service.dto.TimeSeriesPointDto;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 public interface DashboardService {
+    enum Granularity {
+        DAY,
+        WEEK,
+        MONTH;
+
+        public LocalDate floor(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> date.withDayOfMonth(1);
+            };
+        }
+
+        public LocalDate next(LocalDate bucketStart) {
+            return switch (this) {
+                case DAY -> bucketStart.plusDays(1);
+                case WEEK -> bucketStart.plusWeeks(1);
+                case MONTH -> bucketStart.plusMonths(1);
+            };
+        }
+    }
+
     long countOnlineUsers();
 
-    void addOnlineUser(UUID accountId);
+    void addOnlineUser(UUID accountId, String roleName);
 
     void removeOnlineUser(UUID accountId);
 
@@ -24,6 +51,19 @@ public interface DashboardService {
 
     Map<String, Long> getExtensionStats();
 
+    Map<String, Object> getActiveUserStats();
+
+    /**
+     * Signups per bucket between {@code from} and {@code to} (inclusive, widened to whole buckets),
+     * for one role or all roles when {@code roleName} is null.
+     */
+    List<TimeSeriesPointDto> getSignupTimeSeries(Granularity granularity, String roleName, LocalDate from, LocalDate to);
+
+    // Bucket đã đóng được cache vĩnh viễn; chỉ cần xoá khi số liệu quá khứ bị sửa
+    void evictSignupTimeSeries(LocalDate day, Collection<UUID> roleIds);
+
+    void clearSignupTimeSeries();
+
 //    List<ActivityDto> getTopActivitiesToday(int topN);
 
 //    List<ActivityDto> getTopActivitiesThisWeek(int topN);
@@ -0,0 +1,17 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import java.util.Map;
+
+public interface DashboardStreamService {
+    String TOPIC = "/topic/dashboard";
+
+    /**
+     * Latest full dashboard snapshot, sent once to a new subscriber; the topic afterwards only
+     * carries the fields that changed between ticks.
+     */
+    Map<String, Object> getSnapshot();
+
+    void tick();
+
+    int getSubscriberCount();
+}
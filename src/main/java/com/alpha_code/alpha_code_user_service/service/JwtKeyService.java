@@ -0,0 +1,22 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Map;
+import java.util.Optional;
+
+public interface JwtKeyService {
+
+    record SigningKey(String kid, PrivateKey privateKey) {
+    }
+
+    SigningKey getActiveSigningKey();
+
+    Optional<PublicKey> findVerificationKey(String kid);
+
+    Map<String, Object> getJwks();
+
+    void rotateIfDue();
+
+    void reload();
+}
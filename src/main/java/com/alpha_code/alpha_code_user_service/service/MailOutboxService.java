@@ -0,0 +1,11 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import java.util.Map;
+
+public interface MailOutboxService {
+    void enqueue(String to, String subject, String htmlBody);
+
+    void dispatchDue();
+
+    Map<String, Object> getStats();
+}
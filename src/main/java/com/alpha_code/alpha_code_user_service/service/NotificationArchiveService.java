@@ -0,0 +1,39 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import com.alpha_code.alpha_code_user_service.dto.NotificationDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cold tier of notifications in PostgreSQL. Records are moved here from Redis by the retention
+ * job; times are UTC like in Redis.
+ */
+public interface NotificationArchiveService {
+    /**
+     * Upserts the notifications in one transaction, so a batch that is archived twice (because
+     * Redis changed in between) ends up with the latest copy.
+     */
+    void archive(List<NotificationDto> notifications);
+
+    // accountId / status null = không lọc, before null = không giới hạn; mới nhất trước
+    List<NotificationDto> findPage(UUID accountId, Integer status, LocalDateTime before, long offset, int limit);
+
+    long count(UUID accountId, Integer status, LocalDateTime before);
+
+    long countUnread(UUID accountId);
+
+    // Keyset: cũ hơn (before, beforeId), hoặc cũ hơn before khi beforeId null; mới nhất trước
+    List<NotificationDto> findOlder(UUID accountId, Integer status, LocalDateTime before, UUID beforeId, int limit);
+
+    Optional<NotificationDto> findById(UUID id);
+
+    // Chỉ đánh dấu bản còn chưa đọc; rỗng khi không có bản chưa đọc nào với id này
+    Optional<NotificationDto> markRead(UUID id);
+
+    int markAllRead(UUID accountId);
+
+    Optional<NotificationDto> delete(UUID id);
+}
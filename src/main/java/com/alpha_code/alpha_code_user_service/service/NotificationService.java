@@ -1,5 +1,6 @@
 package com.alpha_code.alpha_code_user_service.service;
 
+import com.alpha_code.alpha_code_user_service.dto.CursorPage;
 import com.alpha_code.alpha_code_user_service.dto.NotificationDto;
 import com.alpha_code.alpha_code_user_service.dto.PagedResult;
 
@@ -8,6 +9,15 @@ import java.util.UUID;
 public interface NotificationService {
     PagedResult<NotificationDto> getAll(int page, int size, UUID accountId, Integer status);
 
+    /**
+     * Feed page older than {@code cursor} (null = newest first page), read by score range so items
+     * arriving meanwhile do not shift it. Continues into the cold tier past the Redis window.
+     */
+    CursorPage<NotificationDto> getFeed(UUID accountId, Integer status, String cursor, int size);
+
+    // Những notification mới hơn since, để client kết nối lại không phải tải lại cả feed
+    CursorPage<NotificationDto> getFeedSince(UUID accountId, Integer status, String since, int size);
+
     NotificationDto getById(UUID id);
 
     NotificationDto create(NotificationDto notificationDto);
@@ -23,4 +33,13 @@ public interface NotificationService {
     NotificationDto readNotification(UUID id);
 
     java.util.Map<String, Object> readAllNotifications(UUID accountId);
+
+    long getUnreadCount(UUID accountId);
+
+    // Tăng mỗi khi danh sách của account (null = toàn hệ thống) thay đổi, dùng làm một phần cache key
+    long getListGeneration(UUID accountId);
+
+    void reconcileIndexes();
+
+    void enforceRetention();
 }
@@ -0,0 +1,13 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import java.util.Map;
+
+public interface PasswordHashingService {
+    String encode(CharSequence rawPassword);
+
+    boolean matches(CharSequence rawPassword, String encodedPassword);
+
+    boolean needsRehash(String encodedPassword);
+
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,16 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+public interface PaymentKeyService {
+    /**
+     * Never completes exceptionally: on timeout, failure or open circuit it yields the last cached key or "".
+     */
+    CompletableFuture<String> getKeyAsync(UUID accountId);
+
+    void invalidate(UUID accountId);
+
+    Map<String, Object> getStats();
+}
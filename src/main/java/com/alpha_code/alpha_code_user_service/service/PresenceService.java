@@ -0,0 +1,26 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.UUID;
+
+public interface PresenceService {
+    /**
+     * Marks the account as seen now. Writes are throttled per account, so this is cheap enough to
+     * call on every authenticated request.
+     */
+    void heartbeat(UUID accountId, String roleName);
+
+    void offline(UUID accountId);
+
+    long countOnline();
+
+    Map<String, Long> countOnlineByRole();
+
+    long countDailyActive(LocalDate day);
+
+    long countMonthlyActive(YearMonth month);
+
+    void trim();
+}
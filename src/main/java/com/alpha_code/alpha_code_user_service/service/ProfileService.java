@@ -11,7 +11,7 @@ import java.util.List;
 import java.util.UUID;
 
 public interface ProfileService {
-    PagedResult<ProfileDto> searchProfiles(int page, int size, String name, UUID accountId, Integer status, Boolean isKid, String passCode);
+    PagedResult<ProfileDto> searchProfiles(int page, int size, String name, UUID accountId, Integer status, Boolean isKid, String passCode, PagedResult.CountMode countMode);
 
     ProfileDto getProfileById(UUID id);
 
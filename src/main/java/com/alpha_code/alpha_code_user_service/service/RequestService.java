@@ -7,7 +7,7 @@ import com.alpha_code.alpha_code_user_service.entity.Request;
 import java.util.UUID;
 
 public interface RequestService {
-    PagedResult<RequestDto> getAllRequest(int page, int size, String title, String type, Integer status, UUID accountId, Integer rate);
+    PagedResult<RequestDto> getAllRequest(int page, int size, String title, String type, Integer status, UUID accountId, Integer rate, PagedResult.CountMode countMode);
 
     RequestDto getRequestById(UUID id);
 
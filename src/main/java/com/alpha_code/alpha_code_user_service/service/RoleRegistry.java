@@ -0,0 +1,23 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import com.alpha_code.alpha_code_user_service.dto.RoleDto;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RoleRegistry {
+    Optional<RoleDto> findById(UUID id);
+
+    RoleDto getById(UUID id);
+
+    Optional<RoleDto> findByName(String name);
+
+    UUID getIdByName(String name);
+
+    Collection<RoleDto> getAll();
+
+    void reload();
+
+    void refreshAfterCommit();
+}
@@ -0,0 +1,39 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import com.alpha_code.alpha_code_user_service.dto.SessionDto;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface SessionService {
+    enum RotationResult {
+        ROTATED,
+        // Token trình lên không phải token hiện tại của session: đã bị dùng/rotate trước đó
+        REUSE_DETECTED,
+        NOT_FOUND
+    }
+
+    String newSessionId();
+
+    /**
+     * Stores the fingerprint of {@code refreshToken} under a new session; when the account is over
+     * its session cap the oldest sessions are evicted.
+     */
+    void create(UUID accountId, String sessionId, String refreshToken, String device);
+
+    /**
+     * Atomically replaces the session's fingerprint with the one of {@code newToken}, only if
+     * {@code presentedToken} is the session's current token.
+     */
+    RotationResult rotate(UUID accountId, String sessionId, String presentedToken, String newToken);
+
+    boolean validate(UUID accountId, String sessionId, String refreshToken);
+
+    List<SessionDto> list(UUID accountId, String currentSessionId);
+
+    boolean revoke(UUID accountId, String sessionId);
+
+    void revokeOthers(UUID accountId, String keepSessionId);
+
+    void revokeAll(UUID accountId);
+}
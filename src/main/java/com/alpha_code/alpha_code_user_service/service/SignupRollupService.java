@@ -0,0 +1,17 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface SignupRollupService {
+    void recordSignup(LocalDateTime createdDate, UUID roleId);
+
+    void recordRoleChange(LocalDateTime createdDate, UUID fromRoleId, UUID toRoleId);
+
+    void recordRemoval(LocalDateTime createdDate, UUID roleId);
+
+    /**
+     * Recomputes the whole rollup from the account table; returns the number of rollup rows.
+     */
+    int rebuild();
+}
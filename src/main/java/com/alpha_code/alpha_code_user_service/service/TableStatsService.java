@@ -0,0 +1,11 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import java.util.OptionalLong;
+
+public interface TableStatsService {
+    /**
+     * Row count of a table from the PostgreSQL planner statistics (kept fresh by autovacuum /
+     * ANALYZE), without scanning it. Empty when the table has never been analyzed.
+     */
+    OptionalLong estimateRowCount(String table);
+}
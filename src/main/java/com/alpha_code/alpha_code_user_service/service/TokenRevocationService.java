@@ -0,0 +1,21 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Map;
+import java.util.UUID;
+
+public interface TokenRevocationService {
+    /**
+     * Rejects every token whose {@code jti} or {@code sid} equals {@code tokenId} until
+     * {@code untilMs}; revoking a session id therefore covers all tokens issued for that session.
+     */
+    void revokeTokenId(String tokenId, long untilMs);
+
+    // Mọi token của tài khoản phát hành trước thời điểm này đều bị từ chối
+    void revokeAccount(UUID accountId);
+
+    boolean isRevoked(Claims claims);
+
+    Map<String, Object> getStats();
+}
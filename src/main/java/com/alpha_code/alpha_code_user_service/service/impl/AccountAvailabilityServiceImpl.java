@@ -0,0 +1,204 @@
+package com.alpha_code.alpha_code_user_service.service.impl;
+
+import com.alpha_code.alpha_code_user_service.exception.ConflictException;
+import com.alpha_code.alpha_code_user_service.repository.AccountRepository;
+import com.alpha_code.alpha_code_user_service.repository.AccountRepository.AccountIdentifiers;
+import com.alpha_code.alpha_code_user_service.service.AccountAvailabilityService;
+import com.alpha_code.alpha_code_user_service.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Availability of username/email/phone for registration forms. One Bloom filter per field is built
+ * from the account table at startup and fed with new values by the account services (and by other
+ * instances over {@link #ADDED_CHANNEL}); the database is only queried when a filter says "maybe".
+ * The filters are rebuilt from the table periodically, so values missed while Redis pub/sub was
+ * down or written outside the account services are picked up again.
+ * The filters only answer the advisory check — writes always go through {@link #assertAvailable}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AccountAvailabilityServiceImpl implements AccountAvailabilityService, MessageListener {
+
+    public static final String ADDED_CHANNEL = "accounts:identifiers:added";
+    private static final int LOAD_PAGE_SIZE = 5000;
+
+    private final AccountRepository repository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Value("${account.availability.expected-insertions:200000}")
+    private long expectedInsertions;
+
+    @Value("${account.availability.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile Filters filters;
+    // Bộ filter đang được dựng lại; giá trị mới đến trong lúc rebuild được ghi vào cả hai
+    private volatile Filters rebuilding;
+
+    private record Filters(BloomFilter usernames, BloomFilter emails, BloomFilter phones) {
+        void add(String username, String email, String phone) {
+            if (username != null) usernames.put(username);
+            if (email != null) emails.put(email);
+            if (phone != null) phones.put(phone);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        filters = newFilters();
+        // Subscribe trước khi load để không lỡ giá trị được thêm trong lúc load
+        listenerContainer.addMessageListener(this, new ChannelTopic(ADDED_CHANNEL));
+        log.info("Account availability filters loaded from {} account(s)", rebuild());
+    }
+
+    @Scheduled(fixedDelayString = "${account.availability.rebuild-interval-ms:3600000}",
+            initialDelayString = "${account.availability.rebuild-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        try {
+            log.debug("Account availability filters rebuilt from {} account(s)", rebuild());
+        } catch (Exception e) {
+            log.error("Failed to rebuild account availability filters, keeping the current ones", e);
+        }
+    }
+
+    long rebuild() {
+        Filters next = newFilters();
+        rebuilding = next;
+        try {
+            long loaded = 0;
+            Slice<AccountIdentifiers> slice;
+            int page = 0;
+            do {
+                slice = repository.findAllIdentifiers(PageRequest.of(page++, LOAD_PAGE_SIZE, Sort.by("id")));
+                slice.forEach(ids -> next.add(normalize(ids.getUsername()), normalize(ids.getEmail()), normalize(ids.getPhone())));
+                loaded += slice.getNumberOfElements();
+            } while (slice.hasNext());
+            filters = next;
+            return loaded;
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    @Override
+    public Map<String, Boolean> checkAvailability(String username, String email, String phone) {
+        String u = normalize(username);
+        String e = normalize(email);
+        String p = normalize(phone);
+        if (u == null && e == null && p == null) {
+            throw new IllegalArgumentException("Cần truyền ít nhất một trong username, email, phone");
+        }
+
+        // Filter nói "chắc chắn chưa có" thì khỏi hỏi DB
+        Filters current = filters;
+        String dbUsername = u != null && current.usernames().mightContain(u) ? username : null;
+        String dbEmail = e != null && current.emails().mightContain(e) ? email : null;
+        String dbPhone = p != null && current.phones().mightContain(p) ? phone : null;
+
+        List<AccountIdentifiers> taken = dbUsername == null && dbEmail == null && dbPhone == null
+                ? List.of()
+                : repository.findConflicts(dbUsername, dbEmail, dbPhone);
+
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        if (u != null) result.put("username", isFree(dbUsername, taken, AccountIdentifiers::getUsername));
+        if (e != null) result.put("email", isFree(dbEmail, taken, AccountIdentifiers::getEmail));
+        if (p != null) result.put("phone", isFree(dbPhone, taken, AccountIdentifiers::getPhone));
+        return result;
+    }
+
+    @Override
+    public void assertAvailable(String username, String email, String phone) {
+        String dbUsername = blankToNull(username);
+        String dbEmail = blankToNull(email);
+        String dbPhone = blankToNull(phone);
+        List<AccountIdentifiers> conflicts = repository.findConflicts(dbUsername, dbEmail, dbPhone);
+        if (conflicts.isEmpty()) {
+            return;
+        }
+        if (dbUsername != null && conflicts.stream().anyMatch(ids -> dbUsername.equals(ids.getUsername()))) {
+            throw new ConflictException("Tên đăng nhập đã được sử dụng");
+        }
+        if (dbEmail != null && conflicts.stream().anyMatch(ids -> dbEmail.equals(ids.getEmail()))) {
+            throw new ConflictException("Email đã được sử dụng");
+        }
+        throw new ConflictException("Số điện thoại đã được sử dụng");
+    }
+
+    @Override
+    public void recordTaken(String username, String email, String phone) {
+        addLocal(username, email, phone);
+        try {
+            redisTemplate.convertAndSend(ADDED_CHANNEL, String.join("\n",
+                    nullToEmpty(username), nullToEmpty(email), nullToEmpty(phone)));
+        } catch (Exception e) {
+            log.error("Failed to publish account identifiers", e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", -1);
+        if (parts.length != 3) {
+            return;
+        }
+        addLocal(parts[0], parts[1], parts[2]);
+    }
+
+    private void addLocal(String username, String email, String phone) {
+        String u = normalize(username);
+        String e = normalize(email);
+        String p = normalize(phone);
+        filters.add(u, e, p);
+        Filters next = rebuilding;
+        if (next != null) {
+            next.add(u, e, p);
+        }
+    }
+
+    private Filters newFilters() {
+        return new Filters(new BloomFilter(expectedInsertions, falsePositiveRate),
+                new BloomFilter(expectedInsertions, falsePositiveRate),
+                new BloomFilter(expectedInsertions, falsePositiveRate));
+    }
+
+    private static boolean isFree(String value, List<AccountIdentifiers> taken,
+                                  Function<AccountIdentifiers, String> field) {
+        return value == null || taken.stream().noneMatch(ids -> value.equals(field.apply(ids)));
+    }
+
+    // Filter lưu dạng lowercase nên là tập cha của so khớp chính xác trong DB
+    private static String normalize(String value) {
+        String present = blankToNull(value);
+        return present == null ? null : present.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -2,24 +2,33 @@ package com.alpha_code.alpha_code_user_service.service.impl;
 
 import com.alpha_code.alpha_code_user_service.dto.AccountDto;
 import com.alpha_code.alpha_code_user_service.dto.PagedResult;
+import com.alpha_code.alpha_code_user_service.dto.RoleDto;
 import com.alpha_code.alpha_code_user_service.entity.Account;
 import com.alpha_code.alpha_code_user_service.entity.Role;
+import com.alpha_code.alpha_code_user_service.enums.AccountEnum;
 import com.alpha_code.alpha_code_user_service.exception.AuthenticationException;
 import com.alpha_code.alpha_code_user_service.exception.ConflictException;
 import com.alpha_code.alpha_code_user_service.exception.ResourceNotFoundException;
 import com.alpha_code.alpha_code_user_service.mapper.AccountMapper;
+import com.alpha_code.alpha_code_user_service.mapper.RoleMapper;
 import com.alpha_code.alpha_code_user_service.repository.AccountRepository;
 import com.alpha_code.alpha_code_user_service.repository.RoleRepository;
+import com.alpha_code.alpha_code_user_service.service.AccountAvailabilityService;
 import com.alpha_code.alpha_code_user_service.service.AccountService;
+import com.alpha_code.alpha_code_user_service.service.PasswordHashingService;
+import com.alpha_code.alpha_code_user_service.service.RoleRegistry;
 import com.alpha_code.alpha_code_user_service.service.S3Service;
+import com.alpha_code.alpha_code_user_service.service.SessionService;
+import com.alpha_code.alpha_code_user_service.service.TableStatsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -35,12 +44,28 @@ public class AccountServiceImpl implements AccountService {
 
     private final AccountRepository repository;
     private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final S3Service s3Service;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final AccountAvailabilityService accountAvailabilityService;
+    private final SessionService sessionService;
+    private final TableStatsService tableStatsService;
 
+    @Value("${app.default-avatar-url}")
+    private String defaultAvatarUrl;
 
     private static final String DEFAULT_ROLE = "USER";
 
+    private AccountDto toDto(Account account) {
+        if (account == null) {
+            return null;
+        }
+        String roleName = roleRegistry.findById(account.getRoleId())
+                .map(RoleDto::getName)
+                .orElse(null);
+        return AccountMapper.toDto(account, roleName);
+    }
+
     @Override
     @Cacheable(value = "grpc_account", key = "{#id}")
     public AccountInformation findAccountByIdGrpc(UUID id) {
@@ -52,17 +77,27 @@ public class AccountServiceImpl implements AccountService {
 
 
     @Override
-    @Cacheable(value = "accounts_list", key = "{#page, #size, #status}")
-    public PagedResult<AccountDto> getAll(int page, int size, Integer status) {
+    @Cacheable(value = "accounts_list", key = "{#page, #size, #status, #countMode}")
+    public PagedResult<AccountDto> getAll(int page, int size, Integer status, PagedResult.CountMode countMode) {
         Pageable pageable = PageRequest.of(page - 1, size);
-        Page<Account> pageResult;
 
+        if (countMode != PagedResult.CountMode.ESTIMATE) {
+            Page<Account> pageResult;
+            if (status != null) {
+                pageResult = repository.findAllByStatus(status, pageable);
+            } else {
+                pageResult = repository.findAll(pageable);
+            }
+            return new PagedResult<>(pageResult.map(this::toDto));
+        }
+
+        // Không COUNT: bảng đầy đủ lấy số dòng từ thống kê của planner, có filter thì chỉ trả cận dưới
         if (status != null) {
-            pageResult = repository.findAllByStatus(status, pageable);
-        } else {
-            pageResult = repository.findAll(pageable);
+            Slice<Account> sliceResult = repository.findSliceByStatus(status, pageable);
+            return new PagedResult<>(sliceResult.map(this::toDto), 0);
         }
-        return new PagedResult<>(pageResult.map(AccountMapper::toDto));
+        Slice<Account> sliceResult = repository.findSliceBy(pageable);
+        return new PagedResult<>(sliceResult.map(this::toDto), tableStatsService.estimateRowCount("account").orElse(0));
     }
 
     @Override
@@ -70,45 +105,37 @@ public class AccountServiceImpl implements AccountService {
     public AccountDto getById(UUID id) {
         var account = repository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy tài khoản"));
-        return AccountMapper.toDto(account);
+        return toDto(account);
     }
 
     @Override
     @Transactional
     @CacheEvict(value = {"accounts_list"}, allEntries = true)
     public AccountDto create(AccountDto accountDto, MultipartFile avatarFile) {
-        if (repository.existsByUsername(accountDto.getUsername())) {
-            throw new ConflictException("Tên đăng nhập đã được sử dụng");
-        }
-        if (repository.existsByEmail(accountDto.getEmail())) {
-            throw new ConflictException("Email đã được sử dụng");
-        }
-        if (repository.existsByPhone(accountDto.getPhone())) {
-            throw new ConflictException("Số điện thoại đã được sử dụng");
-        }
+        accountAvailabilityService.assertAvailable(accountDto.getUsername(), accountDto.getEmail(), accountDto.getPhone());
 
         Account entity = AccountMapper.toEntity(accountDto);
         entity.setCreatedDate(LocalDateTime.now());
         entity.setStatus(1);
         entity.setBannedReason(null);
-        entity.setPassword(passwordEncoder.encode(accountDto.getPassword()));
+        entity.setPassword(passwordHashingService.encode(accountDto.getPassword()));
 
         if (accountDto.getRoleId() != null) {
-            Role role = roleRepository.findById(accountDto.getRoleId())
+            RoleDto role = roleRegistry.findById(accountDto.getRoleId())
                     .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy Vai trò"));
-            entity.setRole(role);
+            entity.setRoleId(role.getId());
         } else {
-            Optional<Role> roleOpt = roleRepository.findByNameIgnoreCase(DEFAULT_ROLE);
-            Role role;
+            Optional<RoleDto> roleOpt = roleRegistry.findByName(DEFAULT_ROLE);
+            RoleDto role;
             if (roleOpt.isEmpty()) {
-                role = new Role();
-                role.setName(DEFAULT_ROLE);
-                role.setStatus(1);
-                roleRepository.save(role);
+                Role newRole = new Role();
+                newRole.setName(DEFAULT_ROLE);
+                newRole.setStatus(1);
+                role = RoleMapper.toDto(roleRepository.save(newRole));
+                roleRegistry.refreshAfterCommit();
             } else {
                 role = roleOpt.get();
             }
-            entity.setRole(role);
             entity.setRoleId(role.getId());
         }
         try {
@@ -116,10 +143,13 @@ public class AccountServiceImpl implements AccountService {
                 String fileKey = "avatars/" + System.currentTimeMillis() + "_" + avatarFile.getOriginalFilename();
                 String avatarUrl = s3Service.uploadBytes(avatarFile.getBytes(), fileKey, avatarFile.getContentType());
                 entity.setImage(avatarUrl);
+            } else if (entity.getImage() == null) {
+                entity.setImage(defaultAvatarUrl);
             }
 
             Account savedEntity = repository.save(entity);
-            return AccountMapper.toDto(savedEntity);
+            accountAvailabilityService.recordTaken(savedEntity.getUsername(), savedEntity.getEmail(), savedEntity.getPhone());
+            return toDto(savedEntity);
         } catch (Exception e) {
             throw new RuntimeException("Lỗi khi tạo Tài khoản", e);
         }
@@ -145,7 +175,8 @@ public class AccountServiceImpl implements AccountService {
         existingAccount.setLastUpdated(LocalDateTime.now());
 
         Account updatedEntity = repository.save(existingAccount);
-        return AccountMapper.toDto(updatedEntity);
+        accountAvailabilityService.recordTaken(updatedEntity.getUsername(), updatedEntity.getEmail(), updatedEntity.getPhone());
+        return toDto(updatedEntity);
     }
 
     @Override
@@ -178,7 +209,8 @@ public class AccountServiceImpl implements AccountService {
 
         }
         Account updatedEntity = repository.save(existingAccount);
-        return AccountMapper.toDto(updatedEntity);
+        accountAvailabilityService.recordTaken(updatedEntity.getUsername(), updatedEntity.getEmail(), updatedEntity.getPhone());
+        return toDto(updatedEntity);
     }
 
     @Override
@@ -193,7 +225,7 @@ public class AccountServiceImpl implements AccountService {
             existingAccount.setUsername(accountDto.getUsername());
         }
         if (accountDto.getPassword() != null) {
-            existingAccount.setPassword(passwordEncoder.encode(accountDto.getPassword()));
+            existingAccount.setPassword(passwordHashingService.encode(accountDto.getPassword()));
         }
         if (accountDto.getFullName() != null) {
             existingAccount.setFullName(accountDto.getFullName());
@@ -214,7 +246,8 @@ public class AccountServiceImpl implements AccountService {
         existingAccount.setLastUpdated(LocalDateTime.now());
 
         Account updatedEntity = repository.save(existingAccount);
-        return AccountMapper.toDto(updatedEntity);
+        accountAvailabilityService.recordTaken(updatedEntity.getUsername(), updatedEntity.getEmail(), updatedEntity.getPhone());
+        return toDto(updatedEntity);
 
     }
 
@@ -230,7 +263,7 @@ public class AccountServiceImpl implements AccountService {
             existingAccount.setUsername(accountDto.getUsername());
         }
         if (accountDto.getPassword() != null) {
-            existingAccount.setPassword(passwordEncoder.encode(accountDto.getPassword()));
+            existingAccount.setPassword(passwordHashingService.encode(accountDto.getPassword()));
         }
         if (accountDto.getFullName() != null) {
             existingAccount.setFullName(accountDto.getFullName());
@@ -251,9 +284,9 @@ public class AccountServiceImpl implements AccountService {
             existingAccount.setStatus(accountDto.getStatus());
         }
         if (accountDto.getRoleId() != null) {
-            Role role = roleRepository.findById(accountDto.getRoleId())
+            RoleDto role = roleRegistry.findById(accountDto.getRoleId())
                     .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy Vai trò"));
-            existingAccount.setRole(role);
+            existingAccount.setRoleId(role.getId());
         }
 
         if (avatarFile != null && !avatarFile.isEmpty()) {
@@ -270,7 +303,8 @@ public class AccountServiceImpl implements AccountService {
         existingAccount.setLastUpdated(LocalDateTime.now());
 
         Account updatedEntity = repository.save(existingAccount);
-        return AccountMapper.toDto(updatedEntity);
+        accountAvailabilityService.recordTaken(updatedEntity.getUsername(), updatedEntity.getEmail(), updatedEntity.getPhone());
+        return toDto(updatedEntity);
     }
 
     @Override
@@ -281,14 +315,14 @@ public class AccountServiceImpl implements AccountService {
         Account existingAccount = repository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy Tài khoản"));
 
-        if (!passwordEncoder.matches(oldPassword, existingAccount.getPassword())) {
+        if (!passwordHashingService.matches(oldPassword, existingAccount.getPassword())) {
             throw new AuthenticationException("Old password is incorrect");
         }
 
-        existingAccount.setPassword(passwordEncoder.encode(newPassword));
+        existingAccount.setPassword(passwordHashingService.encode(newPassword));
         existingAccount.setLastUpdated(LocalDateTime.now());
         Account updatedEntity = repository.save(existingAccount);
-        return AccountMapper.toDto(updatedEntity);
+        return toDto(updatedEntity);
     }
 
     @Override
@@ -296,10 +330,11 @@ public class AccountServiceImpl implements AccountService {
     @CachePut(value = "accounts", key = "#id")
     @CacheEvict(value = {"accounts_list", "grpc_account"}, allEntries = true)
     public AccountDto changeStatus(UUID id, Integer status, String bannedReason) {
-        Account existingAccount = repository.findAccountById(id)
+        Account existingAccount = repository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy Tài khoản"));
 
-        if(existingAccount.getRole().getName().equals("Admin")){
+        String roleName = roleRegistry.findById(existingAccount.getRoleId()).map(RoleDto::getName).orElse(null);
+        if ("Admin".equals(roleName)) {
             throw new ConflictException("Không thể thay đổi trạng thái của Admin");
         }
 
@@ -307,7 +342,11 @@ public class AccountServiceImpl implements AccountService {
         existingAccount.setBannedReason(bannedReason);
         existingAccount.setLastUpdated(LocalDateTime.now());
         Account updatedEntity = repository.save(existingAccount);
-        return AccountMapper.toDto(updatedEntity);
+        // Bị ban / xoá thì thu hồi ngay mọi session và access token đang dùng
+        if (status == null || status != AccountEnum.ACTIVE.getCode()) {
+            sessionService.revokeAll(id);
+        }
+        return toDto(updatedEntity);
     }
 
     @Override
@@ -322,6 +361,7 @@ public class AccountServiceImpl implements AccountService {
             account.setStatus(0);
             account.setLastUpdated(LocalDateTime.now());
             repository.save(account);
+            sessionService.revokeAll(id);
             return "Xoá thành công Account với ID: " + id;
         } catch (Exception e) {
             throw new RuntimeException("Lỗi khi xoá Account", e);
@@ -332,6 +372,6 @@ public class AccountServiceImpl implements AccountService {
     @Override
     public AccountDto findAccountByFullName(String fullName) {
         var account = repository.findAccountByFullName(fullName);
-        return AccountMapper.toDto(account);
+        return toDto(account);
     }
 }
@@ -4,6 +4,7 @@ import com.alpha_code.alpha_code_user_service.dto.AccountDto;
 import com.alpha_code.alpha_code_user_service.dto.LoginDto;
 import com.alpha_code.alpha_code_user_service.dto.ProfileDto;
 import com.alpha_code.alpha_code_user_service.dto.ResetPassworDto;
+import com.alpha_code.alpha_code_user_service.dto.RoleDto;
 import com.alpha_code.alpha_code_user_service.dto.request.SwitchProfileRequest;
 import com.alpha_code.alpha_code_user_service.entity.Account;
 import com.alpha_code.alpha_code_user_service.entity.Profile;
@@ -11,38 +12,36 @@ import com.alpha_code.alpha_code_user_service.entity.Role;
 import com.alpha_code.alpha_code_user_service.exception.AuthenticationException;
 import com.alpha_code.alpha_code_user_service.exception.ConflictException;
 import com.alpha_code.alpha_code_user_service.exception.ResourceNotFoundException;
-import com.alpha_code.alpha_code_user_service.grpc.client.PaymentServiceClient;
 import com.alpha_code.alpha_code_user_service.mapper.AccountMapper;
 import com.alpha_code.alpha_code_user_service.mapper.ProfileMapper;
+import com.alpha_code.alpha_code_user_service.mapper.RoleMapper;
 import com.alpha_code.alpha_code_user_service.repository.AccountRepository;
 import com.alpha_code.alpha_code_user_service.repository.ProfileRepository;
 import com.alpha_code.alpha_code_user_service.repository.RoleRepository;
+import com.alpha_code.alpha_code_user_service.service.AccountAvailabilityService;
 import com.alpha_code.alpha_code_user_service.service.AuthService;
 import com.alpha_code.alpha_code_user_service.service.DashboardService;
-import com.alpha_code.alpha_code_user_service.service.RedisRefreshTokenService;
+import com.alpha_code.alpha_code_user_service.service.MailOutboxService;
+import com.alpha_code.alpha_code_user_service.service.PasswordHashingService;
+import com.alpha_code.alpha_code_user_service.service.PaymentKeyService;
+import com.alpha_code.alpha_code_user_service.service.RoleRegistry;
 import com.alpha_code.alpha_code_user_service.service.S3Service;
+import com.alpha_code.alpha_code_user_service.service.SessionService;
 import com.alpha_code.alpha_code_user_service.util.EmailBody;
 import com.alpha_code.alpha_code_user_service.util.JwtUtil;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseToken;
 import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -51,34 +50,30 @@ public class AuthServiceImpl implements AuthService {
     private final AccountRepository repository;
 //    private final RefreshTokenRepository refreshTokenRepository;
     private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final ProfileRepository profileRepository;
     private final AccountRepository accountRepository;
-    private final RedisRefreshTokenService redisRefreshTokenService;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final SessionService sessionService;
+    private final PasswordHashingService passwordHashingService;
+    private final AccountAvailabilityService accountAvailabilityService;
     private final JwtUtil jwtUtil;
     private final S3Service s3Service;
     private final DashboardService dashboardService;
     @Value("${web-base-url}")
     private String webBaseUrl;
-    private final JavaMailSender mailSender;
+    @Value("${app.default-avatar-url}")
+    private String defaultAvatarUrl;
+    private final MailOutboxService mailOutboxService;
 
-    @Value("${jwt.refresh-expiration-ms}")
-    private long refreshTokenExpirationMs;
-
-    private final PaymentServiceClient paymentServiceClient;
+    private final PaymentKeyService paymentKeyService;
 
     @Override
     @Transactional
     public LoginDto.LoginResponse login(LoginDto.LoginRequest loginRequest) {
-        Optional<Account> accountOptional = repository.findAccountByUsername(loginRequest.getUsername());
-        if (accountOptional.isEmpty()) {
-            accountOptional = repository.findByEmail(loginRequest.getUsername());
-        }
-
-        Account account = accountOptional.orElseThrow(() ->
+        Account account = findLoginAccount(loginRequest.getUsername()).orElseThrow(() ->
                 new AuthenticationException("Sai tài khoản hoặc mật khẩu"));
 
-        if (!passwordEncoder.matches(loginRequest.getPassword().trim(), account.getPassword())) {
+        if (!passwordHashingService.matches(loginRequest.getPassword().trim(), account.getPassword())) {
             throw new AuthenticationException("Sai tài khoản hoặc mật khẩu");
         }
 
@@ -87,22 +82,24 @@ public class AuthServiceImpl implements AuthService {
             throw new AuthenticationException("Tài khoản đang bị khóa");
         }
 
+        // Cost bcrypt đã đổi so với lúc lưu → băm lại với cost hiện tại
+        if (passwordHashingService.needsRehash(account.getPassword())) {
+            account.setPassword(passwordHashingService.encode(loginRequest.getPassword().trim()));
+            repository.save(account);
+        }
+
         // Kiểm tra role của account
-        String accountRoleName = account.getRole().getName(); // Admin/Staff/User
+        String accountRoleName = roleRegistry.getById(account.getRoleId()).getName(); // Admin/Staff/User
 
         // Nếu là Admin hoặc Staff → login như bình thường (trả full token)
         if ("Admin".equalsIgnoreCase(accountRoleName) || "Staff".equalsIgnoreCase(accountRoleName)) {
-            String accessToken = jwtUtil.generateAccessToken(account);
-            String refreshToken = jwtUtil.generateRefreshToken(account);
+            String sessionId = sessionService.newSessionId();
+            String accessToken = jwtUtil.generateAccessToken(account, sessionId);
+            String refreshToken = jwtUtil.generateRefreshToken(account, sessionId);
 
-            redisRefreshTokenService.save(
-                    account.getId(),
-                    refreshToken,
-                    refreshTokenExpirationMs,
-                    TimeUnit.MILLISECONDS
-            );
+            sessionService.create(account.getId(), sessionId, refreshToken, loginRequest.getDeviceName());
 
-            dashboardService.addOnlineUser(account.getId());
+            dashboardService.addOnlineUser(account.getId(), accountRoleName);
 
             return LoginDto.LoginResponse.builder()
                     .requiresProfile(false)
@@ -113,8 +110,8 @@ public class AuthServiceImpl implements AuthService {
                     .build();
         }
 
-        // Nếu là User → kiểm tra profile
-        List<Profile> profiles = profileRepository.findByAccountId(account.getId());
+        // Nếu là User → kiểm tra profile (đã fetch cùng account)
+        List<Profile> profiles = account.getProfiles();
         if (profiles == null || profiles.isEmpty()) {
             // User chưa có profile → FE sẽ chuyển tới tạo profile cha
             return LoginDto.LoginResponse.builder()
@@ -143,32 +140,18 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public AccountDto register(LoginDto.RegisterRequest registerRequest) {
-        if (repository.existsByUsername(registerRequest.getUsername())) {
-            throw new ConflictException("Tên đăng nhập đã được sử dụng");
-        }
-        if (repository.existsByEmail(registerRequest.getEmail())) {
-            throw new ConflictException("Email đã được sử dụng");
-        }
-        if (repository.existsByPhone(registerRequest.getPhone())) {
-            throw new ConflictException("Số điện thoại đã được sử dụng");
-        }
+        accountAvailabilityService.assertAvailable(
+                registerRequest.getUsername(), registerRequest.getEmail(), registerRequest.getPhone());
 
         Account entity = new Account();
         entity.setUsername(registerRequest.getUsername());
-        entity.setPassword(passwordEncoder.encode(registerRequest.getPassword().trim()));
+        entity.setPassword(passwordHashingService.encode(registerRequest.getPassword().trim()));
         entity.setFullName(registerRequest.getFullName());
         entity.setEmail(registerRequest.getEmail());
         entity.setPhone(registerRequest.getPhone());
         entity.setGender(registerRequest.getGender());
         entity.setStatus(1);
-        var roleUser = roleRepository.findByNameIgnoreCase("User");
-        if (roleUser.isEmpty()) {
-            Role newRole = new Role();
-            newRole.setName("User");
-            newRole.setStatus(1);
-            roleRepository.save(newRole);
-            roleUser = roleRepository.findByNameIgnoreCase("User");
-        }
+        RoleDto roleUser = resolveUserRole();
 
         if (registerRequest.getAvatarFile() != null && !registerRequest.getAvatarFile().isEmpty()) {
             try {
@@ -180,28 +163,36 @@ public class AuthServiceImpl implements AuthService {
             }
 
         } else {
-            try {
-                ClassPathResource resource = new ClassPathResource("images/alphacode-logo.png");
-                byte[] defaultImageBytes = resource.getInputStream().readAllBytes();
-
-                // Encode sang base64
-                String base64Image = Base64.getEncoder().encodeToString(defaultImageBytes);
-
-                // Thêm prefix để FE load trực tiếp
-                String dataUri = "data:image/png;base64," + base64Image;
-
-                entity.setImage(dataUri);
-            } catch (IOException e) {
-                throw new RuntimeException("Lỗi khi đọc ảnh mặc định", e);
-            }
+            // Lưu URL ảnh mặc định dùng chung thay vì base64 trong từng row
+            entity.setImage(defaultAvatarUrl);
         }
-        entity.setRoleId(roleUser.get().getId());
-        entity.setRole(roleUser.get());
+        entity.setRoleId(roleUser.getId());
         entity.setCreatedDate(LocalDateTime.now());
 
         Account savedEntity = repository.save(entity);
+        accountAvailabilityService.recordTaken(savedEntity.getUsername(), savedEntity.getEmail(), savedEntity.getPhone());
 
-        return AccountMapper.toDto(savedEntity);
+        return AccountMapper.toDto(savedEntity, roleUser.getName());
+    }
+
+    private Optional<Account> findLoginAccount(String login) {
+        List<Account> matches = repository.findForLogin(login);
+        // Ưu tiên account khớp username rồi mới tới email
+        return matches.stream()
+                .filter(a -> login.equals(a.getUsername()))
+                .findFirst()
+                .or(() -> matches.stream().findFirst());
+    }
+
+    private RoleDto resolveUserRole() {
+        return roleRegistry.findByName("User").orElseGet(() -> {
+            Role newRole = new Role();
+            newRole.setName("User");
+            newRole.setStatus(1);
+            Role savedRole = roleRepository.save(newRole);
+            roleRegistry.refreshAfterCommit();
+            return RoleMapper.toDto(savedRole);
+        });
     }
 
     @Override
@@ -214,51 +205,38 @@ public class AuthServiceImpl implements AuthService {
             String name = (String) firebaseToken.getClaims().get("name");
             String picture = firebaseToken.getPicture();
 
-            Account account = repository.findByEmail(email).orElse(null);
+            Account account = repository.findWithProfilesByEmail(email).orElse(null);
 
             // Nếu không có account -> tạo mới với Role User
             if (account == null) {
                 account = new Account();
                 account.setUsername(email);
-                account.setPassword(passwordEncoder.encode("")); // đặt trống
+                account.setPassword(passwordHashingService.encode("")); // đặt trống
                 account.setFullName(name);
                 account.setEmail(email);
                 account.setPhone("");
                 account.setGender(0);
-                account.setImage(picture);
+                account.setImage(picture != null ? picture : defaultAvatarUrl);
                 account.setCreatedDate(LocalDateTime.now());
                 account.setStatus(1);
 
-                var roleUser = roleRepository.findByNameIgnoreCase("User");
-                if (roleUser.isEmpty()) {
-                    Role newRole = new Role();
-                    newRole.setName("User");
-                    newRole.setStatus(1);
-                    roleRepository.save(newRole);
-                    roleUser = roleRepository.findByNameIgnoreCase("User");
-                }
-
-                account.setRoleId(roleUser.get().getId());
-                account.setRole(roleUser.get());
+                account.setRoleId(resolveUserRole().getId());
                 account = repository.save(account);
+                accountAvailabilityService.recordTaken(account.getUsername(), account.getEmail(), account.getPhone());
             }
 
             // Kiểm tra role
-            String accountRoleName = account.getRole().getName();
+            String accountRoleName = roleRegistry.getById(account.getRoleId()).getName();
 
             // Nếu là Admin hoặc Staff → trả token full
             if ("Admin".equalsIgnoreCase(accountRoleName) || "Staff".equalsIgnoreCase(accountRoleName)) {
-                String accessToken = jwtUtil.generateAccessToken(account);
-                String refreshToken = jwtUtil.generateRefreshToken(account);
+                String sessionId = sessionService.newSessionId();
+                String accessToken = jwtUtil.generateAccessToken(account, sessionId);
+                String refreshToken = jwtUtil.generateRefreshToken(account, sessionId);
 
-                redisRefreshTokenService.save(
-                        account.getId(),
-                        refreshToken,
-                        refreshTokenExpirationMs,
-                        TimeUnit.MILLISECONDS
-                );
+                sessionService.create(account.getId(), sessionId, refreshToken, null);
 
-                dashboardService.addOnlineUser(account.getId());
+                dashboardService.addOnlineUser(account.getId(), accountRoleName);
 
                 return LoginDto.LoginResponse.builder()
                         .requiresProfile(false)
@@ -270,7 +248,7 @@ public class AuthServiceImpl implements AuthService {
             }
 
             // Nếu là User → kiểm tra profile
-            List<Profile> profiles = profileRepository.findByAccountId(account.getId());
+            List<Profile> profiles = account.getProfiles();
             if (profiles == null || profiles.isEmpty()) {
                 // Chưa có profile → FE sẽ chuyển hướng tới tạo profile cha
                 return LoginDto.LoginResponse.builder()
@@ -307,27 +285,13 @@ public class AuthServiceImpl implements AuthService {
         var account = repository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy email trong hệ thống"));
 
-        System.out.println("Account get = " + account.getId());
-
-        MimeMessage message = mailSender.createMimeMessage();
-
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-        helper.setTo(email);
-        helper.setSubject("Đặt lại mật khẩu - AlphaCode");
-
         var resetToken = jwtUtil.generateResetPasswordToken(account);
         var resetLink = webBaseUrl + "/reset-password/reset?token=" + resetToken;
 
         var emailBody = EmailBody.getResetPasswordEmailBody(account.getFullName(), resetLink);
 
-        helper.setText(emailBody, true);
-
-        // Put logo picture (inline image với cid:alphacode-logo)
-        ClassPathResource logoImage = new ClassPathResource("images/alphacode-logo.png");
-        helper.addInline("alphacode-logo", logoImage);
-
-        mailSender.send(message);
+        // Ghi vào outbox, worker gửi sau khi transaction commit
+        mailOutboxService.enqueue(email, "Đặt lại mật khẩu - AlphaCode", emailBody);
         return true;
     }
 
@@ -345,7 +309,7 @@ public class AuthServiceImpl implements AuthService {
         }
 
         // 3. Hash new password
-        account.setPassword(passwordEncoder.encode(dto.getNewPassword()));
+        account.setPassword(passwordHashingService.encode(dto.getNewPassword()));
 
         // 4. Save new password to db
         repository.save(account);
@@ -359,13 +323,16 @@ public class AuthServiceImpl implements AuthService {
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy profile"));
 
         // 2. Nếu profile là trẻ em và có passcode thì kiểm tra
-        if (profile.getPassCode() != null && !passwordEncoder.matches(request.getPassCode().trim(), profile.getPassCode())) {
+        if (profile.getPassCode() != null && !passwordHashingService.matches(request.getPassCode().trim(), profile.getPassCode())) {
             throw new IllegalArgumentException("PassCode không đúng");
         }
+        if (profile.getPassCode() != null && passwordHashingService.needsRehash(profile.getPassCode())) {
+            profile.setPassCode(passwordHashingService.encode(request.getPassCode().trim()));
+            profileRepository.save(profile);
+        }
 
         // 3. Lấy role của profile
-        Role role = roleRepository.findById(profile.getRoleId())
-                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy role"));
+        RoleDto role = roleRegistry.getById(profile.getRoleId());
 
         Account account = accountRepository.findById(profile.getAccountId())
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy account"));
@@ -373,26 +340,22 @@ public class AuthServiceImpl implements AuthService {
         account.setRoleId(role.getId());
         account.setFullName(profile.getName());
 
-        // 4. Sinh token mới (gắn profileId + role vào claim)
-        String accessToken = jwtUtil.generateAccessToken(account);
-        String refreshToken = jwtUtil.generateRefreshToken(account);
+        // Gọi payment service song song với việc sinh token
+        CompletableFuture<String> key = paymentKeyService.getKeyAsync(account.getId());
 
-        redisRefreshTokenService.save(
-                account.getId(),
-                refreshToken,
-                refreshTokenExpirationMs,
-                TimeUnit.MILLISECONDS
-        );
+        // 4. Sinh token mới (gắn profileId + role vào claim)
+        String sessionId = sessionService.newSessionId();
+        String accessToken = jwtUtil.generateAccessToken(account, sessionId);
+        String refreshToken = jwtUtil.generateRefreshToken(account, sessionId);
 
-        dashboardService.addOnlineUser(account.getId());
+        sessionService.create(account.getId(), sessionId, refreshToken, request.getDeviceName());
 
-        var keyResponse = paymentServiceClient.getKeyByAccountId(account.getId());
-        String key = keyResponse != null ? keyResponse.getKey() : "";
+        dashboardService.addOnlineUser(account.getId(), role.getName());
 
         // 5. Trả về access & refresh token
         return LoginDto.LoginResponse.builder()
                 .accessToken(accessToken)
                 .refreshToken(refreshToken)
-                .key(key).build();
+                .key(key.join()).build();
     }
 }
@@ -0,0 +1,51 @@
+package com.alpha_code.alpha_code_user_service.service.impl;
+
+import com.alpha_code.alpha_code_user_service.service.CacheStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+@Service
+@RequiredArgsConstructor
+public class CacheStatsServiceImpl implements CacheStatsService {
+
+    private final CacheManager cacheManager;
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String name : new TreeSet<>(cacheManager.getCacheNames())) {
+            if (cacheManager.getCache(name) instanceof RedisCache cache) {
+                CacheStatistics statistics = cache.getStatistics();
+                long hits = statistics.getHits();
+                long misses = statistics.getMisses();
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("hits", hits);
+                stats.put("misses", misses);
+                stats.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+                stats.put("puts", statistics.getPuts());
+                stats.put("deletes", statistics.getDeletes());
+                stats.put("since", statistics.getSince());
+                result.put(name, stats);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void resetStats() {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof RedisCache redisCache) {
+                redisCache.clearStatistics();
+            }
+        }
+    }
+}
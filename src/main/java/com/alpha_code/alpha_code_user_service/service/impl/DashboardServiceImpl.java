@@ -1,68 +1,74 @@
 package com.alpha_code.alpha_code_user_service.service.impl;
 
-import com.alpha_code.alpha_code_user_service.repository.AccountRepository;
-import com.alpha_code.alpha_code_user_service.repository.RoleRepository;
+import com.alpha_code.alpha_code_user_service.dto.RoleDto;
+import com.alpha_code.alpha_code_user_service.dto.TimeSeriesPointDto;
+import com.alpha_code.alpha_code_user_service.repository.AccountSignupDailyRepository;
+import com.alpha_code.alpha_code_user_service.repository.AccountSignupDailyRepository.BucketCount;
 import com.alpha_code.alpha_code_user_service.service.DashboardService;
+import com.alpha_code.alpha_code_user_service.service.PresenceService;
+import com.alpha_code.alpha_code_user_service.service.RoleRegistry;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.temporal.WeekFields;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class DashboardServiceImpl implements DashboardService {
 
     private final RedisTemplate<String, String> redisTemplate;
-    private final AccountRepository accountRepository;
+    private final AccountSignupDailyRepository signupRollup;
 //    private final ActivityRepository activityRepository;
 //    private final RobotRepository robotRepository;
 //    private final OrganizationRepository organizationRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
+    private final PresenceService presenceService;
 //    private final QRCodeRepository qrCodeRepository;
 //    private final OsmoCardRepository osmoCardRepository;
 //    private final MarkerRepository markerRepository;
 //    private final ActivityMapper activityMapper;
-    private static final String ONLINE_KEY_PREFIX = "online:user:";
+
+    // Hash theo (granularity, role): field = ngày đầu bucket, value = số đăng ký của bucket đã đóng
+    public static final String SIGNUP_SERIES_KEY_PREFIX = "dashboard:signups:";
+    private static final String ALL_ROLES = "all";
+    private static final int MAX_BUCKETS = 1000;
 
     @Override
     public long countOnlineUsers() {
-        Set<String> keys = redisTemplate.keys(ONLINE_KEY_PREFIX + "*");
-        return keys != null ? keys.size() : 0;
+        return presenceService.countOnline();
     }
 
     @Override
-    public void addOnlineUser(UUID accountId) {
-        String key = ONLINE_KEY_PREFIX + accountId;
-        redisTemplate.opsForValue().set(key, "online", 5, TimeUnit.MINUTES);
+    public void addOnlineUser(UUID accountId, String roleName) {
+        presenceService.heartbeat(accountId, roleName);
     }
 
     @Override
     public void removeOnlineUser(UUID accountId) {
-        String key = ONLINE_KEY_PREFIX + accountId;
-        redisTemplate.delete(key);
+        presenceService.offline(accountId);
     }
 
     @Override
     public long countUsersByRole(String roleName) {
         UUID roleId = getRoleIdByName(roleName);
-        return accountRepository.countByRoleId(roleId);
+        return signupRollup.sumByRoleId(roleId);
     }
 
     @Override
     public long countNewUsersByRoleThisMonth(String roleName) {
         UUID roleId = getRoleIdByName(roleName);
         LocalDate now = LocalDate.now();
-        LocalDateTime startOfMonth = now.withDayOfMonth(1).atStartOfDay();
-        LocalDateTime endOfMonth = now.plusMonths(1).withDayOfMonth(1).atStartOfDay();
-        return accountRepository.countByRoleIdAndCreatedDateBetween(roleId, startOfMonth, endOfMonth);
+        LocalDate startOfMonth = now.withDayOfMonth(1);
+        LocalDate endOfMonth = startOfMonth.plusMonths(1);
+        return signupRollup.sumByRoleIdBetween(roleId, startOfMonth, endOfMonth);
     }
 
     @Override
@@ -71,14 +77,14 @@ public class DashboardServiceImpl implements DashboardService {
         LocalDate now = LocalDate.now();
 
         // tháng này
-        LocalDateTime startOfThisMonth = now.withDayOfMonth(1).atStartOfDay();
-        LocalDateTime endOfThisMonth = now.plusMonths(1).withDayOfMonth(1).atStartOfDay();
-        long newThisMonth = accountRepository.countByRoleIdAndCreatedDateBetween(roleId, startOfThisMonth, endOfThisMonth);
+        LocalDate startOfThisMonth = now.withDayOfMonth(1);
+        LocalDate endOfThisMonth = startOfThisMonth.plusMonths(1);
+        long newThisMonth = signupRollup.sumByRoleIdBetween(roleId, startOfThisMonth, endOfThisMonth);
 
         // tháng trước
-        LocalDateTime startOfLastMonth = now.minusMonths(1).withDayOfMonth(1).atStartOfDay();
-        LocalDateTime endOfLastMonth = startOfThisMonth;
-        long newLastMonth = accountRepository.countByRoleIdAndCreatedDateBetween(roleId, startOfLastMonth, endOfLastMonth);
+        LocalDate startOfLastMonth = startOfThisMonth.minusMonths(1);
+        LocalDate endOfLastMonth = startOfThisMonth;
+        long newLastMonth = signupRollup.sumByRoleIdBetween(roleId, startOfLastMonth, endOfLastMonth);
 
         if (newLastMonth == 0) {
             return newThisMonth > 0 ? 100.0 : 0.0;
@@ -92,15 +98,15 @@ public class DashboardServiceImpl implements DashboardService {
         LocalDate now = LocalDate.now();
 
         // tháng này
-        LocalDateTime startOfMonth = now.withDayOfMonth(1).atStartOfDay();
-        LocalDateTime endOfMonth = now.plusMonths(1).withDayOfMonth(1).atStartOfDay();
+        LocalDate startOfMonth = now.withDayOfMonth(1);
+        LocalDate endOfMonth = startOfMonth.plusMonths(1);
 
         // tháng trước
-        LocalDateTime startOfLastMonth = now.minusMonths(1).withDayOfMonth(1).atStartOfDay();
-        LocalDateTime endOfLastMonth = startOfMonth;
+        LocalDate startOfLastMonth = startOfMonth.minusMonths(1);
+        LocalDate endOfLastMonth = startOfMonth;
 
-        long newUsersThisMonth = accountRepository.countByCreatedDateBetween(startOfMonth, endOfMonth);
-        long newUsersLastMonth = accountRepository.countByCreatedDateBetween(startOfLastMonth, endOfLastMonth);
+        long newUsersThisMonth = signupRollup.sumBetween(startOfMonth, endOfMonth);
+        long newUsersLastMonth = signupRollup.sumBetween(startOfLastMonth, endOfLastMonth);
         double newThisMonth;
 
         if (newUsersLastMonth == 0) {
@@ -110,7 +116,7 @@ public class DashboardServiceImpl implements DashboardService {
         }
 
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalAccounts", accountRepository.count());
+        stats.put("totalAccounts", signupRollup.sumAll());
         stats.put("newUsersThisMonth", newUsersThisMonth);
         stats.put("newUsersLastMonth", newUsersLastMonth);
         stats.put("growthRate", newThisMonth);
@@ -123,7 +129,7 @@ public class DashboardServiceImpl implements DashboardService {
     @Cacheable(value = "dashboardSummary", key = "'summary'")
     public Map<String, Long> getSummaryStats() {
         Map<String, Long> stats = new HashMap<>();
-        stats.put("totalAccounts", accountRepository.count());
+        stats.put("totalAccounts", signupRollup.sumAll());
 //        stats.put("totalActivities", activityRepository.count());
 //        stats.put("totalRobots", robotRepository.count());
 //        stats.put("totalOrganizations", organizationRepository.count());
@@ -142,8 +148,137 @@ public class DashboardServiceImpl implements DashboardService {
         return stats;
     }
 
+    @Override
+    public Map<String, Object> getActiveUserStats() {
+        LocalDate today = LocalDate.now();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("online", presenceService.countOnline());
+        stats.put("onlineByRole", presenceService.countOnlineByRole());
+        stats.put("dailyActive", presenceService.countDailyActive(today));
+        stats.put("monthlyActive", presenceService.countMonthlyActive(YearMonth.from(today)));
+        return stats;
+    }
+
+    @Override
+    public List<TimeSeriesPointDto> getSignupTimeSeries(Granularity granularity, String roleName,
+                                                        LocalDate from, LocalDate to) {
+        if (granularity == null || from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Khoảng thời gian không hợp lệ");
+        }
+        UUID roleId = roleName == null || roleName.isBlank() ? null : getRoleIdByName(roleName);
+
+        List<LocalDate> buckets = new ArrayList<>();
+        for (LocalDate bucket = granularity.floor(from); !bucket.isAfter(to); bucket = granularity.next(bucket)) {
+            if (buckets.size() == MAX_BUCKETS) {
+                throw new IllegalArgumentException("Tối đa " + MAX_BUCKETS + " bucket mỗi lần truy vấn");
+            }
+            buckets.add(bucket);
+        }
+
+        LocalDate today = LocalDate.now();
+        String cacheKey = signupSeriesKey(granularity, roleId);
+        Map<LocalDate, Long> counts = readClosedBuckets(cacheKey, granularity, buckets, today);
+
+        // Một query duy nhất cho các bucket chưa cache (luôn gồm bucket đang mở)
+        List<LocalDate> missing = buckets.stream().filter(bucket -> !counts.containsKey(bucket)).toList();
+        if (!missing.isEmpty()) {
+            LocalDate queryFrom = missing.get(0);
+            LocalDate queryTo = granularity.next(missing.get(missing.size() - 1));
+            String unit = granularity.name().toLowerCase(Locale.ROOT);
+            List<BucketCount> rows = roleId == null
+                    ? signupRollup.sumByBucket(unit, queryFrom, queryTo)
+                    : signupRollup.sumByRoleIdAndBucket(unit, roleId, queryFrom, queryTo);
+            Map<LocalDate, Long> fresh = new HashMap<>();
+            rows.forEach(row -> fresh.put(LocalDate.parse(row.getBucket()), row.getTotal()));
+
+            Map<String, String> closed = new HashMap<>();
+            for (LocalDate bucket : missing) {
+                long count = fresh.getOrDefault(bucket, 0L);
+                counts.put(bucket, count);
+                if (isClosed(granularity, bucket, today)) {
+                    closed.put(bucket.toString(), String.valueOf(count));
+                }
+            }
+            writeClosedBuckets(cacheKey, closed);
+        }
+
+        return buckets.stream()
+                .map(bucket -> new TimeSeriesPointDto(bucket, counts.get(bucket)))
+                .toList();
+    }
+
+    @Override
+    public void evictSignupTimeSeries(LocalDate day, Collection<UUID> roleIds) {
+        List<UUID> targets = new ArrayList<>(roleIds);
+        targets.add(null);
+        try {
+            for (Granularity granularity : Granularity.values()) {
+                String field = granularity.floor(day).toString();
+                for (UUID roleId : targets) {
+                    redisTemplate.opsForHash().delete(signupSeriesKey(granularity, roleId), field);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to evict signup time series for {}: {}", day, e.getMessage());
+        }
+    }
+
+    @Override
+    public void clearSignupTimeSeries() {
+        List<String> keys = new ArrayList<>();
+        for (Granularity granularity : Granularity.values()) {
+            keys.add(signupSeriesKey(granularity, null));
+            for (RoleDto role : roleRegistry.getAll()) {
+                keys.add(signupSeriesKey(granularity, role.getId()));
+            }
+        }
+        redisTemplate.delete(keys);
+    }
+
+    private Map<LocalDate, Long> readClosedBuckets(String cacheKey, Granularity granularity,
+                                                   List<LocalDate> buckets, LocalDate today) {
+        Map<LocalDate, Long> counts = new HashMap<>();
+        List<LocalDate> closed = buckets.stream().filter(bucket -> isClosed(granularity, bucket, today)).toList();
+        if (closed.isEmpty()) {
+            return counts;
+        }
+        try {
+            List<Object> cached = redisTemplate.opsForHash().multiGet(cacheKey,
+                    closed.stream().map(bucket -> (Object) bucket.toString()).toList());
+            for (int i = 0; i < closed.size(); i++) {
+                if (cached.get(i) != null) {
+                    counts.put(closed.get(i), Long.parseLong(cached.get(i).toString()));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read signup time series cache {}: {}", cacheKey, e.getMessage());
+        }
+        return counts;
+    }
+
+    private void writeClosedBuckets(String cacheKey, Map<String, String> closed) {
+        if (closed.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.opsForHash().putAll(cacheKey, closed);
+        } catch (Exception e) {
+            log.warn("Failed to write signup time series cache {}: {}", cacheKey, e.getMessage());
+        }
+    }
+
+    // Bucket kết thúc trước hôm nay thì không còn account mới rơi vào nữa
+    private static boolean isClosed(Granularity granularity, LocalDate bucket, LocalDate today) {
+        return !granularity.next(bucket).isAfter(today);
+    }
+
+    private static String signupSeriesKey(Granularity granularity, UUID roleId) {
+        return SIGNUP_SERIES_KEY_PREFIX + granularity.name().toLowerCase(Locale.ROOT) + ":"
+                + (roleId == null ? ALL_ROLES : roleId);
+    }
+
     private UUID getRoleIdByName(String roleName) {
-        return roleRepository.findByNameIgnoreCase(roleName)
+        return roleRegistry.findByName(roleName)
                 .orElseThrow(() -> new RuntimeException("Role not found: " + roleName))
                 .getId();
     }
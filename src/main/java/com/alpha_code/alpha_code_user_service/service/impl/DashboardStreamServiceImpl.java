@@ -0,0 +1,118 @@
+package com.alpha_code.alpha_code_user_service.service.impl;
+
+import com.alpha_code.alpha_code_user_service.service.DashboardService;
+import com.alpha_code.alpha_code_user_service.service.DashboardStreamService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes dashboard stats over STOMP instead of every open tab polling the REST endpoints: one
+ * snapshot is computed per tick on each instance, whatever the number of subscribers, and only
+ * the changed fields are broadcast on {@link #TOPIC}. Nothing is computed while nobody listens.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardStreamServiceImpl implements DashboardStreamService {
+
+    private final DashboardService dashboardService;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // sessionId -> subscription ids trên TOPIC
+    private final Map<String, Set<String>> subscriptions = new ConcurrentHashMap<>();
+
+    private volatile Map<String, Object> lastSnapshot;
+
+    @Override
+    public Map<String, Object> getSnapshot() {
+        Map<String, Object> snapshot = lastSnapshot;
+        if (snapshot == null) {
+            snapshot = computeSnapshot();
+            lastSnapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${dashboard.stream.tick-ms:5000}")
+    public void tick() {
+        if (subscriptions.isEmpty()) {
+            // Không ai xem thì lần subscribe sau phải lấy số liệu mới
+            lastSnapshot = null;
+            return;
+        }
+        Map<String, Object> snapshot;
+        try {
+            snapshot = computeSnapshot();
+        } catch (Exception e) {
+            log.warn("Failed to compute dashboard snapshot: {}", e.getMessage());
+            return;
+        }
+        Map<String, Object> previous = lastSnapshot;
+        lastSnapshot = snapshot;
+
+        Map<String, Object> delta = new LinkedHashMap<>();
+        snapshot.forEach((field, value) -> {
+            if (previous == null || !Objects.equals(previous.get(field), value)) {
+                delta.put(field, value);
+            }
+        });
+        if (!delta.isEmpty()) {
+            messagingTemplate.convertAndSend(TOPIC, delta);
+        }
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return subscriptions.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @EventListener
+    public void handleSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        if (TOPIC.equals(accessor.getDestination()) && accessor.getSessionId() != null) {
+            subscriptions.computeIfAbsent(accessor.getSessionId(), id -> ConcurrentHashMap.newKeySet())
+                    .add(String.valueOf(accessor.getSubscriptionId()));
+        }
+    }
+
+    @EventListener
+    public void handleUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        if (accessor.getSessionId() == null) {
+            return;
+        }
+        subscriptions.computeIfPresent(accessor.getSessionId(), (id, ids) -> {
+            ids.remove(String.valueOf(accessor.getSubscriptionId()));
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    @EventListener
+    public void handleDisconnect(SessionDisconnectEvent event) {
+        subscriptions.remove(event.getSessionId());
+    }
+
+    private Map<String, Object> computeSnapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.putAll(dashboardService.getSummaryStats());
+        snapshot.putAll(dashboardService.getUserStats());
+        snapshot.putAll(dashboardService.getActiveUserStats());
+        return Collections.unmodifiableMap(snapshot);
+    }
+}
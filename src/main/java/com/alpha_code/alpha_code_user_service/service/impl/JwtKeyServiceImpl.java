@@ -0,0 +1,386 @@
+package com.alpha_code.alpha_code_user_service.service.impl;
+
+import com.alpha_code.alpha_code_user_service.service.JwtKeyService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ES256 key ring shared by all instances through Redis.
+ * <p>
+ * {@code jwt:signing-keys} holds only the public half of each key ({@code createdAt|retireAt|x509}
+ * per kid) and {@code jwt:signing-keys:active} the kid used for signing. The private key of the active
+ * kid is kept in {@code jwt:signing-keys:private}, AES-GCM encrypted with {@code jwt.keys.encryption-key}
+ * which only lives in config, so reading Redis is not enough to sign tokens. When the active key is
+ * older than the rotation period a new key is created under a Redis lock; the previous one loses its
+ * private half but stays in the JWKS until {@code retireAt} so tokens it signed keep verifying.
+ * Whether a rotation is due is decided from the stored active kid and its {@code createdAt}; an
+ * instance that cannot decrypt the active private key refuses to start and never rotates, so a
+ * misconfigured instance cannot replace the key the others sign with.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JwtKeyServiceImpl implements JwtKeyService, MessageListener {
+
+    public static final String KEYS_HASH = "jwt:signing-keys";
+    public static final String PRIVATE_KEYS_HASH = "jwt:signing-keys:private";
+    public static final String ACTIVE_KID_KEY = "jwt:signing-keys:active";
+    public static final String LOCK_KEY = "jwt:signing-keys:lock";
+    public static final String REFRESH_CHANNEL = "jwt:signing-keys:refresh";
+
+    private static final String ALGORITHM = "ES256";
+    private static final Duration LOCK_TTL = Duration.ofSeconds(30);
+    private static final long MISSING_KID_RELOAD_INTERVAL_MS = 5_000;
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int GCM_IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Value("${jwt.keys.rotation-period-ms:2592000000}")
+    private long rotationPeriodMs;
+
+    // Mặc định giữ key cũ bằng thời hạn refresh token để token đã phát vẫn verify được
+    @Value("${jwt.keys.grace-period-ms:${jwt.refresh-expiration-ms}}")
+    private long gracePeriodMs;
+
+    // Bí mật ngẫu nhiên (>= 32 byte) từ config / secret manager, không bao giờ ghi vào Redis
+    @Value("${jwt.keys.encryption-key}")
+    private String encryptionSecret;
+
+    private SecretKey encryptionKey;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicReference<KeyRing> keyRing = new AtomicReference<>(KeyRing.EMPTY);
+    private final AtomicLong lastMissingKidReload = new AtomicLong();
+
+    private record StoredKey(String kid, long createdAt, long retireAt, PrivateKey privateKey, PublicKey publicKey) {
+        boolean isRetired(long now) {
+            return retireAt > 0 && retireAt <= now;
+        }
+    }
+
+    // active = bản ghi của kid đang active (privateKey null nếu chưa có phần private);
+    // activeUnreadable = có phần private nhưng instance này không giải mã được
+    private record KeyRing(StoredKey active, boolean activeUnreadable, Map<String, PublicKey> verificationKeys,
+                           Map<String, Object> jwks) {
+        static final KeyRing EMPTY = new KeyRing(null, false, Map.of(), Map.of("keys", List.of()));
+
+        boolean canSign() {
+            return active != null && active.privateKey() != null;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (encryptionSecret == null || encryptionSecret.isBlank()) {
+            throw new IllegalStateException("jwt.keys.encryption-key must be set");
+        }
+        try {
+            encryptionKey = new SecretKeySpec(MessageDigest.getInstance("SHA-256")
+                    .digest(encryptionSecret.getBytes(StandardCharsets.UTF_8)), "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        reload();
+        if (!keyRing.get().canSign() && !keyRing.get().activeUnreadable()) {
+            rotate(true);
+        }
+        if (keyRing.get().activeUnreadable()) {
+            throw new IllegalStateException("Cannot decrypt the active JWT signing key, check jwt.keys.encryption-key");
+        }
+        listenerContainer.addMessageListener(this, new ChannelTopic(REFRESH_CHANNEL));
+    }
+
+    @Override
+    public SigningKey getActiveSigningKey() {
+        KeyRing ring = keyRing.get();
+        if (!ring.canSign()) {
+            throw new IllegalStateException("No active JWT signing key");
+        }
+        return new SigningKey(ring.active().kid(), ring.active().privateKey());
+    }
+
+    @Override
+    public Optional<PublicKey> findVerificationKey(String kid) {
+        if (kid == null) return Optional.empty();
+        PublicKey key = keyRing.get().verificationKeys().get(kid);
+        if (key != null) return Optional.of(key);
+
+        // Instance khác vừa xoay key nhưng chưa nhận được message: đọc lại Redis, có giới hạn tần suất
+        long now = System.currentTimeMillis();
+        long last = lastMissingKidReload.get();
+        if (now - last >= MISSING_KID_RELOAD_INTERVAL_MS && lastMissingKidReload.compareAndSet(last, now)) {
+            reload();
+            return Optional.ofNullable(keyRing.get().verificationKeys().get(kid));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Map<String, Object> getJwks() {
+        return keyRing.get().jwks();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${jwt.keys.rotation-check-ms:3600000}",
+            initialDelayString = "${jwt.keys.rotation-check-ms:3600000}")
+    public void rotateIfDue() {
+        try {
+            rotate(false);
+        } catch (Exception e) {
+            log.error("JWT signing key rotation failed", e);
+        }
+    }
+
+    @Override
+    public void reload() {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(KEYS_HASH);
+        String activeKid = redisTemplate.opsForValue().get(ACTIVE_KID_KEY);
+        long now = System.currentTimeMillis();
+
+        StoredKey active = null;
+        boolean activeUnreadable = false;
+        Map<String, PublicKey> verificationKeys = new HashMap<>();
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            StoredKey key;
+            try {
+                key = decode(entry.getKey().toString(), entry.getValue().toString());
+            } catch (GeneralSecurityException | RuntimeException e) {
+                log.error("Skipping unreadable JWT signing key {}", entry.getKey(), e);
+                continue;
+            }
+            if (key.isRetired(now)) continue;
+            if (key.kid().equals(activeKid)) {
+                try {
+                    key = withPrivateKey(key);
+                } catch (GeneralSecurityException | RuntimeException e) {
+                    // Sai jwt.keys.encryption-key: vẫn verify được, nhưng instance này không ký và không xoay key
+                    log.error("Cannot decrypt private key of active JWT signing key {}", key.kid(), e);
+                    activeUnreadable = true;
+                }
+                active = key;
+            }
+
+            verificationKeys.put(key.kid(), key.publicKey());
+            jwks.add(toJwk(key));
+        }
+
+        keyRing.set(new KeyRing(active, activeUnreadable, Map.copyOf(verificationKeys), Map.of("keys", List.copyOf(jwks))));
+        log.info("Loaded {} JWT verification key(s), active kid {}", verificationKeys.size(), activeKid);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String sender = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (instanceId.equals(sender)) {
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("Failed to reload JWT signing keys after refresh message", e);
+        }
+    }
+
+    private void rotate(boolean force) {
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, instanceId, LOCK_TTL);
+        if (!Boolean.TRUE.equals(locked)) {
+            // Instance khác đang xoay key, sẽ nhận được message refresh
+            if (force) {
+                waitForActiveKey();
+            }
+            return;
+        }
+        try {
+            // Đọc lại trong lock: có thể instance khác vừa xoay xong
+            reload();
+            long now = System.currentTimeMillis();
+            KeyRing ring = keyRing.get();
+            if (ring.activeUnreadable()) {
+                log.error("Skipping JWT signing key rotation: active key cannot be decrypted with this instance's jwt.keys.encryption-key");
+                return;
+            }
+            // Không có kid active, hoặc kid active không còn phần private (bản ghi cũ dạng plaintext) thì tạo key mới
+            StoredKey current = ring.active();
+            boolean due = !ring.canSign() || now - current.createdAt() >= rotationPeriodMs;
+            boolean changed = pruneRetired(now) | scrubPlaintextKeys(now);
+
+            if (due) {
+                KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+                String kid = Jwks.builder().key((ECPublicKey) keyPair.getPublic())
+                        .idFromThumbprint()
+                        .build()
+                        .getId();
+                StoredKey next = new StoredKey(kid, now, 0, keyPair.getPrivate(), keyPair.getPublic());
+
+                redisTemplate.opsForHash().put(PRIVATE_KEYS_HASH, kid, encrypt(kid, keyPair.getPrivate()));
+                redisTemplate.opsForHash().put(KEYS_HASH, kid, encode(next));
+                if (current != null) {
+                    StoredKey retiring = new StoredKey(current.kid(), current.createdAt(), now + gracePeriodMs,
+                            null, current.publicKey());
+                    redisTemplate.opsForHash().put(KEYS_HASH, current.kid(), encode(retiring));
+                }
+                redisTemplate.opsForValue().set(ACTIVE_KID_KEY, kid);
+                // Key cũ chỉ còn dùng để verify, không cần giữ private key nữa
+                if (current != null) {
+                    redisTemplate.opsForHash().delete(PRIVATE_KEYS_HASH, current.kid());
+                }
+                log.info("Rotated JWT signing key to kid {}", kid);
+                changed = true;
+            }
+
+            if (changed) {
+                reload();
+                redisTemplate.convertAndSend(REFRESH_CHANNEL, instanceId);
+            }
+        } finally {
+            if (instanceId.equals(redisTemplate.opsForValue().get(LOCK_KEY))) {
+                redisTemplate.delete(LOCK_KEY);
+            }
+        }
+    }
+
+    private boolean pruneRetired(long now) {
+        List<Object> expired = new ArrayList<>();
+        redisTemplate.opsForHash().entries(KEYS_HASH).forEach((kid, value) -> {
+            String[] parts = value.toString().split("\\|");
+            long retireAt = parts.length >= 3 ? Long.parseLong(parts[1]) : 0;
+            if (retireAt > 0 && retireAt <= now) {
+                expired.add(kid);
+            }
+        });
+        if (expired.isEmpty()) return false;
+        redisTemplate.opsForHash().delete(KEYS_HASH, expired.toArray());
+        redisTemplate.opsForHash().delete(PRIVATE_KEYS_HASH, expired.toArray());
+        log.info("Removed {} retired JWT signing key(s)", expired.size());
+        return true;
+    }
+
+    // Bản ghi cũ dạng createdAt|retireAt|pkcs8|x509 chứa private key không mã hoá: chỉ giữ phần public và cho nghỉ hưu
+    private boolean scrubPlaintextKeys(long now) {
+        boolean changed = false;
+        for (Map.Entry<Object, Object> entry : redisTemplate.opsForHash().entries(KEYS_HASH).entrySet()) {
+            String[] parts = entry.getValue().toString().split("\\|");
+            if (parts.length != 4) continue;
+            long retireAt = Long.parseLong(parts[1]) > 0 ? Long.parseLong(parts[1]) : now + gracePeriodMs;
+            redisTemplate.opsForHash().put(KEYS_HASH, entry.getKey(), parts[0] + "|" + retireAt + "|" + parts[3]);
+            log.info("Removed plaintext private key of JWT signing key {}", entry.getKey());
+            changed = true;
+        }
+        return changed;
+    }
+
+    private void waitForActiveKey() {
+        for (int attempt = 0; attempt < 20 && !keyRing.get().canSign(); attempt++) {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            reload();
+        }
+    }
+
+    private static Map<String, Object> toJwk(StoredKey key) {
+        PublicJwk<?> jwk = Jwks.builder().key((ECPublicKey) key.publicKey())
+                .id(key.kid())
+                .algorithm(ALGORITHM)
+                .publicKeyUse("sig")
+                .build();
+        return new LinkedHashMap<>(jwk);
+    }
+
+    // Chỉ phần public; private key nằm riêng trong PRIVATE_KEYS_HASH
+    private static String encode(StoredKey key) {
+        return key.createdAt() + "|" + key.retireAt() + "|"
+                + Base64.getEncoder().encodeToString(key.publicKey().getEncoded());
+    }
+
+    // Bản ghi cũ có 4 phần (kèm pkcs8 không mã hoá) chỉ được đọc phần public
+    private static StoredKey decode(String kid, String value) throws GeneralSecurityException {
+        String[] parts = value.split("\\|");
+        if (parts.length != 3 && parts.length != 4) {
+            throw new IllegalArgumentException("Malformed key entry");
+        }
+        PublicKey publicKey = KeyFactory.getInstance("EC")
+                .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(parts[parts.length - 1])));
+        return new StoredKey(kid, Long.parseLong(parts[0]), Long.parseLong(parts[1]), null, publicKey);
+    }
+
+    private StoredKey withPrivateKey(StoredKey key) throws GeneralSecurityException {
+        Object encrypted = redisTemplate.opsForHash().get(PRIVATE_KEYS_HASH, key.kid());
+        if (encrypted == null) {
+            return key;
+        }
+        return new StoredKey(key.kid(), key.createdAt(), key.retireAt(), decrypt(key.kid(), encrypted.toString()), key.publicKey());
+    }
+
+    // base64(iv || ciphertext), kid là AAD để không tráo được private key giữa các kid
+    private String encrypt(String kid, PrivateKey privateKey) {
+        byte[] iv = new byte[GCM_IV_BYTES];
+        secureRandom.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] ciphertext = cipher.doFinal(privateKey.getEncoded());
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + ciphertext.length).put(iv).put(ciphertext).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to encrypt JWT signing key", e);
+        }
+    }
+
+    private PrivateKey decrypt(String kid, String value) throws GeneralSecurityException {
+        byte[] data = Base64.getDecoder().decode(value);
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, data, 0, GCM_IV_BYTES));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        byte[] pkcs8 = cipher.doFinal(data, GCM_IV_BYTES, data.length - GCM_IV_BYTES);
+        return KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(pkcs8));
+    }
+}
@@ -0,0 +1,269 @@
+package com.alpha_code.alpha_code_user_service.service.impl;
+
+import com.alpha_code.alpha_code_user_service.entity.MailOutbox;
+import com.alpha_code.alpha_code_user_service.enums.MailOutboxStatusEnum;
+import com.alpha_code.alpha_code_user_service.repository.MailOutboxRepository;
+import com.alpha_code.alpha_code_user_service.service.MailOutboxService;
+import com.alpha_code.alpha_code_user_service.util.EmailBody;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transactional mail outbox. Callers only insert a {@code mail_outbox} row in their own transaction;
+ * a scheduled poller claims due rows with {@code FOR UPDATE SKIP LOCKED} (safe across instances) and
+ * hands them in batches to a small worker pool. Each batch goes out through one
+ * {@link JavaMailSender#send(MimeMessage...)} call, i.e. one SMTP connection. Failures are retried
+ * with exponential backoff; a worker that dies mid-batch leaves rows in SENDING until their lease
+ * expires, so delivery is at-least-once.
+ */
+@Service
+@Slf4j
+public class MailOutboxServiceImpl implements MailOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final MailOutboxRepository repository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final int workers;
+
+    @Value("${mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.backoff-base-ms:30000}")
+    private long backoffBaseMs;
+
+    @Value("${mail.outbox.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    @Value("${mail.outbox.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${mail.outbox.sent-retention-days:7}")
+    private int sentRetentionDays;
+
+    public MailOutboxServiceImpl(MailOutboxRepository repository,
+                                 JavaMailSender mailSender,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${mail.outbox.workers:2}") int workers) {
+        this.repository = repository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workers = workers;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "mail-outbox-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(String to, String subject, String htmlBody) {
+        LocalDateTime now = LocalDateTime.now();
+        repository.save(MailOutbox.builder()
+                .recipient(to)
+                .subject(subject)
+                .body(htmlBody)
+                .status(MailOutboxStatusEnum.PENDING.getCode())
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdDate(now)
+                .build());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:2000}")
+    public void dispatchDue() {
+        // Chỉ claim đủ cho số worker đang rảnh, phần còn lại để instance khác / lần poll sau
+        int freeWorkers = workers - executor.getActiveCount() - executor.getQueue().size();
+        if (freeWorkers <= 0) {
+            return;
+        }
+
+        List<MailOutbox> claimed;
+        try {
+            claimed = transactionTemplate.execute(status -> claim(freeWorkers * batchSize));
+        } catch (Exception e) {
+            log.error("Failed to claim mail outbox rows", e);
+            return;
+        }
+        if (claimed == null || claimed.isEmpty()) {
+            return;
+        }
+
+        for (int from = 0; from < claimed.size(); from += batchSize) {
+            List<MailOutbox> batch = claimed.subList(from, Math.min(from + batchSize, claimed.size()));
+            try {
+                executor.execute(() -> sendBatch(batch));
+            } catch (RejectedExecutionException e) {
+                release(batch);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        Integer deleted = transactionTemplate.execute(status ->
+                repository.deleteSentBefore(LocalDateTime.now().minusDays(sentRetentionDays)));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} sent mail outbox row(s)", deleted);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (MailOutboxStatusEnum status : MailOutboxStatusEnum.values()) {
+            byStatus.put(status.name().toLowerCase(), 0L);
+        }
+        repository.countByStatus().forEach(row -> {
+            for (MailOutboxStatusEnum status : MailOutboxStatusEnum.values()) {
+                if (status.getCode() == row.getStatus()) {
+                    byStatus.put(status.name().toLowerCase(), row.getTotal());
+                }
+            }
+        });
+
+        LocalDateTime oldestPending = repository.findOldestPendingCreatedDate();
+        Map<String, Object> result = new LinkedHashMap<>(byStatus);
+        result.put("oldestPendingAgeSeconds", oldestPending == null
+                ? 0 : Duration.between(oldestPending, LocalDateTime.now()).toSeconds());
+        result.put("activeWorkers", executor.getActiveCount());
+        result.put("queuedBatches", executor.getQueue().size());
+        return result;
+    }
+
+    private List<MailOutbox> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<MailOutbox> due = repository.lockDue(now, limit);
+        for (MailOutbox mail : due) {
+            mail.setStatus(MailOutboxStatusEnum.SENDING.getCode());
+            mail.setNextAttemptAt(now.plus(Duration.ofMillis(leaseMs)));
+        }
+        return new ArrayList<>(due);
+    }
+
+    void sendBatch(List<MailOutbox> batch) {
+        Map<MimeMessage, MailOutbox> messages = new IdentityHashMap<>();
+        Map<MailOutbox, Exception> failures = new IdentityHashMap<>();
+        for (MailOutbox mail : batch) {
+            try {
+                messages.put(buildMessage(mail), mail);
+            } catch (MessagingException | RuntimeException e) {
+                failures.put(mail, e);
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            try {
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                if (e.getFailedMessages().isEmpty()) {
+                    messages.values().forEach(mail -> failures.put(mail, e));
+                } else {
+                    e.getFailedMessages().forEach((message, cause) -> {
+                        MailOutbox mail = messages.get(message);
+                        if (mail != null) failures.put(mail, cause);
+                    });
+                }
+            } catch (MailException e) {
+                messages.values().forEach(mail -> failures.put(mail, e));
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (MailOutbox mail : batch) {
+            Exception failure = failures.get(mail);
+            if (failure == null) {
+                mail.setStatus(MailOutboxStatusEnum.SENT.getCode());
+                mail.setSentAt(now);
+                mail.setLastError(null);
+            } else {
+                scheduleRetry(mail, failure, now);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> repository.saveAll(batch));
+        log.info("Mail outbox batch done: {} sent, {} failed", batch.size() - failures.size(), failures.size());
+    }
+
+    private void scheduleRetry(MailOutbox mail, Exception failure, LocalDateTime now) {
+        int attempts = mail.getAttempts() + 1;
+        mail.setAttempts(attempts);
+        mail.setLastError(truncate(failure.getMessage()));
+        if (attempts >= maxAttempts) {
+            mail.setStatus(MailOutboxStatusEnum.FAILED.getCode());
+            log.error("Giving up mail {} to {} after {} attempts", mail.getId(), mail.getRecipient(), attempts, failure);
+            return;
+        }
+        long delayMs = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempts - 1, 30));
+        mail.setStatus(MailOutboxStatusEnum.PENDING.getCode());
+        mail.setNextAttemptAt(now.plus(Duration.ofMillis(delayMs)));
+        log.warn("Mail {} to {} failed (attempt {}), retry in {} ms", mail.getId(), mail.getRecipient(), attempts, delayMs);
+    }
+
+    private void release(List<MailOutbox> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        batch.forEach(mail -> {
+            mail.setStatus(MailOutboxStatusEnum.PENDING.getCode());
+            mail.setNextAttemptAt(now);
+        });
+        transactionTemplate.executeWithoutResult(status -> repository.saveAll(batch));
+    }
+
+    private MimeMessage buildMessage(MailOutbox mail) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setTo(mail.getRecipient());
+        helper.setSubject(mail.getSubject());
+        helper.setText(mail.getBody(), true);
+
+        // Mọi template đều dùng cid:alphacode-logo
+        EmailBody.addInlineLogo(helper);
+        return message;
+    }
+
+    private static String truncate(String value) {
+        if (value == null || value.length() <= MAX_ERROR_LENGTH) return value;
+        return value.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,260 @@
+package com.alpha_code.alpha_code_user_service.service.impl;
+
+import com.alpha_code.alpha_code_user_service.dto.NotificationDto;
+import com.alpha_code.alpha_code_user_service.service.NotificationArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps archived notifications in the {@code notification} table, range-partitioned by month of
+ * {@code created_date} and indexed by {@code (account_id, created_date)}. The table and the monthly
+ * partitions are created on first use; a plain table left by Hibernate is replaced while it is
+ * still empty, otherwise it is used as is without partitions.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationArchiveServiceImpl implements NotificationArchiveService {
+
+    private static final String TABLE = "notification";
+
+    private static final String RELKIND_SQL = "SELECT CAST(relkind AS varchar) FROM pg_class WHERE oid = to_regclass(?)";
+
+    private static final String CREATE_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS notification (
+                id uuid NOT NULL,
+                created_date timestamp(6) NOT NULL,
+                account_id uuid,
+                type integer,
+                title varchar(255),
+                message text,
+                is_read boolean NOT NULL DEFAULT FALSE,
+                status integer,
+                last_updated timestamp(6),
+                order_code bigint,
+                service_name varchar(255),
+                price integer,
+                PRIMARY KEY (id, created_date)
+            ) PARTITION BY RANGE (created_date)
+            """;
+
+    private static final String CREATE_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS idx_notification_account_created ON notification (account_id, created_date)";
+
+    // Bảng cũ do Hibernate tạo có thể thiếu các cột này
+    private static final List<String> LEGACY_COLUMNS_SQL = List.of(
+            "ALTER TABLE notification ADD COLUMN IF NOT EXISTS order_code bigint",
+            "ALTER TABLE notification ADD COLUMN IF NOT EXISTS service_name varchar(255)",
+            "ALTER TABLE notification ADD COLUMN IF NOT EXISTS price integer");
+
+    private static final String COLUMNS =
+            "id, created_date, account_id, type, title, message, is_read, status, last_updated, order_code, service_name, price";
+
+    private static final String UPSERT_SQL = "INSERT INTO notification (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"
+            + " ON CONFLICT (%s) DO UPDATE SET account_id = EXCLUDED.account_id, type = EXCLUDED.type,"
+            + " title = EXCLUDED.title, message = EXCLUDED.message, is_read = EXCLUDED.is_read, status = EXCLUDED.status,"
+            + " last_updated = EXCLUDED.last_updated, order_code = EXCLUDED.order_code,"
+            + " service_name = EXCLUDED.service_name, price = EXCLUDED.price";
+
+    private static final RowMapper<NotificationDto> ROW_MAPPER = (rs, rowNum) -> {
+        NotificationDto dto = new NotificationDto();
+        dto.setId(rs.getObject("id", UUID.class));
+        dto.setCreatedDate(rs.getObject("created_date", LocalDateTime.class));
+        dto.setAccountId(rs.getObject("account_id", UUID.class));
+        dto.setType(rs.getObject("type", Integer.class));
+        dto.setTitle(rs.getString("title"));
+        dto.setMessage(rs.getString("message"));
+        dto.setIsRead(rs.getBoolean("is_read"));
+        dto.setStatus(rs.getObject("status", Integer.class));
+        dto.setLastUpdated(rs.getObject("last_updated", LocalDateTime.class));
+        dto.setOrderCode(rs.getObject("order_code", Long.class));
+        dto.setServiceName(rs.getString("service_name"));
+        dto.setPrice(rs.getObject("price", Integer.class));
+        return dto;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // null = chưa kiểm tra bảng
+    private volatile Boolean partitioned;
+    private final Set<YearMonth> knownPartitions = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void archive(List<NotificationDto> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        boolean partitionedTable = ensureTable();
+        if (partitionedTable) {
+            notifications.stream().map(dto -> YearMonth.from(dto.getCreatedDate())).distinct().forEach(this::ensurePartition);
+        }
+        String sql = UPSERT_SQL.formatted(partitionedTable ? "id, created_date" : "id");
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, notifications, notifications.size(),
+                (ps, dto) -> {
+                    ps.setObject(1, dto.getId());
+                    ps.setObject(2, dto.getCreatedDate());
+                    ps.setObject(3, dto.getAccountId());
+                    ps.setObject(4, dto.getType());
+                    ps.setString(5, dto.getTitle());
+                    ps.setString(6, dto.getMessage());
+                    ps.setBoolean(7, Boolean.TRUE.equals(dto.getIsRead()));
+                    ps.setObject(8, dto.getStatus());
+                    ps.setObject(9, dto.getLastUpdated());
+                    ps.setObject(10, dto.getOrderCode());
+                    ps.setString(11, dto.getServiceName());
+                    ps.setObject(12, dto.getPrice());
+                }));
+    }
+
+    @Override
+    public List<NotificationDto> findPage(UUID accountId, Integer status, LocalDateTime before, long offset, int limit) {
+        List<Object> args = new ArrayList<>();
+        String where = where(accountId, status, before, args);
+        args.add(limit);
+        args.add(offset);
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM notification" + where
+                + " ORDER BY created_date DESC, id DESC LIMIT ? OFFSET ?", ROW_MAPPER, args.toArray());
+    }
+
+    @Override
+    public List<NotificationDto> findOlder(UUID accountId, Integer status, LocalDateTime before, UUID beforeId, int limit) {
+        List<Object> args = new ArrayList<>();
+        String where = where(accountId, status, beforeId == null ? before : null, args);
+        if (beforeId != null && before != null) {
+            where += (where.isEmpty() ? " WHERE " : " AND ") + "(created_date, id) < (?, ?)";
+            args.add(before);
+            args.add(beforeId);
+        }
+        args.add(limit);
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM notification" + where
+                + " ORDER BY created_date DESC, id DESC LIMIT ?", ROW_MAPPER, args.toArray());
+    }
+
+    @Override
+    public long count(UUID accountId, Integer status, LocalDateTime before) {
+        List<Object> args = new ArrayList<>();
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification" + where(accountId, status, before, args),
+                Long.class, args.toArray());
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public long countUnread(UUID accountId) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification WHERE account_id = ? AND is_read = FALSE",
+                Long.class, accountId);
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public Optional<NotificationDto> findById(UUID id) {
+        return single(jdbcTemplate.query("SELECT " + COLUMNS + " FROM notification WHERE id = ?", ROW_MAPPER, id));
+    }
+
+    @Override
+    public Optional<NotificationDto> markRead(UUID id) {
+        return single(jdbcTemplate.query("UPDATE notification SET is_read = TRUE, last_updated = ? WHERE id = ? AND is_read = FALSE RETURNING " + COLUMNS,
+                ROW_MAPPER, now(), id));
+    }
+
+    @Override
+    public int markAllRead(UUID accountId) {
+        return jdbcTemplate.update("UPDATE notification SET is_read = TRUE, last_updated = ? WHERE account_id = ? AND is_read = FALSE",
+                now(), accountId);
+    }
+
+    @Override
+    public Optional<NotificationDto> delete(UUID id) {
+        return single(jdbcTemplate.query("DELETE FROM notification WHERE id = ? RETURNING " + COLUMNS, ROW_MAPPER, id));
+    }
+
+    private static String where(UUID accountId, Integer status, LocalDateTime before, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (accountId != null) {
+            conditions.add("account_id = ?");
+            args.add(accountId);
+        }
+        if (status != null) {
+            conditions.add("status = ?");
+            args.add(status);
+        }
+        if (before != null) {
+            conditions.add("created_date < ?");
+            args.add(before);
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static Optional<NotificationDto> single(List<NotificationDto> rows) {
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
+    }
+
+    private synchronized boolean ensureTable() {
+        if (partitioned != null) {
+            return partitioned;
+        }
+        Boolean result = transactionTemplate.execute(status -> {
+            if ("r".equals(relkind())) {
+                // Khoá rồi kiểm tra lại: instance khác có thể đang đổi bảng cùng lúc
+                jdbcTemplate.execute("LOCK TABLE notification IN ACCESS EXCLUSIVE MODE");
+                if ("r".equals(relkind())) {
+                    Boolean hasRows = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM notification)", Boolean.class);
+                    if (Boolean.TRUE.equals(hasRows)) {
+                        LEGACY_COLUMNS_SQL.forEach(jdbcTemplate::execute);
+                        jdbcTemplate.execute(CREATE_INDEX_SQL);
+                        return false;
+                    }
+                    jdbcTemplate.execute("DROP TABLE notification");
+                }
+            }
+            jdbcTemplate.execute(CREATE_TABLE_SQL);
+            jdbcTemplate.execute(CREATE_INDEX_SQL);
+            return true;
+        });
+        partitioned = Boolean.TRUE.equals(result);
+        if (!partitioned) {
+            log.warn("Table {} already holds rows and is not partitioned; archiving into it without monthly partitions", TABLE);
+        }
+        return partitioned;
+    }
+
+    private String relkind() {
+        List<String> rows = jdbcTemplate.queryForList(RELKIND_SQL, String.class, TABLE);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private void ensurePartition(YearMonth month) {
+        if (knownPartitions.contains(month)) {
+            return;
+        }
+        String name = "%s_y%04dm%02d".formatted(TABLE, month.getYear(), month.getMonthValue());
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')"
+                    .formatted(name, TABLE, month.atDay(1), month.plusMonths(1).atDay(1)));
+            knownPartitions.add(month);
+        } catch (DataAccessException e) {
+            // Instance khác vừa tạo cùng partition; nếu thật sự thiếu thì lô này lỗi và được thử lại lần sau
+            log.debug("Could not create partition {}: {}", name, e.getMessage());
+        }
+    }
+}
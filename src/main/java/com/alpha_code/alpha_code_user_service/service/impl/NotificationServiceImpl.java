@@ -1,5 +1,6 @@
 package com.alpha_code.alpha_code_user_service.service.impl;
 
+import com.alpha_code.alpha_code_user_service.dto.CursorPage;
 import com.alpha_code.alpha_code_user_service.dto.NotificationDto;
 import com.alpha_code.alpha_code_user_service.dto.PagedResult;
 import com.alpha_code.alpha_code_user_service.enums.NotificationTypeEnum;
@@ -7,25 +8,41 @@ import com.alpha_code.alpha_code_user_service.exception.ResourceNotFoundExceptio
 import com.alpha_code.alpha_code_user_service.publisher.NotificationPublisher;
 import com.alpha_code.alpha_code_user_service.repository.AccountRepository;
 import com.alpha_code.alpha_code_user_service.service.MailService;
+import com.alpha_code.alpha_code_user_service.service.NotificationArchiveService;
 import com.alpha_code.alpha_code_user_service.service.NotificationService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.alpha_code.alpha_code_user_service.util.NotificationCursor;
+import com.alpha_code.alpha_code_user_service.util.NotificationRecordCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,14 +51,133 @@ import java.util.stream.Collectors;
 public class NotificationServiceImpl implements NotificationService {
 
     private final StringRedisTemplate redisTemplate;
+    // notification:<uuid> là byte thô do recordCodec mã hoá
+    private final RedisTemplate<String, byte[]> recordRedisTemplate;
     private final NotificationPublisher notificationPublisher;
     private final AccountRepository accountRepository;
     private final MailService mailService;
-    private final ObjectMapper objectMapper;
+    private final NotificationRecordCodec recordCodec;
+    private final NotificationArchiveService archiveService;
+
+    // Mỗi account chỉ giữ chừng này notification mới nhất trong Redis, quá tuổi thì chuyển xuống Postgres
+    @Value("${notification.retention.max-per-account:200}")
+    private long maxPerAccount;
+
+    @Value("${notification.retention.max-age-days:90}")
+    private long maxAgeDays;
 
     private static final String PREFIX = "notification:";
     private static final String ACCOUNT_SET_PREFIX = "notifications:account:";
     private static final String GLOBAL_SET = "notifications:all";
+    private static final String STATUS_SUFFIX = ":status:";
+    private static final String READ_SUFFIX = ":read";
+    private static final String UNREAD_SUFFIX = ":unread";
+    // Số notification chưa đọc của account đã nằm ở kho lạnh
+    private static final String COLD_UNREAD_SUFFIX = ":cold-unread";
+    // Có key này nghĩa là các index theo status / read đã được dựng cho dữ liệu cũ
+    private static final String INDEX_VERSION_KEY = "notifications:index:v1";
+    private static final String LIST_GENERATION_PREFIX = "notifications:list-gen:";
+    private static final int BACKFILL_BATCH = 500;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    // Account vượt maxPerAccount, chờ job retention cắt bớt
+    private static final String OVER_CAP_KEY = "notifications:retention:over-cap";
+    // Account (và "all") đã có notification trong kho lạnh
+    private static final String COLD_ACCOUNTS_KEY = "notifications:cold-accounts";
+    private static final String ALL_MEMBER = "all";
+    // Notification vừa bị xoá khi còn trong Redis; lô retention đang chép nó xuống kho lạnh sẽ bỏ bản đã chép
+    private static final String DELETED_PREFIX = "notifications:deleted:";
+    private static final Duration DELETED_TTL = Duration.ofMinutes(10);
+    private static final int MAX_FEED_SIZE = 100;
+
+    // Ghi bản ghi và chuyển id giữa các index trong một lần: KEYS[1] = notification,
+    // ARGV[5] key tiếp theo = index cần ZREM, ARGV[6] key tiếp theo = index cần ZADD, còn lại = generation cần INCR.
+    // ARGV[1] = bản ghi đang đọc được ('' = không kiểm tra), ARGV[2] = bản ghi mới ('' = xoá)
+    private static final RedisScript<Long> WRITE_SCRIPT = new DefaultRedisScript<>("""
+            if ARGV[1] ~= '' and redis.call('GET', KEYS[1]) ~= ARGV[1] then
+                return 0
+            end
+            local removals = tonumber(ARGV[5])
+            local additions = tonumber(ARGV[6])
+            for i = 2, removals + 1 do
+                redis.call('ZREM', KEYS[i], ARGV[3])
+            end
+            for i = removals + 2, removals + additions + 1 do
+                redis.call('ZADD', KEYS[i], ARGV[4], ARGV[3])
+            end
+            for i = removals + additions + 2, #KEYS do
+                redis.call('INCR', KEYS[i])
+            end
+            if ARGV[2] == '' then
+                redis.call('DEL', KEYS[1])
+            else
+                redis.call('SET', KEYS[1], ARGV[2])
+            end
+            return 1
+            """, Long.class);
+
+    // Đánh dấu đã đọc cả lô: KEYS[1] = unread, KEYS[2] = read, KEYS[3..4] = generation, KEYS[5..] = notification;
+    // mỗi notification 4 ARGV: bản ghi đã đọc, bản ghi mới, id, score. Trả về {số bản đã đánh dấu, id các bản
+    // đã bị sửa từ lúc đọc} để đọc lại và chạy lại những bản đó
+    private static final RedisScript<List> READ_ALL_SCRIPT = new DefaultRedisScript<>("""
+            local updated = 0
+            local skipped = {}
+            for i = 5, #KEYS do
+                local base = (i - 5) * 4
+                local id = ARGV[base + 3]
+                local current = redis.call('GET', KEYS[i])
+                if not current then
+                    redis.call('ZREM', KEYS[1], id)
+                elseif current == ARGV[base + 1] then
+                    redis.call('SET', KEYS[i], ARGV[base + 2])
+                    redis.call('ZREM', KEYS[1], id)
+                    redis.call('ZADD', KEYS[2], ARGV[base + 4], id)
+                    updated = updated + 1
+                else
+                    table.insert(skipped, id)
+                end
+            end
+            if updated > 0 then
+                redis.call('INCR', KEYS[3])
+                redis.call('INCR', KEYS[4])
+            end
+            return { updated, skipped }
+            """, List.class);
+
+    // Chuyển cả lô xuống kho lạnh: KEYS[1..ARGV[1]] = generation cần INCR, sau đó mỗi notification là key của nó
+    // rồi các index cần ZREM; mỗi notification 4 ARGV: số index, bản ghi đã lưu vào Postgres ('' = key đã mất), id,
+    // '1' nếu chưa đọc (key sau các index là bộ đếm chưa đọc ở kho lạnh cần INCR). Bản đã bị sửa từ lúc đọc thì giữ lại trong Redis
+    private static final RedisScript<Long> ARCHIVE_SCRIPT = new DefaultRedisScript<>("""
+            local generations = tonumber(ARGV[1])
+            local k = generations + 1
+            local a = 2
+            local removed = 0
+            while k <= #KEYS do
+                local count = tonumber(ARGV[a])
+                local unread = ARGV[a + 3] == '1'
+                local current = redis.call('GET', KEYS[k])
+                if (ARGV[a + 1] == '' and not current) or current == ARGV[a + 1] then
+                    for i = k + 1, k + count do
+                        redis.call('ZREM', KEYS[i], ARGV[a + 2])
+                    end
+                    if unread then
+                        redis.call('INCR', KEYS[k + count + 1])
+                    end
+                    redis.call('DEL', KEYS[k])
+                    removed = removed + 1
+                end
+                k = k + count + 1
+                if unread then
+                    k = k + 1
+                end
+                a = a + 4
+            end
+            if removed > 0 then
+                for i = 1, generations do
+                    redis.call('INCR', KEYS[i])
+                end
+            end
+            return removed
+            """, Long.class);
 
     private String notificationKey(UUID id) {
         return PREFIX + id.toString();
@@ -51,6 +187,108 @@ public class NotificationServiceImpl implements NotificationService {
         return ACCOUNT_SET_PREFIX + accountId.toString();
     }
 
+    private String feedKey(UUID accountId, Integer status) {
+        String base = accountId != null ? accountSetKey(accountId) : GLOBAL_SET;
+        return status != null ? base + STATUS_SUFFIX + status : base;
+    }
+
+    private String unreadKey(UUID accountId) {
+        return accountSetKey(accountId) + UNREAD_SUFFIX;
+    }
+
+    private String coldUnreadKey(UUID accountId) {
+        return accountSetKey(accountId) + COLD_UNREAD_SUFFIX;
+    }
+
+    private String deletedKey(UUID id) {
+        return DELETED_PREFIX + id.toString();
+    }
+
+    private String listGenerationKey(UUID accountId) {
+        return LIST_GENERATION_PREFIX + (accountId != null ? accountId.toString() : "all");
+    }
+
+    // Mọi sorted set chứa notification này, score = thời điểm tạo
+    private List<String> indexKeys(NotificationDto dto) {
+        List<String> keys = new ArrayList<>();
+        keys.add(GLOBAL_SET);
+        if (dto.getStatus() != null) {
+            keys.add(feedKey(null, dto.getStatus()));
+        }
+        if (dto.getAccountId() != null) {
+            keys.add(accountSetKey(dto.getAccountId()));
+            if (dto.getStatus() != null) {
+                keys.add(feedKey(dto.getAccountId(), dto.getStatus()));
+            }
+            keys.add(accountSetKey(dto.getAccountId()) + (Boolean.TRUE.equals(dto.getIsRead()) ? READ_SUFFIX : UNREAD_SUFFIX));
+        }
+        return keys;
+    }
+
+    private static long score(NotificationDto dto) {
+        return dto.getCreatedDate() != null
+                ? dto.getCreatedDate().toInstant(ZoneOffset.UTC).toEpochMilli()
+                : Instant.now().toEpochMilli();
+    }
+
+    // Tham số script đi qua value serializer (byte[]) của recordRedisTemplate
+    private static byte[] arg(Object value) {
+        return value instanceof byte[] bytes ? bytes : String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes {@code next} (null = delete) and moves its id out of the indexes of {@code previous}
+     * into its own, atomically. With {@code expectedRecord} the write only happens if the stored
+     * record is unchanged since it was read.
+     */
+    private boolean write(UUID id, byte[] expectedRecord, NotificationDto previous, NotificationDto next) throws Exception {
+        List<String> oldKeys = previous != null ? indexKeys(previous) : List.of();
+        List<String> newKeys = next != null ? indexKeys(next) : List.of();
+        List<String> removals = oldKeys.stream().filter(key -> !newKeys.contains(key)).toList();
+
+        // Danh sách toàn hệ thống và của các account liên quan đều phải bỏ trang đã cache
+        Set<String> generationKeys = new LinkedHashSet<>();
+        generationKeys.add(listGenerationKey(null));
+        if (previous != null && previous.getAccountId() != null) generationKeys.add(listGenerationKey(previous.getAccountId()));
+        if (next != null && next.getAccountId() != null) generationKeys.add(listGenerationKey(next.getAccountId()));
+
+        List<String> keys = new ArrayList<>();
+        keys.add(notificationKey(id));
+        keys.addAll(removals);
+        keys.addAll(newKeys);
+        keys.addAll(generationKeys);
+        NotificationDto scored = next != null ? next : previous;
+        Long result = recordRedisTemplate.execute(WRITE_SCRIPT, keys,
+                expectedRecord != null ? expectedRecord : new byte[0],
+                next != null ? recordCodec.encode(next) : new byte[0],
+                arg(id), arg(score(scored)), arg(removals.size()), arg(newKeys.size()));
+        return result != null && result == 1;
+    }
+
+    private NotificationDto modify(UUID id, Consumer<NotificationDto> change) throws Exception {
+        return modify(id, change, true);
+    }
+
+    // Đọc - sửa - ghi lại; thử lại nếu notification bị sửa đồng thời
+    private NotificationDto modify(UUID id, Consumer<NotificationDto> change, boolean publishUnread) throws Exception {
+        String key = notificationKey(id);
+        for (int attempt = 0; attempt < MAX_WRITE_ATTEMPTS; attempt++) {
+            byte[] record = recordRedisTemplate.opsForValue().get(key);
+            if (record == null) throw new ResourceNotFoundException("Notification not found");
+            NotificationDto previous = recordCodec.decode(record);
+            NotificationDto next = recordCodec.decode(record);
+            change.accept(next);
+            next.setLastUpdated(LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC));
+            if (write(id, record, previous, next)) {
+                if (publishUnread) {
+                    unreadChangedAccounts(previous, next).forEach(this::publishUnreadCount);
+                }
+                return next;
+            }
+        }
+        throw new IllegalStateException("Notification " + id + " kept changing concurrently");
+    }
+
     // ---------------- Helper: adjust timezone +7h ----------------
     private NotificationDto adjustTimezone(NotificationDto dto) {
         if (dto.getCreatedDate() != null)
@@ -66,48 +304,301 @@ public class NotificationServiceImpl implements NotificationService {
 
     // ---------------- GET ALL ----------------
     @Override
-    @Cacheable(value = "notifications_list", key = "{#page, #size, #accountId, #status}")
+    // Generation nằm trong key: mỗi lần ghi tăng generation nên trang cũ không bao giờ được đọc lại
+    @Cacheable(value = "notifications_list",
+            key = "{#accountId, @notificationServiceImpl.getListGeneration(#accountId), #page, #size, #status}")
     public PagedResult<NotificationDto> getAll(int page, int size, UUID accountId, Integer status) {
         int pageIndex = Math.max(page - 1, 0);
-        int start = pageIndex * size;
-        int end = start + size - 1;
+        long start = (long) pageIndex * size;
+        long end = start + size - 1;
+
+        // Lọc theo status bằng index riêng nên trang luôn đủ và total đúng
+        String zKey = feedKey(accountId, status);
+        Long hotCount = redisTemplate.opsForZSet().zCard(zKey);
+        long hot = hotCount != null ? hotCount : 0;
 
-        String zKey = accountId != null ? accountSetKey(accountId) : GLOBAL_SET;
-        Long total = redisTemplate.opsForZSet().zCard(zKey);
-        if (total == null || total == 0) {
+        boolean coldTier = hasColdTier(accountId);
+        // Feed chung: cap cắt bản mới của một account trong khi bản cũ hơn của account khác còn trong Redis
+        if (accountId == null && coldTier) {
+            return mergedPage(zKey, hot, status, pageIndex, size);
+        }
+
+        // Của một account thì phần cũ hơn bản cũ nhất còn trong Redis nằm ở kho lạnh; chỉ hỏi Postgres khi account đã từng bị chuyển
+        LocalDateTime before = null;
+        long cold = 0;
+        if (coldTier) {
+            NotificationCursor oldest = hot > 0 ? oldestHot(zKey) : null;
+            before = oldest != null ? oldest.createdDate() : null;
+            cold = archiveService.count(accountId, status, before);
+        }
+        long total = hot + cold;
+        if (total == 0) {
             return new PagedResult<>(new PageImpl<>(Collections.emptyList(), PageRequest.of(pageIndex, size), 0));
         }
 
-        Set<String> idMembers = redisTemplate.opsForZSet().reverseRange(zKey, start, end);
-        if (idMembers == null || idMembers.isEmpty()) {
-            return new PagedResult<>(new PageImpl<>(Collections.emptyList(), PageRequest.of(pageIndex, size), total));
+        List<NotificationDto> dtos = new ArrayList<>();
+        if (start < hot) {
+            Set<String> idMembers = redisTemplate.opsForZSet().reverseRange(zKey, start, end);
+            if (idMembers != null && !idMembers.isEmpty()) {
+                dtos.addAll(loadHot(idMembers));
+            }
+        }
+        if (end >= hot && cold > 0) {
+            long coldStart = Math.max(start, hot);
+            dtos.addAll(archiveService.findPage(accountId, status, before, coldStart - hot, (int) (end - coldStart + 1)));
+        }
+
+        // Adjust timezone +7h
+        dtos = adjustTimezoneList(dtos);
+
+        Page<NotificationDto> pageResult = new PageImpl<>(dtos, PageRequest.of(pageIndex, size), total);
+        return new PagedResult<>(pageResult);
+    }
+
+    // Trang thứ n của feed ghép nằm trong end + 1 bản mới nhất của mỗi bên
+    private PagedResult<NotificationDto> mergedPage(String zKey, long hot, Integer status, int pageIndex, int size) {
+        long start = (long) pageIndex * size;
+        int want = (int) (start + size);
+        long total = hot + archiveService.count(null, status, null);
+
+        List<FeedEntry> hotEntries = new ArrayList<>();
+        Set<ZSetOperations.TypedTuple<String>> tuples = redisTemplate.opsForZSet().reverseRangeWithScores(zKey, 0, want - 1);
+        if (tuples != null) {
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                double score = tuple.getScore() != null ? tuple.getScore() : 0;
+                hotEntries.add(new FeedEntry(NotificationCursor.hot(score, UUID.fromString(tuple.getValue())), null));
+            }
+        }
+        List<FeedEntry> merged = merge(hotEntries, coldEntries(archiveService.findPage(null, status, null, 0, want)), want);
+        List<FeedEntry> window = start < merged.size() ? merged.subList((int) start, merged.size()) : List.of();
+
+        // Chỉ đọc bản ghi Redis của những bản nằm trong trang
+        Set<String> hotIds = new LinkedHashSet<>();
+        window.stream().filter(entry -> !entry.cursor().cold()).forEach(entry -> hotIds.add(entry.cursor().id().toString()));
+        Map<UUID, NotificationDto> loaded = new HashMap<>();
+        if (!hotIds.isEmpty()) {
+            loadHot(hotIds).forEach(dto -> loaded.put(dto.getId(), dto));
         }
+        List<NotificationDto> dtos = window.stream()
+                .map(entry -> entry.cursor().cold() ? entry.dto() : loaded.get(entry.cursor().id()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
 
+        Page<NotificationDto> pageResult = new PageImpl<>(adjustTimezoneList(dtos), PageRequest.of(pageIndex, size), total);
+        return new PagedResult<>(pageResult);
+    }
+
+    private List<NotificationDto> loadHot(Set<String> idMembers) {
         List<String> keys = idMembers.stream()
                 .map(UUID::fromString)       // String -> UUID
                 .map(this::notificationKey)  // UUID -> Redis key
                 .collect(Collectors.toList());
-        List<String> jsons = redisTemplate.opsForValue().multiGet(keys);
+        List<byte[]> records = recordRedisTemplate.opsForValue().multiGet(keys);
         List<NotificationDto> dtos = new ArrayList<>();
-        if (jsons != null) {
-            for (String j : jsons) {
-                if (j == null) continue;
+        if (records != null) {
+            for (byte[] record : records) {
+                if (record == null) continue;
                 try {
-                    NotificationDto dto = objectMapper.readValue(j, NotificationDto.class);
-                    if (status == null || Objects.equals(dto.getStatus(), status)) {
-                        dtos.add(dto);
-                    }
+                    dtos.add(recordCodec.decode(record));
                 } catch (Exception e) {
                     log.error("Failed to deserialize notification from Redis", e);
                 }
             }
         }
+        return dtos;
+    }
 
-        // Adjust timezone +7h
-        dtos = adjustTimezoneList(dtos);
+    private NotificationCursor oldestHot(String zKey) {
+        Set<ZSetOperations.TypedTuple<String>> oldest = redisTemplate.opsForZSet().rangeWithScores(zKey, 0, 0);
+        if (oldest == null || oldest.isEmpty() || oldest.iterator().next().getScore() == null) {
+            return null;
+        }
+        ZSetOperations.TypedTuple<String> tuple = oldest.iterator().next();
+        return NotificationCursor.hot(tuple.getScore(), UUID.fromString(tuple.getValue()));
+    }
 
-        Page<NotificationDto> pageResult = new PageImpl<>(dtos, PageRequest.of(pageIndex, size), total);
-        return new PagedResult<>(pageResult);
+    private boolean hasColdTier(UUID accountId) {
+        return Boolean.TRUE.equals(redisTemplate.opsForSet()
+                .isMember(COLD_ACCOUNTS_KEY, accountId != null ? accountId.toString() : ALL_MEMBER));
+    }
+
+    // ---------------- CURSOR FEED ----------------
+    // dto null = id còn trong index nhưng bản ghi đã mất; vẫn giữ vị trí để cursor đi tiếp
+    private record FeedEntry(NotificationCursor cursor, NotificationDto dto) {
+    }
+
+    // Theo (created_date, id), cùng thứ tự với sorted set và với keyset của kho lạnh
+    private static final Comparator<NotificationCursor> CURSOR_ORDER = Comparator
+            .comparingLong(NotificationCursor::epochMicros)
+            .thenComparing(cursor -> cursor.id().toString());
+    private static final Comparator<FeedEntry> NEWEST_FIRST = Comparator.comparing(FeedEntry::cursor, CURSOR_ORDER).reversed();
+
+    @Override
+    public CursorPage<NotificationDto> getFeed(UUID accountId, Integer status, String cursor, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_FEED_SIZE);
+        NotificationCursor after = cursor != null && !cursor.isBlank() ? NotificationCursor.decode(cursor) : null;
+        String zKey = feedKey(accountId, status);
+        if (accountId == null) {
+            // Feed chung: bản trong kho lạnh có thể mới hơn bản còn trong Redis nên ghép hai bên theo (created_date, id)
+            return globalFeed(status, zKey, after, limit);
+        }
+
+        // Đọc thêm một phần tử để biết còn trang sau không
+        List<FeedEntry> entries = new ArrayList<>();
+        boolean hotExhausted = true;
+        if (after == null || !after.cold()) {
+            List<ZSetOperations.TypedTuple<String>> hot = hotOlderThan(zKey, after, limit + 1);
+            entries.addAll(toEntries(hot));
+            hotExhausted = hot.size() <= limit;
+        }
+        if (hotExhausted && hasColdTier(accountId)) {
+            // Kho lạnh đi theo (created_date, id), cũ hơn cả cursor lẫn bản cũ nhất còn trong Redis:
+            // retention có thể vừa chuyển xuống những bản client đã nhận ở trang trước
+            NotificationCursor bound = after;
+            NotificationCursor oldest = oldestHot(zKey);
+            if (oldest != null && (bound == null || CURSOR_ORDER.compare(oldest, bound) < 0)) {
+                bound = oldest;
+            }
+            LocalDateTime before = bound != null ? bound.createdDate() : null;
+            UUID beforeId = bound != null ? bound.id() : null;
+            for (NotificationDto dto : archiveService.findOlder(accountId, status, before, beforeId, limit + 1 - entries.size())) {
+                entries.add(new FeedEntry(NotificationCursor.cold(dto.getCreatedDate(), dto.getId()), dto));
+            }
+        }
+
+        return feedPage(entries, after, limit);
+    }
+
+    private CursorPage<NotificationDto> globalFeed(Integer status, String zKey, NotificationCursor after, int limit) {
+        List<FeedEntry> hot = toEntries(hotOlderThan(zKey, after, limit + 1));
+        if (!hasColdTier(null)) {
+            return feedPage(hot, after, limit);
+        }
+        List<NotificationDto> cold = archiveService.findOlder(null, status,
+                after != null ? after.createdDate() : null, after != null ? after.id() : null, limit + 1);
+        return feedPage(merge(hot, coldEntries(cold), limit + 1), after, limit);
+    }
+
+    // entries có tối đa limit + 1 phần tử, phần tử thừa cho biết còn trang sau
+    private CursorPage<NotificationDto> feedPage(List<FeedEntry> entries, NotificationCursor after, int limit) {
+        boolean hasMore = entries.size() > limit;
+        List<FeedEntry> page = hasMore ? entries.subList(0, limit) : entries;
+        String next = hasMore ? page.get(page.size() - 1).cursor().encode() : null;
+        // Chỉ trang đầu biết bản mới nhất client đang có
+        String since = after == null && !page.isEmpty() ? page.get(0).cursor().encode() : null;
+        return new CursorPage<>(feedData(page), next, since, hasMore);
+    }
+
+    // Bản đang được chuyển xuống kho lạnh có thể có ở cả hai bên; giữ bản trong Redis
+    private static List<FeedEntry> merge(List<FeedEntry> hot, List<FeedEntry> cold, int max) {
+        Set<UUID> hotIds = new HashSet<>();
+        hot.forEach(entry -> hotIds.add(entry.cursor().id()));
+        List<FeedEntry> merged = new ArrayList<>(hot);
+        cold.stream().filter(entry -> !hotIds.contains(entry.cursor().id())).forEach(merged::add);
+        merged.sort(NEWEST_FIRST);
+        return merged.size() > max ? merged.subList(0, max) : merged;
+    }
+
+    private static List<FeedEntry> coldEntries(List<NotificationDto> dtos) {
+        return dtos.stream()
+                .map(dto -> new FeedEntry(NotificationCursor.cold(dto.getCreatedDate(), dto.getId()), dto))
+                .toList();
+    }
+
+    @Override
+    public CursorPage<NotificationDto> getFeedSince(UUID accountId, Integer status, String since, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_FEED_SIZE);
+        if (since == null || since.isBlank()) {
+            throw new IllegalArgumentException("Since cursor required");
+        }
+        NotificationCursor from = NotificationCursor.decode(since);
+        String zKey = feedKey(accountId, status);
+
+        // Notification mới luôn nằm trong Redis; lấy những bản gần cursor nhất trước (tăng dần)
+        List<ZSetOperations.TypedTuple<String>> newer = new ArrayList<>();
+        for (long offset = 0; newer.size() <= limit; ) {
+            Set<ZSetOperations.TypedTuple<String>> batch = redisTemplate.opsForZSet()
+                    .rangeByScoreWithScores(zKey, from.score(), Double.POSITIVE_INFINITY, offset, limit + 1);
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            for (ZSetOperations.TypedTuple<String> tuple : batch) {
+                if (newer.size() <= limit && compare(tuple, from) > 0) {
+                    newer.add(tuple);
+                }
+            }
+            if (batch.size() < limit + 1) {
+                break;
+            }
+            offset += batch.size();
+        }
+
+        boolean hasMore = newer.size() > limit;
+        List<FeedEntry> page = new ArrayList<>(toEntries(hasMore ? newer.subList(0, limit) : newer));
+        String sinceCursor = page.isEmpty() ? since : page.get(page.size() - 1).cursor().encode();
+        Collections.reverse(page);
+        return new CursorPage<>(feedData(page), null, sinceCursor, hasMore);
+    }
+
+    // Các phần tử cũ hơn cursor theo thứ tự (score, id) giảm dần; cursor null = từ bản mới nhất
+    private List<ZSetOperations.TypedTuple<String>> hotOlderThan(String zKey, NotificationCursor after, int want) {
+        if (after == null) {
+            Set<ZSetOperations.TypedTuple<String>> newest = redisTemplate.opsForZSet().reverseRangeWithScores(zKey, 0, want - 1);
+            return newest != null ? new ArrayList<>(newest) : new ArrayList<>();
+        }
+        List<ZSetOperations.TypedTuple<String>> result = new ArrayList<>();
+        // Các bản trùng score với cursor nhưng id lớn hơn đã được trả ở trang trước, bỏ qua
+        for (long offset = 0; result.size() < want; ) {
+            Set<ZSetOperations.TypedTuple<String>> batch = redisTemplate.opsForZSet()
+                    .reverseRangeByScoreWithScores(zKey, Double.NEGATIVE_INFINITY, after.score(), offset, want);
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            for (ZSetOperations.TypedTuple<String> tuple : batch) {
+                if (result.size() < want && compare(tuple, after) < 0) {
+                    result.add(tuple);
+                }
+            }
+            if (batch.size() < want) {
+                break;
+            }
+            offset += batch.size();
+        }
+        return result;
+    }
+
+    // Cùng thứ tự với sorted set: score rồi member theo byte; cursor kho lạnh so theo micro giây
+    private static int compare(ZSetOperations.TypedTuple<String> tuple, NotificationCursor cursor) {
+        long micros = (long) (tuple.getScore() != null ? tuple.getScore() : 0) * 1000;
+        int byTime = Long.compare(micros, cursor.epochMicros());
+        return byTime != 0 ? byTime : tuple.getValue().compareTo(cursor.id().toString());
+    }
+
+    private List<FeedEntry> toEntries(List<ZSetOperations.TypedTuple<String>> tuples) {
+        if (tuples.isEmpty()) {
+            return List.of();
+        }
+        Set<String> ids = new LinkedHashSet<>();
+        tuples.forEach(tuple -> ids.add(tuple.getValue()));
+        Map<UUID, NotificationDto> loaded = new HashMap<>();
+        for (NotificationDto dto : loadHot(ids)) {
+            loaded.put(dto.getId(), dto);
+        }
+        List<FeedEntry> entries = new ArrayList<>();
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            UUID id = UUID.fromString(tuple.getValue());
+            double score = tuple.getScore() != null ? tuple.getScore() : 0;
+            entries.add(new FeedEntry(NotificationCursor.hot(score, id), loaded.get(id)));
+        }
+        return entries;
+    }
+
+    private List<NotificationDto> feedData(List<FeedEntry> entries) {
+        return entries.stream()
+                .map(FeedEntry::dto)
+                .filter(Objects::nonNull)
+                .map(this::adjustTimezone)
+                .collect(Collectors.toList());
     }
 
     // ---------------- GET BY ID ----------------
@@ -115,10 +606,14 @@ public class NotificationServiceImpl implements NotificationService {
     @Cacheable(value = "notifications", key = "#id")
     public NotificationDto getById(UUID id) {
         String key = notificationKey(id);
-        String json = redisTemplate.opsForValue().get(key);
-        if (json == null) throw new ResourceNotFoundException("Notification not found");
+        byte[] record = recordRedisTemplate.opsForValue().get(key);
+        if (record == null) {
+            return archiveService.findById(id)
+                    .map(this::adjustTimezone)
+                    .orElseThrow(() -> new ResourceNotFoundException("Notification not found"));
+        }
         try {
-            NotificationDto dto = objectMapper.readValue(json, NotificationDto.class);
+            NotificationDto dto = recordCodec.decode(record);
             return adjustTimezone(dto);
         } catch (Exception e) {
             log.error("Deserialize error", e);
@@ -129,9 +624,6 @@ public class NotificationServiceImpl implements NotificationService {
     // ---------------- CREATE ----------------
     @Override
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "notifications_list", allEntries = true)
-    })
     public NotificationDto create(NotificationDto notificationDto) {
         UUID id = notificationDto.getId() != null ? notificationDto.getId() : UUID.randomUUID();
         NotificationDto result = new NotificationDto();
@@ -152,16 +644,21 @@ public class NotificationServiceImpl implements NotificationService {
         result.setPrice(notificationDto.getPrice());
 
         try {
-            String json = objectMapper.writeValueAsString(result);
-            redisTemplate.opsForValue().set(notificationKey(id), json);
+            // Tạo với id có sẵn thì ghi đè bản cũ, phải gỡ bản cũ khỏi index của nó
+            NotificationDto previous = null;
+            if (notificationDto.getId() != null) {
+                byte[] existingRecord = recordRedisTemplate.opsForValue().get(notificationKey(id));
+                if (existingRecord != null) {
+                    previous = recordCodec.decode(existingRecord);
+                }
+            }
+            write(id, null, previous, result);
+            markIfOverCap(result.getAccountId());
 
-            long score = now.toEpochMilli();
+            // Realtime publish, kèm số chưa đọc cho badge chuông
             if (result.getAccountId() != null) {
-                redisTemplate.opsForZSet().add(accountSetKey(result.getAccountId()), id.toString(), score);
+                result.setUnreadCount(getUnreadCount(result.getAccountId()));
             }
-            redisTemplate.opsForZSet().add(GLOBAL_SET, id.toString(), score);
-
-            // Realtime publish
             notificationPublisher.sendToUser(result.getAccountId(), result);
 
             // Send email if needed
@@ -189,37 +686,20 @@ public class NotificationServiceImpl implements NotificationService {
     // ---------------- UPDATE ----------------
     @Override
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "notifications_list", allEntries = true),
-            @CacheEvict(value = "notifications", key = "#id")
-    })
+    @CacheEvict(value = "notifications", key = "#id")
     public NotificationDto update(UUID id, NotificationDto notificationDto) {
-        String key = notificationKey(id);
-        String json = redisTemplate.opsForValue().get(key);
-        if (json == null) throw new ResourceNotFoundException("Notification not found");
         try {
-            NotificationDto existing = objectMapper.readValue(json, NotificationDto.class);
-            UUID oldAccountId = existing.getAccountId();
-
-            existing.setAccountId(notificationDto.getAccountId());
-            existing.setType(notificationDto.getType());
-            existing.setTitle(notificationDto.getTitle());
-            existing.setMessage(notificationDto.getMessage());
-            existing.setIsRead(notificationDto.getIsRead());
-            existing.setStatus(notificationDto.getStatus());
-            existing.setLastUpdated(LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC));
-
-            redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(existing));
-
-            if (!Objects.equals(oldAccountId, notificationDto.getAccountId())) {
-                if (oldAccountId != null)
-                    redisTemplate.opsForZSet().remove(accountSetKey(oldAccountId), id.toString());
-                if (notificationDto.getAccountId() != null)
-                    redisTemplate.opsForZSet().add(accountSetKey(notificationDto.getAccountId()), id.toString(),
-                            Instant.now().toEpochMilli());
-            }
-
+            NotificationDto existing = modify(id, dto -> {
+                dto.setAccountId(notificationDto.getAccountId());
+                dto.setType(notificationDto.getType());
+                dto.setTitle(notificationDto.getTitle());
+                dto.setMessage(notificationDto.getMessage());
+                dto.setIsRead(notificationDto.getIsRead());
+                dto.setStatus(notificationDto.getStatus());
+            });
             return adjustTimezone(existing);
+        } catch (ResourceNotFoundException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to update notification in Redis", e);
             throw new RuntimeException("Failed to update notification");
@@ -229,28 +709,20 @@ public class NotificationServiceImpl implements NotificationService {
     // ---------------- PATCH UPDATE ----------------
     @Override
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "notifications_list", allEntries = true),
-            @CacheEvict(value = "notifications", key = "#id")
-    })
+    @CacheEvict(value = "notifications", key = "#id")
     public NotificationDto patchUpdate(UUID id, NotificationDto notificationDto) {
-        String key = notificationKey(id);
-        String json = redisTemplate.opsForValue().get(key);
-        if (json == null) throw new ResourceNotFoundException("Notification not found");
         try {
-            NotificationDto existing = objectMapper.readValue(json, NotificationDto.class);
-
-            if (notificationDto.getAccountId() != null) existing.setAccountId(notificationDto.getAccountId());
-            if (notificationDto.getType() != null) existing.setType(notificationDto.getType());
-            if (notificationDto.getTitle() != null) existing.setTitle(notificationDto.getTitle());
-            if (notificationDto.getMessage() != null) existing.setMessage(notificationDto.getMessage());
-            if (notificationDto.getIsRead() != null) existing.setIsRead(notificationDto.getIsRead());
-            if (notificationDto.getStatus() != null) existing.setStatus(notificationDto.getStatus());
-
-            existing.setLastUpdated(LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC));
-            redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(existing));
-
+            NotificationDto existing = modify(id, dto -> {
+                if (notificationDto.getAccountId() != null) dto.setAccountId(notificationDto.getAccountId());
+                if (notificationDto.getType() != null) dto.setType(notificationDto.getType());
+                if (notificationDto.getTitle() != null) dto.setTitle(notificationDto.getTitle());
+                if (notificationDto.getMessage() != null) dto.setMessage(notificationDto.getMessage());
+                if (notificationDto.getIsRead() != null) dto.setIsRead(notificationDto.getIsRead());
+                if (notificationDto.getStatus() != null) dto.setStatus(notificationDto.getStatus());
+            });
             return adjustTimezone(existing);
+        } catch (ResourceNotFoundException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to patch update notification in Redis", e);
             throw new RuntimeException("Failed to patch update notification");
@@ -260,44 +732,57 @@ public class NotificationServiceImpl implements NotificationService {
     // ---------------- DELETE ----------------
     @Override
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "notifications_list", allEntries = true),
-            @CacheEvict(value = "notifications", key = "#id")
-    })
+    @CacheEvict(value = "notifications", key = "#id")
     public String delete(UUID id) {
         String key = notificationKey(id);
-        String json = redisTemplate.opsForValue().get(key);
-        if (json == null) throw new ResourceNotFoundException("Notification not found");
         try {
-            NotificationDto existing = objectMapper.readValue(json, NotificationDto.class);
-            redisTemplate.delete(key);
-            if (existing.getAccountId() != null)
-                redisTemplate.opsForZSet().remove(accountSetKey(existing.getAccountId()), id.toString());
-            redisTemplate.opsForZSet().remove(GLOBAL_SET, id.toString());
-            return "Deleted notification " + id;
+            for (int attempt = 0; attempt < MAX_WRITE_ATTEMPTS; attempt++) {
+                byte[] record = recordRedisTemplate.opsForValue().get(key);
+                if (record == null) {
+                    return deleteArchived(id);
+                }
+                NotificationDto existing = recordCodec.decode(record);
+                redisTemplate.opsForValue().set(deletedKey(id), "1", DELETED_TTL);
+                // Chỉ xoá đúng bản đã đọc; nếu retention vừa gỡ nó khỏi Redis thì lần sau sẽ xoá ở kho lạnh
+                if (write(id, record, existing, null)) {
+                    // Lô retention có thể đã upsert bản này vào Postgres trước khi nó bị xoá khỏi Redis
+                    if (hasColdTier(existing.getAccountId())) {
+                        archiveService.delete(id);
+                    }
+                    if (isUnread(existing)) {
+                        publishUnreadCount(existing.getAccountId());
+                    }
+                    return "Deleted notification " + id;
+                }
+            }
+            throw new IllegalStateException("Notification " + id + " was modified concurrently too many times");
+        } catch (ResourceNotFoundException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to delete notification", e);
             throw new RuntimeException("Failed to delete notification");
         }
     }
 
+    private String deleteArchived(UUID id) {
+        NotificationDto archived = archiveService.delete(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Notification not found"));
+        bumpListGenerations(archived.getAccountId());
+        if (isUnread(archived)) {
+            adjustColdUnread(archived.getAccountId(), -1);
+        }
+        return "Deleted notification " + id;
+    }
+
     // ---------------- CHANGE STATUS ----------------
     @Override
     @Transactional
     @CacheEvict(value = "notifications", key = "#id")
-    @Caching(evict = {
-            @CacheEvict(value = "notifications_list", allEntries = true),
-    })
     public NotificationDto changeStatus(UUID id, Integer status) {
-        String key = notificationKey(id);
-        String json = redisTemplate.opsForValue().get(key);
-        if (json == null) throw new ResourceNotFoundException("Notification not found");
         try {
-            NotificationDto existing = objectMapper.readValue(json, NotificationDto.class);
-            existing.setStatus(status);
-            existing.setLastUpdated(LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC));
-            redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(existing));
-            return adjustTimezone(existing);
+            return adjustTimezone(modify(id, dto -> dto.setStatus(status)));
+        } catch (ResourceNotFoundException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to change status", e);
             throw new RuntimeException("Failed to change status");
@@ -308,19 +793,20 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     @Transactional
     @CachePut(value = "notifications", key = "#id")
-    @Caching(evict = {
-            @CacheEvict(value = "notifications_list", allEntries = true),
-    })
     public NotificationDto readNotification(UUID id) {
-        String key = notificationKey(id);
-        String json = redisTemplate.opsForValue().get(key);
-        if (json == null) throw new ResourceNotFoundException("Notification not found");
         try {
-            NotificationDto existing = objectMapper.readValue(json, NotificationDto.class);
-            existing.setIsRead(true);
-            existing.setLastUpdated(LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC));
-            redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(existing));
-            return adjustTimezone(existing);
+            return adjustTimezone(modify(id, dto -> dto.setIsRead(true)));
+        } catch (ResourceNotFoundException e) {
+            // Không còn trong Redis thì có thể đã nằm ở kho lạnh
+            Optional<NotificationDto> marked = archiveService.markRead(id);
+            if (marked.isEmpty()) {
+                // Đã đọc từ trước: không có gì thay đổi
+                return adjustTimezone(archiveService.findById(id).orElseThrow(() -> e));
+            }
+            NotificationDto archived = marked.get();
+            bumpListGenerations(archived.getAccountId());
+            adjustColdUnread(archived.getAccountId(), -1);
+            return adjustTimezone(archived);
         } catch (Exception e) {
             log.error("Failed to mark notification read", e);
             throw new RuntimeException("Failed to read notification");
@@ -330,47 +816,449 @@ public class NotificationServiceImpl implements NotificationService {
     // ---------------- READ ALL NOTIFICATIONS ----------------
     @Override
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "notifications_list", allEntries = true),
-    })
     public Map<String, Object> readAllNotifications(UUID accountId) {
         if (accountId == null) throw new IllegalArgumentException("Account ID required");
 
-        String zKey = accountSetKey(accountId);
-        Set<String> allIds = redisTemplate.opsForZSet().range(zKey, 0, -1);
-        if (allIds == null || allIds.isEmpty()) {
+        // Chỉ duyệt những notification còn chưa đọc; mỗi lô một MGET và một script
+        Set<String> unreadIds = redisTemplate.opsForZSet().range(unreadKey(accountId), 0, -1);
+        long count = 0;
+        if (hasColdTier(accountId)) {
+            int archived = archiveService.markAllRead(accountId);
+            if (archived > 0) {
+                bumpListGenerations(accountId);
+                adjustColdUnread(accountId, -archived);
+            }
+            count += archived;
+        }
+        if (unreadIds == null || unreadIds.isEmpty()) {
+            if (count > 0) {
+                publishUnreadCount(accountId);
+            }
             Map<String, Object> resp = new HashMap<>();
-            resp.put("message", "No notifications found");
-            resp.put("count", 0);
+            resp.put("message", count > 0 ? "Successfully marked " + count + " notification(s) as read" : "No notifications found");
+            resp.put("count", count);
             return resp;
         }
 
-        int count = 0;
-        for (String idStr : allIds) {
+        List<String> ids = new ArrayList<>(unreadIds);
+        boolean failed = false;
+        for (int from = 0; from < ids.size(); from += BACKFILL_BATCH) {
+            List<String> batch = ids.subList(from, Math.min(from + BACKFILL_BATCH, ids.size()));
             try {
-                UUID id = UUID.fromString(idStr);
-                String key = notificationKey(id);
-                String json = redisTemplate.opsForValue().get(key);
-                if (json != null) {
-                    NotificationDto dto = objectMapper.readValue(json, NotificationDto.class);
-                    if (!Boolean.TRUE.equals(dto.getIsRead())) {
-                        dto.setIsRead(true);
-                        dto.setLastUpdated(LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC));
-                        redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(dto));
-                        count++;
-                    }
-                }
+                count += markRead(accountId, batch);
             } catch (Exception e) {
-                log.error("Failed to mark notification read: " + idStr, e);
+                log.error("Failed to mark notifications read for account " + accountId, e);
+                failed = true;
             }
         }
-
-        // Evict cache list related
-        redisTemplate.delete(redisTemplate.keys("notifications_list*"));
+        publishUnreadCount(accountId);
+        if (failed) {
+            throw new RuntimeException("Failed to mark all notifications as read");
+        }
 
         Map<String, Object> resp = new HashMap<>();
         resp.put("message", "Successfully marked " + count + " notification(s) as read");
         resp.put("count", count);
         return resp;
     }
+
+    // Bản bị sửa giữa MGET và script thì đọc lại và chạy lại riêng những bản đó, tối đa MAX_WRITE_ATTEMPTS lần
+    private long markRead(UUID accountId, List<String> ids) throws Exception {
+        long updated = 0;
+        List<String> pending = ids;
+        for (int attempt = 0; attempt < MAX_WRITE_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            List<?> result = markReadOnce(accountId, pending);
+            if (result == null || result.isEmpty()) {
+                return updated;
+            }
+            updated += ((Number) result.get(0)).longValue();
+            pending = ((List<?>) result.get(1)).stream()
+                    .map(skipped -> new String((byte[]) skipped, StandardCharsets.UTF_8))
+                    .toList();
+        }
+        if (!pending.isEmpty()) {
+            throw new IllegalStateException(pending.size() + " notification(s) of account " + accountId
+                    + " were modified concurrently too many times");
+        }
+        return updated;
+    }
+
+    private List<?> markReadOnce(UUID accountId, List<String> ids) throws Exception {
+        List<String> notificationKeys = ids.stream().map(UUID::fromString).map(this::notificationKey).toList();
+        List<byte[]> records = recordRedisTemplate.opsForValue().multiGet(notificationKeys);
+        LocalDateTime now = LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
+
+        List<String> keys = new ArrayList<>(List.of(unreadKey(accountId), accountSetKey(accountId) + READ_SUFFIX,
+                listGenerationKey(accountId), listGenerationKey(null)));
+        List<byte[]> args = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            byte[] record = records != null ? records.get(i) : null;
+            if (record == null) {
+                // Script sẽ gỡ id khỏi index unread
+                keys.add(notificationKeys.get(i));
+                args.addAll(List.of(new byte[0], new byte[0], arg(ids.get(i)), arg(0)));
+                continue;
+            }
+            NotificationDto dto = recordCodec.decode(record);
+            if (Boolean.TRUE.equals(dto.getIsRead())) {
+                // Đã được đánh dấu đọc đồng thời (lúc đọc lại); bên ghi đó đã chuyển index
+                continue;
+            }
+            dto.setIsRead(true);
+            dto.setLastUpdated(now);
+            keys.add(notificationKeys.get(i));
+            args.addAll(List.of(record, recordCodec.encode(dto), arg(ids.get(i)), arg(score(dto))));
+        }
+        if (args.isEmpty()) {
+            return null;
+        }
+        return recordRedisTemplate.execute(READ_ALL_SCRIPT, keys, args.toArray());
+    }
+
+    // Sửa ở kho lạnh không đi qua script nên tự tăng generation
+    private void bumpListGenerations(UUID accountId) {
+        redisTemplate.opsForValue().increment(listGenerationKey(null));
+        if (accountId != null) {
+            redisTemplate.opsForValue().increment(listGenerationKey(accountId));
+        }
+    }
+
+    @Override
+    public long getListGeneration(UUID accountId) {
+        String value = redisTemplate.opsForValue().get(listGenerationKey(accountId));
+        return value != null ? Long.parseLong(value) : 0;
+    }
+
+    // ---------------- UNREAD COUNT ----------------
+    @Override
+    public long getUnreadCount(UUID accountId) {
+        if (accountId == null) throw new IllegalArgumentException("Account ID required");
+        Long hot = redisTemplate.opsForZSet().zCard(unreadKey(accountId));
+        String cold = redisTemplate.opsForValue().get(coldUnreadKey(accountId));
+        // Bộ đếm kho lạnh có thể lệch khi chạy đua với retention; reconcileIndexes đặt lại từ Postgres mỗi ngày
+        return (hot != null ? hot : 0) + Math.max(cold != null ? Long.parseLong(cold) : 0, 0);
+    }
+
+    // Chỉ gọi khi Postgres báo đúng số bản vừa chuyển từ chưa đọc sang đã đọc / bị xoá
+    private void adjustColdUnread(UUID accountId, long delta) {
+        if (accountId == null || delta == 0) {
+            return;
+        }
+        redisTemplate.opsForValue().increment(coldUnreadKey(accountId), delta);
+        publishUnreadCount(accountId);
+    }
+
+    private void publishUnreadCount(UUID accountId) {
+        if (accountId == null) {
+            return;
+        }
+        try {
+            notificationPublisher.sendUnreadCount(accountId, getUnreadCount(accountId));
+        } catch (Exception e) {
+            log.warn("Failed to publish unread count for {}: {}", accountId, e.getMessage());
+        }
+    }
+
+    private static boolean isUnread(NotificationDto dto) {
+        return dto != null && dto.getAccountId() != null && !Boolean.TRUE.equals(dto.getIsRead());
+    }
+
+    // Account có số chưa đọc thay đổi sau khi previous -> next
+    private static Set<UUID> unreadChangedAccounts(NotificationDto previous, NotificationDto next) {
+        Set<UUID> accounts = new HashSet<>();
+        if (isUnread(previous) != isUnread(next)
+                || (isUnread(previous) && !Objects.equals(previous.getAccountId(), next.getAccountId()))) {
+            if (isUnread(previous)) accounts.add(previous.getAccountId());
+            if (isUnread(next)) accounts.add(next.getAccountId());
+        }
+        return accounts;
+    }
+
+    // ---------------- INDEX BACKFILL / RECONCILE ----------------
+    // Notification tạo trước khi có index status / read chỉ nằm trong notifications:all và set của account
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIndexes() {
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(INDEX_VERSION_KEY, Instant.now().toString()))) {
+            return;
+        }
+        try {
+            log.info("Backfilled notification indexes for {} notification(s)", reindex());
+        } catch (Exception e) {
+            // Lần khởi động sau thử lại
+            redisTemplate.delete(INDEX_VERSION_KEY);
+            log.error("Failed to backfill notification indexes", e);
+        }
+    }
+
+    /**
+     * Indexes are written together with the notification, so they only drift when Redis is edited by
+     * hand or a key is lost; this puts every notification back into its sets and drops unread
+     * entries whose notification is gone, already read or moved to another account.
+     */
+    @Override
+    @Scheduled(cron = "${notification.reconcile-cron:0 30 3 * * *}")
+    public void reconcileIndexes() {
+        try {
+            long indexed = reindex();
+            long removed = sweepUnreadIndexes();
+            long coldAccounts = reconcileColdUnread();
+            log.info("Reconciled notification indexes: {} notification(s), {} stale unread entr(ies) removed, {} cold unread counter(s)",
+                    indexed, removed, coldAccounts);
+        } catch (Exception e) {
+            log.error("Failed to reconcile notification indexes", e);
+        }
+    }
+
+    private long reindex() throws Exception {
+        long indexed = 0;
+        for (long start = 0; ; start += BACKFILL_BATCH) {
+            Set<String> ids = redisTemplate.opsForZSet().range(GLOBAL_SET, start, start + BACKFILL_BATCH - 1);
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+            List<NotificationDto> batch = load(ids);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (NotificationDto dto : batch) {
+                    String member = dto.getId().toString();
+                    for (String key : indexKeys(dto)) {
+                        redis.zAdd(key, score(dto), member);
+                    }
+                    if (dto.getAccountId() != null) {
+                        redis.zRem(accountSetKey(dto.getAccountId()) + (isUnread(dto) ? READ_SUFFIX : UNREAD_SUFFIX), member);
+                    }
+                }
+                return null;
+            });
+            indexed += batch.size();
+        }
+        return indexed;
+    }
+
+    private long reconcileColdUnread() {
+        long reconciled = 0;
+        ScanOptions options = ScanOptions.scanOptions().count(BACKFILL_BATCH).build();
+        try (Cursor<String> cursor = redisTemplate.opsForSet().scan(COLD_ACCOUNTS_KEY, options)) {
+            while (cursor.hasNext()) {
+                String member = cursor.next();
+                if (ALL_MEMBER.equals(member)) {
+                    continue;
+                }
+                UUID accountId = UUID.fromString(member);
+                redisTemplate.opsForValue().set(coldUnreadKey(accountId), Long.toString(archiveService.countUnread(accountId)));
+                reconciled++;
+            }
+        }
+        return reconciled;
+    }
+
+    private long sweepUnreadIndexes() throws Exception {
+        long removed = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(ACCOUNT_SET_PREFIX + "*" + UNREAD_SUFFIX).count(BACKFILL_BATCH).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                Set<String> ids = redisTemplate.opsForZSet().range(key, 0, -1);
+                if (ids == null || ids.isEmpty()) {
+                    continue;
+                }
+                Map<String, NotificationDto> live = new HashMap<>();
+                for (NotificationDto dto : load(ids)) {
+                    live.put(dto.getId().toString(), dto);
+                }
+                Object[] stale = ids.stream()
+                        .filter(id -> {
+                            NotificationDto dto = live.get(id);
+                            return !isUnread(dto) || !key.equals(unreadKey(dto.getAccountId()));
+                        })
+                        .toArray();
+                if (stale.length > 0) {
+                    Long count = redisTemplate.opsForZSet().remove(key, stale);
+                    removed += count != null ? count : 0;
+                }
+            }
+        }
+        return removed;
+    }
+
+    // ---------------- RETENTION ----------------
+    private void markIfOverCap(UUID accountId) {
+        if (accountId == null) {
+            return;
+        }
+        Long size = redisTemplate.opsForZSet().zCard(accountSetKey(accountId));
+        if (size != null && size > maxPerAccount) {
+            redisTemplate.opsForSet().add(OVER_CAP_KEY, accountId.toString());
+        }
+    }
+
+    /**
+     * Moves notifications beyond the newest {@code maxPerAccount} of an account, and those older than
+     * {@code maxAgeDays}, from Redis into the Postgres cold tier. Each batch is written to Postgres
+     * first and only then removed from Redis, so a failure leaves it in Redis for the next run.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${notification.retention.interval-ms:600000}")
+    public void enforceRetention() {
+        try {
+            long capped = trimOverCapAccounts();
+            long expired = archiveExpired();
+            if (capped + expired > 0) {
+                log.info("Moved {} notification(s) over the per-account cap and {} older than {} day(s) to the cold tier",
+                        capped, expired, maxAgeDays);
+            }
+        } catch (Exception e) {
+            log.error("Failed to enforce notification retention", e);
+        }
+    }
+
+    private long trimOverCapAccounts() {
+        long moved = 0;
+        List<String> failed = new ArrayList<>();
+        while (true) {
+            List<String> accounts = redisTemplate.opsForSet().pop(OVER_CAP_KEY, BACKFILL_BATCH);
+            if (accounts == null || accounts.isEmpty()) {
+                break;
+            }
+            for (String account : accounts) {
+                String key = accountSetKey(UUID.fromString(account));
+                try {
+                    while (true) {
+                        Long size = redisTemplate.opsForZSet().zCard(key);
+                        long excess = (size != null ? size : 0) - maxPerAccount;
+                        if (excess <= 0) {
+                            break;
+                        }
+                        // Cũ nhất trước
+                        Set<String> ids = redisTemplate.opsForZSet().range(key, 0, Math.min(excess, BACKFILL_BATCH) - 1);
+                        long removed = ids == null || ids.isEmpty() ? 0 : moveToColdTier(ids, key);
+                        moved += removed;
+                        if (removed == 0) {
+                            break;
+                        }
+                    }
+                } catch (Exception e) {
+                    failed.add(account);
+                    log.warn("Failed to trim notifications of account {}: {}", account, e.getMessage());
+                }
+            }
+        }
+        if (!failed.isEmpty()) {
+            redisTemplate.opsForSet().add(OVER_CAP_KEY, failed.toArray(String[]::new));
+        }
+        return moved;
+    }
+
+    private long archiveExpired() throws Exception {
+        double cutoff = Instant.now().minus(Duration.ofDays(maxAgeDays)).toEpochMilli();
+        long moved = 0;
+        while (true) {
+            Set<String> ids = redisTemplate.opsForZSet().rangeByScore(GLOBAL_SET, Double.NEGATIVE_INFINITY, cutoff, 0, BACKFILL_BATCH);
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+            long removed = moveToColdTier(ids, GLOBAL_SET);
+            moved += removed;
+            // Cả lô bị sửa đồng thời (hoặc không đọc được) thì để lần chạy sau
+            if (removed == 0 || ids.size() < BACKFILL_BATCH) {
+                break;
+            }
+        }
+        return moved;
+    }
+
+    // Trả về số id đã gỡ khỏi Redis; id mà key đã mất chỉ được gỡ khỏi sourceKey
+    // dto null = bản ghi đã mất, chỉ cần gỡ id khỏi index nguồn
+    private record ColdMove(UUID id, byte[] record, NotificationDto dto) {
+    }
+
+    private long moveToColdTier(Collection<String> ids, String sourceKey) throws Exception {
+        List<String> idList = new ArrayList<>(ids);
+        List<byte[]> records = recordRedisTemplate.opsForValue().multiGet(
+                idList.stream().map(UUID::fromString).map(this::notificationKey).toList());
+
+        List<ColdMove> moves = new ArrayList<>();
+        for (int i = 0; i < idList.size(); i++) {
+            UUID id = UUID.fromString(idList.get(i));
+            byte[] record = records != null ? records.get(i) : null;
+            if (record == null) {
+                moves.add(new ColdMove(id, new byte[0], null));
+                continue;
+            }
+            NotificationDto dto;
+            try {
+                dto = recordCodec.decode(record);
+            } catch (Exception e) {
+                log.error("Skipping unreadable notification {} during retention", id, e);
+                continue;
+            }
+            if (dto.getCreatedDate() == null) {
+                dto.setCreatedDate(dto.getLastUpdated() != null ? dto.getLastUpdated() : LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC));
+            }
+            moves.add(new ColdMove(id, record, dto));
+        }
+        if (moves.isEmpty()) {
+            return 0;
+        }
+        List<NotificationDto> archived = moves.stream().map(ColdMove::dto).filter(Objects::nonNull).toList();
+
+        // Đánh dấu trước khi chép: delete chạy sau đó thấy account có kho lạnh và xoá cả bản vừa chép
+        Set<String> generationKeys = new LinkedHashSet<>();
+        generationKeys.add(listGenerationKey(null));
+        Set<String> coldMembers = new LinkedHashSet<>();
+        coldMembers.add(ALL_MEMBER);
+        for (NotificationDto dto : archived) {
+            if (dto.getAccountId() != null) {
+                generationKeys.add(listGenerationKey(dto.getAccountId()));
+                coldMembers.add(dto.getAccountId().toString());
+            }
+        }
+        redisTemplate.opsForSet().add(COLD_ACCOUNTS_KEY, coldMembers.toArray(String[]::new));
+
+        archiveService.archive(archived);
+
+        // Bản bị xoá trong lúc đang chép: delete đã (hoặc sẽ) gỡ bản trong Redis, ở đây bỏ bản trong Postgres
+        List<String> deleted = redisTemplate.opsForValue().multiGet(
+                moves.stream().map(move -> deletedKey(move.id())).toList());
+        List<String> recordKeys = new ArrayList<>();
+        List<byte[]> args = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) {
+            ColdMove move = moves.get(i);
+            if (move.dto() != null && deleted != null && deleted.get(i) != null) {
+                archiveService.delete(move.id());
+                continue;
+            }
+            List<String> index = move.dto() != null ? indexKeys(move.dto()) : List.of(sourceKey);
+            // Account có bộ đếm chưa đọc ở kho lạnh cần tăng khi bản này được gỡ khỏi Redis
+            boolean unread = isUnread(move.dto());
+            recordKeys.add(notificationKey(move.id()));
+            recordKeys.addAll(index);
+            if (unread) {
+                recordKeys.add(coldUnreadKey(move.dto().getAccountId()));
+            }
+            args.addAll(List.of(arg(index.size()), move.record(), arg(move.id()), arg(unread ? 1 : 0)));
+        }
+        if (recordKeys.isEmpty()) {
+            return 0;
+        }
+
+        List<String> keys = new ArrayList<>(generationKeys);
+        keys.addAll(recordKeys);
+        args.add(0, arg(generationKeys.size()));
+        // Script chuyển bản chưa đọc sang bộ đếm kho lạnh nên số chưa đọc của account không đổi
+        Long removed = recordRedisTemplate.execute(ARCHIVE_SCRIPT, keys, args.toArray());
+        return removed != null ? removed : 0;
+    }
+
+    private List<NotificationDto> load(Collection<String> ids) throws Exception {
+        List<byte[]> records = recordRedisTemplate.opsForValue().multiGet(
+                ids.stream().map(UUID::fromString).map(this::notificationKey).toList());
+        List<NotificationDto> result = new ArrayList<>();
+        for (byte[] record : records != null ? records : List.<byte[]>of()) {
+            if (record != null) {
+                result.add(recordCodec.decode(record));
+            }
+        }
+        return result;
+    }
 }
@@ -0,0 +1,187 @@
+package com.alpha_code.alpha_code_user_service.service.impl;
+
+import com.alpha_code.alpha_code_user_service.grpc.client.PaymentServiceClient;
+import com.alpha_code.alpha_code_user_service.service.PaymentKeyService;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import payment.GetKeyResponse;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Payment key lookup for token responses. Keys are cached in Redis as {@code fetchedAt|key}: fresh for
+ * {@code payment.key.cache-ttl-ms}, then kept as a fallback until {@code payment.key.stale-ttl-ms}.
+ * Calls go through the async stub with a deadline and a consecutive-failure circuit breaker; when the
+ * call fails or the circuit is open the caller gets the stale key (or "") instead of an error.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentKeyServiceImpl implements PaymentKeyService {
+
+    public static final String KEY_PREFIX = "payment-key:";
+
+    private final PaymentServiceClient paymentServiceClient;
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${payment.key.deadline-ms:800}")
+    private long deadlineMs;
+
+    @Value("${payment.key.cache-ttl-ms:600000}")
+    private long cacheTtlMs;
+
+    @Value("${payment.key.stale-ttl-ms:86400000}")
+    private long staleTtlMs;
+
+    @Value("${payment.key.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${payment.key.breaker.open-ms:30000}")
+    private long openMs;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile long openUntil;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong shortCircuited = new AtomicLong();
+
+    private record CachedKey(long fetchedAt, String key) {
+    }
+
+    @Override
+    public CompletableFuture<String> getKeyAsync(UUID accountId) {
+        CachedKey cached = readCache(accountId);
+        if (cached != null && System.currentTimeMillis() - cached.fetchedAt() < cacheTtlMs) {
+            hits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached.key());
+        }
+        misses.incrementAndGet();
+
+        String fallback = cached != null ? cached.key() : "";
+        if (!allowRequest()) {
+            shortCircuited.incrementAndGet();
+            return CompletableFuture.completedFuture(fallback);
+        }
+
+        ListenableFuture<GetKeyResponse> call;
+        try {
+            call = paymentServiceClient.getKeyByAccountIdAsync(accountId, deadlineMs);
+        } catch (RuntimeException e) {
+            recordFailure(accountId, e);
+            return CompletableFuture.completedFuture(fallback);
+        }
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Futures.addCallback(call, new FutureCallback<>() {
+            @Override
+            public void onSuccess(GetKeyResponse response) {
+                recordSuccess();
+                String key = response != null ? response.getKey() : "";
+                writeCache(accountId, key);
+                result.complete(key);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                recordFailure(accountId, t);
+                result.complete(fallback);
+            }
+        }, MoreExecutors.directExecutor());
+        return result;
+    }
+
+    @Override
+    public void invalidate(UUID accountId) {
+        try {
+            redisTemplate.delete(KEY_PREFIX + accountId);
+        } catch (Exception e) {
+            log.error("Failed to invalidate payment key cache for {}", accountId, e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("circuit", circuitState());
+        result.put("consecutiveFailures", consecutiveFailures.get());
+        result.put("hits", hits.get());
+        result.put("misses", misses.get());
+        result.put("fallbacks", fallbacks.get());
+        result.put("shortCircuited", shortCircuited.get());
+        return result;
+    }
+
+    private boolean allowRequest() {
+        long until = openUntil;
+        if (until == 0) {
+            return true;
+        }
+        if (System.currentTimeMillis() < until) {
+            return false;
+        }
+        // Half-open: chỉ cho một request thử
+        return trialInFlight.compareAndSet(false, true);
+    }
+
+    private void recordSuccess() {
+        consecutiveFailures.set(0);
+        openUntil = 0;
+        trialInFlight.set(false);
+    }
+
+    private void recordFailure(UUID accountId, Throwable t) {
+        fallbacks.incrementAndGet();
+        boolean trial = trialInFlight.getAndSet(false);
+        if (trial || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openUntil = System.currentTimeMillis() + openMs;
+            log.warn("Payment key circuit open for {} ms", openMs);
+        }
+        log.error("Payment key lookup failed for {}: {}", accountId, t.toString());
+    }
+
+    private String circuitState() {
+        long until = openUntil;
+        if (until == 0) return "closed";
+        return System.currentTimeMillis() < until ? "open" : "half-open";
+    }
+
+    private CachedKey readCache(UUID accountId) {
+        try {
+            String value = redisTemplate.opsForValue().get(KEY_PREFIX + accountId);
+            if (value == null) {
+                return null;
+            }
+            int separator = value.indexOf('|');
+            return new CachedKey(Long.parseLong(value.substring(0, separator)), value.substring(separator + 1));
+        } catch (Exception e) {
+            log.error("Failed to read payment key cache for {}", accountId, e);
+            return null;
+        }
+    }
+
+    private void writeCache(UUID accountId, String key) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + accountId,
+                    System.currentTimeMillis() + "|" + key, Duration.ofMillis(staleTtlMs));
+        } catch (Exception e) {
+            log.error("Failed to cache payment key for {}", accountId, e);
+        }
+    }
+}
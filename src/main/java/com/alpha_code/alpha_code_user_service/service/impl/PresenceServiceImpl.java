@@ -0,0 +1,168 @@
+package com.alpha_code.alpha_code_user_service.service.impl;
+
+import com.alpha_code.alpha_code_user_service.dto.RoleDto;
+import com.alpha_code.alpha_code_user_service.service.PresenceService;
+import com.alpha_code.alpha_code_user_service.service.RoleRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Online presence in Redis sorted sets ({@code accountId -> last seen ms}): one for everybody and
+ * one per role. "Online" means seen within the window, answered with ZCOUNT instead of scanning
+ * keys; old members are trimmed periodically. Daily / monthly actives are HyperLogLogs.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceServiceImpl implements PresenceService {
+
+    public static final String ONLINE_KEY = "presence:online";
+    public static final String ROLE_KEY_PREFIX = "presence:online:role:";
+    public static final String DAU_KEY_PREFIX = "presence:dau:";
+    public static final String MAU_KEY_PREFIX = "presence:mau:";
+
+    private static final long DAU_TTL_SECONDS = Duration.ofDays(40).toSeconds();
+    private static final long MAU_TTL_SECONDS = Duration.ofDays(400).toSeconds();
+
+    private final StringRedisTemplate redisTemplate;
+    private final RoleRegistry roleRegistry;
+
+    @Value("${presence.online-window-ms:300000}")
+    private long onlineWindowMs;
+
+    @Value("${presence.heartbeat-interval-ms:30000}")
+    private long heartbeatIntervalMs;
+
+    // accountId -> role của heartbeat gần nhất đã ghi xuống Redis
+    private Cache<UUID, String> recentHeartbeats;
+
+    @PostConstruct
+    public void init() {
+        recentHeartbeats = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(heartbeatIntervalMs))
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @Override
+    public void heartbeat(UUID accountId, String roleName) {
+        if (accountId == null || roleName == null) {
+            return;
+        }
+        String previousRole = recentHeartbeats.getIfPresent(accountId);
+        if (roleName.equals(previousRole)) {
+            return;
+        }
+        recentHeartbeats.put(accountId, roleName);
+
+        String member = accountId.toString();
+        double now = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        String dauKey = DAU_KEY_PREFIX + today;
+        String mauKey = MAU_KEY_PREFIX + YearMonth.from(today);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                redis.zAdd(ONLINE_KEY, now, member);
+                redis.zAdd(ROLE_KEY_PREFIX + roleName, now, member);
+                // Đổi profile sang role khác thì không tính ở role cũ nữa
+                if (previousRole != null) {
+                    redis.zRem(ROLE_KEY_PREFIX + previousRole, member);
+                }
+                redis.pfAdd(dauKey, member);
+                redis.expire(dauKey, DAU_TTL_SECONDS);
+                redis.pfAdd(mauKey, member);
+                redis.expire(mauKey, MAU_TTL_SECONDS);
+                return null;
+            });
+        } catch (Exception e) {
+            // Presence chỉ phục vụ thống kê, không làm hỏng request
+            recentHeartbeats.invalidate(accountId);
+            log.warn("Failed to record presence for {}: {}", accountId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void offline(UUID accountId) {
+        recentHeartbeats.invalidate(accountId);
+        String member = accountId.toString();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                redis.zRem(ONLINE_KEY, member);
+                for (RoleDto role : roleRegistry.getAll()) {
+                    redis.zRem(ROLE_KEY_PREFIX + role.getName(), member);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to clear presence for {}: {}", accountId, e.getMessage());
+        }
+    }
+
+    @Override
+    public long countOnline() {
+        return countSince(ONLINE_KEY, windowStart());
+    }
+
+    @Override
+    public Map<String, Long> countOnlineByRole() {
+        double since = windowStart();
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (RoleDto role : roleRegistry.getAll()) {
+            result.put(role.getName(), countSince(ROLE_KEY_PREFIX + role.getName(), since));
+        }
+        return result;
+    }
+
+    @Override
+    public long countDailyActive(LocalDate day) {
+        Long size = redisTemplate.opsForHyperLogLog().size(DAU_KEY_PREFIX + day);
+        return size != null ? size : 0;
+    }
+
+    @Override
+    public long countMonthlyActive(YearMonth month) {
+        Long size = redisTemplate.opsForHyperLogLog().size(MAU_KEY_PREFIX + month);
+        return size != null ? size : 0;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${presence.trim-interval-ms:60000}")
+    public void trim() {
+        double before = windowStart();
+        try {
+            redisTemplate.opsForZSet().removeRangeByScore(ONLINE_KEY, Double.NEGATIVE_INFINITY, before);
+            for (RoleDto role : roleRegistry.getAll()) {
+                redisTemplate.opsForZSet().removeRangeByScore(ROLE_KEY_PREFIX + role.getName(), Double.NEGATIVE_INFINITY, before);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to trim presence sets: {}", e.getMessage());
+        }
+    }
+
+    private double windowStart() {
+        return System.currentTimeMillis() - onlineWindowMs;
+    }
+
+    private long countSince(String key, double since) {
+        Long count = redisTemplate.opsForZSet().count(key, since, Double.POSITIVE_INFINITY);
+        return count != null ? count : 0;
+    }
+}
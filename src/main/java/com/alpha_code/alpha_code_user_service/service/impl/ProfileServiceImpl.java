@@ -2,14 +2,16 @@ package com.alpha_code.alpha_code_user_service.service.impl;
 
 import com.alpha_code.alpha_code_user_service.dto.PagedResult;
 import com.alpha_code.alpha_code_user_service.dto.ProfileDto;
+import com.alpha_code.alpha_code_user_service.dto.RoleDto;
 import com.alpha_code.alpha_code_user_service.entity.Profile;
-import com.alpha_code.alpha_code_user_service.entity.Role;
 import com.alpha_code.alpha_code_user_service.mapper.ProfileMapper;
 import com.alpha_code.alpha_code_user_service.repository.AccountRepository;
 import com.alpha_code.alpha_code_user_service.repository.ProfileRepository;
-import com.alpha_code.alpha_code_user_service.repository.RoleRepository;
+import com.alpha_code.alpha_code_user_service.service.PasswordHashingService;
 import com.alpha_code.alpha_code_user_service.service.ProfileService;
+import com.alpha_code.alpha_code_user_service.service.RoleRegistry;
 import com.alpha_code.alpha_code_user_service.service.S3Service;
+import com.alpha_code.alpha_code_user_service.service.TableStatsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
@@ -17,7 +19,7 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -33,26 +35,34 @@ public class ProfileServiceImpl implements ProfileService {
     private final ProfileRepository profileRepository;
     private final AccountRepository accountRepository;
     private final S3Service s3Service;
-    private final BCryptPasswordEncoder passwordEncoder;
-    private final RoleRepository roleRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final RoleRegistry roleRegistry;
+    private final TableStatsService tableStatsService;
 
     private UUID resolveRoleIdByIsKid(Boolean isKid) {
         String roleName = Boolean.TRUE.equals(isKid) ? "Children" : "Parent";
-        return roleRepository.findByNameIgnoreCase(roleName)
-                .map(Role::getId)
+        return roleRegistry.findByName(roleName)
+                .map(RoleDto::getId)
                 .orElseThrow(() -> new RuntimeException("Role not found: " + roleName));
     }
 
     @Override
-    @Cacheable(value = "profiles_list", key = "{#page, #size, #name, #accountId, #status, #isKid, #passCode}")
-    public PagedResult<ProfileDto> searchProfiles(int page, int size, String name, UUID accountId, Integer status, Boolean isKid, String passCode) {
+    @Cacheable(value = "profiles_list", key = "{#page, #size, #name, #accountId, #status, #isKid, #passCode, #countMode}")
+    public PagedResult<ProfileDto> searchProfiles(int page, int size, String name, UUID accountId, Integer status, Boolean isKid, String passCode,
+                                                  PagedResult.CountMode countMode) {
         Pageable pageable = PageRequest.of(page - 1, size);
-        Page<Profile> pageResult;
 
-        pageResult = profileRepository.searchProfiles(name, accountId, status, isKid, passCode, pageable);
-
-        return new PagedResult<>(pageResult.map(ProfileMapper::toDto));
+        if (countMode != PagedResult.CountMode.ESTIMATE) {
+            Page<Profile> pageResult = profileRepository.searchProfiles(name, accountId, status, isKid, passCode, pageable);
+            return new PagedResult<>(pageResult.map(ProfileMapper::toDto));
+        }
 
+        Slice<Profile> sliceResult = profileRepository.searchProfilesSlice(name, accountId, status, isKid, passCode, pageable);
+        // Có filter thì thống kê cả bảng không còn đúng, chỉ trả cận dưới từ slice
+        boolean filtered = (name != null && !name.isEmpty()) || accountId != null || status != null
+                || isKid != null || (passCode != null && !passCode.isEmpty());
+        long estimate = filtered ? 0 : tableStatsService.estimateRowCount("profile").orElse(0);
+        return new PagedResult<>(sliceResult.map(ProfileMapper::toDto), estimate);
     }
 
     @Override
@@ -93,7 +103,7 @@ public class ProfileServiceImpl implements ProfileService {
         var account = accountRepository.findById(profileDto.getAccountId())
                 .orElseThrow(() -> new RuntimeException("Account not found"));
         profile.setAccount(account);
-        profile.setPassCode(passwordEncoder.encode(profileDto.getPassCode()));
+        profile.setPassCode(passwordHashingService.encode(profileDto.getPassCode()));
         profile.setCreatedDate(LocalDateTime.now());
         // set roleId based on isKid
         profile.setRoleId(resolveRoleIdByIsKid(profile.getIsKid()));
@@ -128,7 +138,7 @@ public class ProfileServiceImpl implements ProfileService {
         profile.setIsKid(profileDto.getIsKid());
         // update roleId after isKid change
         profile.setRoleId(resolveRoleIdByIsKid(profile.getIsKid()));
-        profile.setPassCode(passwordEncoder.encode(profileDto.getPassCode()));
+        profile.setPassCode(passwordHashingService.encode(profileDto.getPassCode()));
         profile.setLastActiveAt(profileDto.getLastActiveAt());
         profile.setStatus(profileDto.getStatus());
 
@@ -156,7 +166,7 @@ public class ProfileServiceImpl implements ProfileService {
             profile.setIsKid(profileDto.getIsKid());
         }
         if (profileDto.getPassCode() != null){
-            profile.setPassCode(passwordEncoder.encode(profileDto.getPassCode()));
+            profile.setPassCode(passwordHashingService.encode(profileDto.getPassCode()));
         }
         if (profileDto.getLastActiveAt() != null){
             profile.setLastActiveAt(profileDto.getLastActiveAt());
@@ -186,7 +196,7 @@ public class ProfileServiceImpl implements ProfileService {
         profile.setIsKid(profileDto.getIsKid());
         // update roleId after isKid change
         profile.setRoleId(resolveRoleIdByIsKid(profile.getIsKid()));
-        profile.setPassCode(passwordEncoder.encode(profileDto.getPassCode()));
+        profile.setPassCode(passwordHashingService.encode(profileDto.getPassCode()));
         profile.setLastActiveAt(profileDto.getLastActiveAt());
         profile.setStatus(profileDto.getStatus());
 
@@ -224,7 +234,7 @@ public class ProfileServiceImpl implements ProfileService {
             profile.setIsKid(profileDto.getIsKid());
         }
         if (profileDto.getPassCode() != null){
-            profile.setPassCode(passwordEncoder.encode(profileDto.getPassCode()));
+            profile.setPassCode(passwordHashingService.encode(profileDto.getPassCode()));
         }
         if (profileDto.getLastActiveAt() != null){
             profile.setLastActiveAt(profileDto.getLastActiveAt());
@@ -293,7 +303,7 @@ public class ProfileServiceImpl implements ProfileService {
             throw new RuntimeException("Mật khẩu cũ không chính xác");
         }
 
-        profile.setPassCode(passwordEncoder.encode(passCode));
+        profile.setPassCode(passwordHashingService.encode(passCode));
         profile.setLastUpdated(LocalDateTime.now());
 
         Profile savedEntity = profileRepository.save(profile);
@@ -1,58 +1,49 @@
 package com.alpha_code.alpha_code_user_service.service.impl;
 
 import com.alpha_code.alpha_code_user_service.dto.LoginDto;
+import com.alpha_code.alpha_code_user_service.dto.RoleDto;
 import com.alpha_code.alpha_code_user_service.entity.Account;
-import com.alpha_code.alpha_code_user_service.entity.Role;
 import com.alpha_code.alpha_code_user_service.exception.AuthenticationException;
-import com.alpha_code.alpha_code_user_service.exception.ResourceNotFoundException;
-import com.alpha_code.alpha_code_user_service.grpc.client.PaymentServiceClient;
 import com.alpha_code.alpha_code_user_service.repository.AccountRepository;
-import com.alpha_code.alpha_code_user_service.repository.RoleRepository;
 import com.alpha_code.alpha_code_user_service.service.DashboardService;
-import com.alpha_code.alpha_code_user_service.service.RedisRefreshTokenService;
+import com.alpha_code.alpha_code_user_service.service.PaymentKeyService;
 import com.alpha_code.alpha_code_user_service.service.RefreshTokenService;
+import com.alpha_code.alpha_code_user_service.service.RoleRegistry;
+import com.alpha_code.alpha_code_user_service.service.SessionService;
 import com.alpha_code.alpha_code_user_service.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class RefreshTokenServiceImpl implements RefreshTokenService {
 
-    private final RedisRefreshTokenService redisService;
+    private final SessionService sessionService;
     private final JwtUtil jwtUtil;
     private final AccountRepository accountRepository;
     private final DashboardService dashboardService;
-    private final RoleRepository roleRepository;
-    private final PaymentServiceClient paymentServiceClient;
-
-    @Value("${jwt.refresh-expiration-ms}")
-    private Long refreshTokenDurationMs;
+    private final RoleRegistry roleRegistry;
+    private final PaymentKeyService paymentKeyService;
 
     @Override
-    public String createRefreshToken(UUID userId, String refreshToken) {
-        // Lưu refresh token vào Redis với TTL
-        redisService.save(userId, refreshToken, refreshTokenDurationMs, TimeUnit.MILLISECONDS);
-        return refreshToken;
-    }
-
-    @Override
-    public boolean validateRefreshToken(UUID userId, String refreshToken) {
-        return redisService.validate(userId, refreshToken);
+    public boolean validateRefreshToken(String refreshToken) {
+        try {
+            String sessionId = jwtUtil.getSessionIdFromToken(refreshToken);
+            return sessionId != null
+                    && sessionService.validate(jwtUtil.getUserIdFromToken(refreshToken), sessionId, refreshToken);
+        } catch (Exception e) {
+            return false;
+        }
     }
 
     @Override
     public void deleteRefreshToken(UUID userId) {
-        redisService.delete(userId);
-    }
-
-    @Override
-    public String getRefreshToken(UUID userId) {
-        return redisService.get(userId);
+        sessionService.revokeAll(userId);
     }
 
     @Override
@@ -60,56 +51,70 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
         UUID userId;
         UUID roldeId;
         String fullName;
+        String sessionId;
         try {
             userId = jwtUtil.getUserIdFromToken(refreshToken);
             roldeId = jwtUtil.getRoleIdFromToken(refreshToken);
             fullName = jwtUtil.getFullNameFromToken(refreshToken);
+            sessionId = jwtUtil.getSessionIdFromToken(refreshToken);
         } catch (Exception e) {
             throw new AuthenticationException("Invalid refresh token");
         }
-
-        boolean valid = redisService.validate(userId, refreshToken);
-        if (!valid) {
+        // Token cũ không gắn session -> bắt đăng nhập lại
+        if (sessionId == null) {
             throw new AuthenticationException("Refresh token is invalid or expired");
         }
 
-
         Account account = accountRepository.findById(userId)
                 .orElseThrow(() -> new AuthenticationException("User not found"));
 
-        Role role = roleRepository.findById(roldeId)
-                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy role"));
+        RoleDto role = roleRegistry.getById(roldeId);
 
         account.setRoleId(role.getId());
         account.setFullName(fullName);
 
-        // cấp lại access token mới, refresh token giữ nguyên
-        String newAccessToken = jwtUtil.generateAccessToken(account);
-        String newFreshToken = jwtUtil.generateRefreshToken(account);
+        // Gọi payment service song song với việc sinh token
+        CompletableFuture<String> key = paymentKeyService.getKeyAsync(account.getId());
 
-        redisService.delete(userId);
-        redisService.save(userId, newFreshToken, refreshTokenDurationMs, TimeUnit.MILLISECONDS);
-
-        var keyResponse = paymentServiceClient.getKeyByAccountId(account.getId());
-        String key = keyResponse != null ? keyResponse.getKey() : "";
+        // cấp lại access token mới, refresh token giữ nguyên
+        String newAccessToken = jwtUtil.generateAccessToken(account, sessionId);
+        String newFreshToken = jwtUtil.generateRefreshToken(account, sessionId);
+
+        // Kiểm tra + thay token + reset TTL trong một lệnh atomic
+        var rotation = sessionService.rotate(userId, sessionId, refreshToken, newFreshToken);
+        if (rotation == SessionService.RotationResult.REUSE_DETECTED) {
+            // Token đã rotate bị dùng lại -> coi như bị lộ, thu hồi session
+            log.warn("Refresh token reuse detected for account {} session {}, revoking it", userId, sessionId);
+            sessionService.revoke(userId, sessionId);
+            dashboardService.removeOnlineUser(userId);
+            throw new AuthenticationException("Refresh token has already been used");
+        }
+        if (rotation != SessionService.RotationResult.ROTATED) {
+            throw new AuthenticationException("Refresh token is invalid or expired");
+        }
 
         return LoginDto.LoginResponse.builder()
                 .accessToken(newAccessToken)
                 .refreshToken(newFreshToken)
-                .key(key)
+                .key(key.join())
                 .build();
     }
 
     @Override
     public String logout(String refreshToken) {
         UUID userId;
+        String sessionId;
         try {
             userId = jwtUtil.getUserIdFromToken(refreshToken);
+            sessionId = jwtUtil.getSessionIdFromToken(refreshToken);
         } catch (Exception e) {
             throw new AuthenticationException("Invalid refresh token");
         }
 
-        redisService.delete(userId);
+        // Chỉ đăng xuất thiết bị này, các session khác giữ nguyên
+        if (sessionId != null) {
+            sessionService.revoke(userId, sessionId);
+        }
         dashboardService.removeOnlineUser(userId);
         return "Logged out successfully";
     }
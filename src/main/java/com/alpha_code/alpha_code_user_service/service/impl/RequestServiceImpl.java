@@ -6,6 +6,7 @@ import com.alpha_code.alpha_code_user_service.entity.Request;
 import com.alpha_code.alpha_code_user_service.mapper.RequestMapper;
 import com.alpha_code.alpha_code_user_service.repository.RequestRepository;
 import com.alpha_code.alpha_code_user_service.service.RequestService;
+import com.alpha_code.alpha_code_user_service.service.TableStatsService;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
@@ -14,6 +15,7 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -24,15 +26,23 @@ import java.util.UUID;
 public class RequestServiceImpl implements RequestService {
 
     private final RequestRepository repository;
+    private final TableStatsService tableStatsService;
 
     @Override
-    @Cacheable(value = "Requests_list", key = "{#page, #size, #title, #type, #status, #accountId, #rate}")
-    public PagedResult<RequestDto> getAllRequest(int page, int size, String title, String type, Integer status, UUID accountId, Integer rate) {
+    @Cacheable(value = "Requests_list", key = "{#page, #size, #title, #type, #status, #accountId, #rate, #countMode}")
+    public PagedResult<RequestDto> getAllRequest(int page, int size, String title, String type, Integer status, UUID accountId, Integer rate,
+                                                 PagedResult.CountMode countMode) {
         Pageable pageable = PageRequest.of(page - 1, size);
-        Page<Request> pageResult;
 
-        pageResult = repository.searchRequests(title, type, status, accountId, rate, pageable);
-        return new PagedResult<>(pageResult.map(RequestMapper::toDto));
+        if (countMode != PagedResult.CountMode.ESTIMATE) {
+            Page<Request> pageResult = repository.searchRequests(title, type, status, accountId, rate, pageable);
+            return new PagedResult<>(pageResult.map(RequestMapper::toDto));
+        }
+
+        Slice<Request> sliceResult = repository.searchRequestsSlice(title, type, status, accountId, rate, pageable);
+        boolean filtered = title != null || type != null || status != null || accountId != null || rate != null;
+        long estimate = filtered ? 0 : tableStatsService.estimateRowCount("user_request").orElse(0);
+        return new PagedResult<>(sliceResult.map(RequestMapper::toDto), estimate);
     }
 
     @Override
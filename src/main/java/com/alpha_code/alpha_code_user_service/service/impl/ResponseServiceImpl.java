@@ -7,6 +7,7 @@ import com.alpha_code.alpha_code_user_service.mapper.ResponseMapper;
 import com.alpha_code.alpha_code_user_service.repository.RequestRepository;
 import com.alpha_code.alpha_code_user_service.repository.ResponseRepository;
 import com.alpha_code.alpha_code_user_service.service.ResponseService;
+import com.alpha_code.alpha_code_user_service.service.TableStatsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
@@ -14,6 +15,7 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,17 +28,23 @@ public class ResponseServiceImpl implements ResponseService {
 
     private final ResponseRepository repository;
     private final RequestRepository requestRepository;
+    private final TableStatsService tableStatsService;
 
     @Override
-    @Cacheable(value = "responses_list", key = "{#page, #size, #keyword, #status, #requestId, #responderId}")
-    public PagedResult<ResponseDto> getAll(int page, int size, Integer status, UUID requestId, UUID responderId) {
+    @Cacheable(value = "responses_list", key = "{#page, #size, #keyword, #status, #requestId, #responderId, #countMode}")
+    public PagedResult<ResponseDto> getAll(int page, int size, Integer status, UUID requestId, UUID responderId,
+                                           PagedResult.CountMode countMode) {
         Pageable pageable = PageRequest.of(page - 1, size);
-        Page<Response> pageResult;
 
-        pageResult = repository.search(status, requestId, responderId, pageable);
-
-        return new PagedResult<>(pageResult.map(ResponseMapper::toDto));
+        if (countMode != PagedResult.CountMode.ESTIMATE) {
+            Page<Response> pageResult = repository.search(status, requestId, responderId, pageable);
+            return new PagedResult<>(pageResult.map(ResponseMapper::toDto));
+        }
 
+        Slice<Response> sliceResult = repository.searchSlice(status, requestId, responderId, pageable);
+        boolean filtered = status != null || requestId != null || responderId != null;
+        long estimate = filtered ? 0 : tableStatsService.estimateRowCount("response").orElse(0);
+        return new PagedResult<>(sliceResult.map(ResponseMapper::toDto), estimate);
     }
 
     @Override
@@ -0,0 +1,142 @@
+package com.alpha_code.alpha_code_user_service.service.impl;
+
+import com.alpha_code.alpha_code_user_service.dto.RoleDto;
+import com.alpha_code.alpha_code_user_service.entity.Role;
+import com.alpha_code.alpha_code_user_service.exception.ResourceNotFoundException;
+import com.alpha_code.alpha_code_user_service.mapper.RoleMapper;
+import com.alpha_code.alpha_code_user_service.repository.RoleRepository;
+import com.alpha_code.alpha_code_user_service.service.RoleRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoleRegistryImpl implements RoleRegistry, MessageListener {
+
+    public static final String REFRESH_CHANNEL = "roles:refresh";
+
+    private final RoleRepository roleRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    // Snapshot bất biến, thay thế nguyên khối mỗi lần reload
+    private record Snapshot(Map<UUID, RoleDto> byId, Map<String, RoleDto> byName) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of());
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+        listenerContainer.addMessageListener(this, new ChannelTopic(REFRESH_CHANNEL));
+    }
+
+    @Override
+    public Optional<RoleDto> findById(UUID id) {
+        if (id == null) return Optional.empty();
+        return Optional.ofNullable(snapshot.get().byId().get(id));
+    }
+
+    @Override
+    public RoleDto getById(UUID id) {
+        return findById(id).orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy role"));
+    }
+
+    @Override
+    public Optional<RoleDto> findByName(String name) {
+        if (name == null) return Optional.empty();
+        return Optional.ofNullable(snapshot.get().byName().get(name.toLowerCase(Locale.ROOT)));
+    }
+
+    @Override
+    public UUID getIdByName(String name) {
+        return findByName(name)
+                .map(RoleDto::getId)
+                .orElseThrow(() -> new ResourceNotFoundException("Role not found: " + name));
+    }
+
+    @Override
+    public Collection<RoleDto> getAll() {
+        return snapshot.get().byId().values();
+    }
+
+    @Override
+    public void reload() {
+        List<Role> roles = roleRepository.findAll();
+
+        Map<UUID, RoleDto> byId = new HashMap<>();
+        Map<String, RoleDto> byName = new HashMap<>();
+        // Role đang hoạt động được ưu tiên khi trùng tên (không phân biệt hoa thường)
+        roles.stream()
+                .sorted(Comparator.comparing((Role r) -> !Integer.valueOf(1).equals(r.getStatus())))
+                .forEach(role -> {
+                    RoleDto dto = RoleMapper.toDto(role);
+                    byId.put(dto.getId(), dto);
+                    if (dto.getName() != null) {
+                        byName.putIfAbsent(dto.getName().toLowerCase(Locale.ROOT), dto);
+                    }
+                });
+
+        snapshot.set(new Snapshot(Map.copyOf(byId), Map.copyOf(byName)));
+        log.info("Role registry loaded {} role(s)", byId.size());
+    }
+
+    @Override
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshAndBroadcast();
+                }
+            });
+        } else {
+            refreshAndBroadcast();
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String sender = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (instanceId.equals(sender)) {
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("Failed to reload role registry after refresh message", e);
+        }
+    }
+
+    private void refreshAndBroadcast() {
+        reload();
+        try {
+            redisTemplate.convertAndSend(REFRESH_CHANNEL, instanceId);
+        } catch (Exception e) {
+            log.error("Failed to publish role registry refresh", e);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.alpha_code.alpha_code_user_service.entity.Role;
 import com.alpha_code.alpha_code_user_service.exception.ResourceNotFoundException;
 import com.alpha_code.alpha_code_user_service.mapper.RoleMapper;
 import com.alpha_code.alpha_code_user_service.repository.RoleRepository;
+import com.alpha_code.alpha_code_user_service.service.RoleRegistry;
 import com.alpha_code.alpha_code_user_service.service.RoleService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
@@ -24,6 +25,7 @@ import java.util.UUID;
 public class RoleServiceImpl implements RoleService {
 
     private final RoleRepository repository;
+    private final RoleRegistry roleRegistry;
 
     @Override
     @Cacheable(value = "roles_list", key = "{#page, #size, #status}")
@@ -60,6 +62,7 @@ public class RoleServiceImpl implements RoleService {
         role.setStatus(1);
 
         var savedRole = repository.save(role);
+        roleRegistry.refreshAfterCommit();
         return RoleMapper.toDto(savedRole);
     }
 
@@ -79,6 +82,7 @@ public class RoleServiceImpl implements RoleService {
         existingRole.setName(roleDto.getName());
 
         var updatedRole = repository.save(existingRole);
+        roleRegistry.refreshAfterCommit();
         return RoleMapper.toDto(updatedRole);
     }
 
@@ -99,6 +103,7 @@ public class RoleServiceImpl implements RoleService {
             existingRole.setName(roleDto.getName());
 
         var updatedRole = repository.save(existingRole);
+        roleRegistry.refreshAfterCommit();
         return RoleMapper.toDto(updatedRole);
     }
 
@@ -117,6 +122,7 @@ public class RoleServiceImpl implements RoleService {
 //        repository.delete(role);
             role.setStatus(0);
             repository.save(role);
+            roleRegistry.refreshAfterCommit();
             return "Role deleted successfully with ID: " + id;
         } catch (Exception e) {
             throw new RuntimeException("Error deleting role", e);
@@ -135,6 +141,7 @@ public class RoleServiceImpl implements RoleService {
         entity.setStatus(status);
 
         Role updated = repository.save(entity);
+        roleRegistry.refreshAfterCommit();
         return RoleMapper.toDto(updated);
     }
 }
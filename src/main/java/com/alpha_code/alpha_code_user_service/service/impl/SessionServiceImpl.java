@@ -0,0 +1,231 @@
+package com.alpha_code.alpha_code_user_service.service.impl;
+
+import com.alpha_code.alpha_code_user_service.dto.SessionDto;
+import com.alpha_code.alpha_code_user_service.service.SessionService;
+import com.alpha_code.alpha_code_user_service.service.TokenRevocationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Refresh-token sessions, one Redis hash per account ({@code sessions:<accountId>}) with one field per
+ * session id holding {@code fingerprint|createdAt|lastUsedAt|device}. Only the SHA-256 fingerprint of
+ * the refresh token is stored. A session expires when it has not been refreshed for the refresh-token
+ * lifetime; create and rotate run as Lua scripts so pruning, the per-account cap and the
+ * compare-and-swap happen atomically. Revoking a session also revokes its session id so access tokens
+ * already issued for it stop working immediately.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SessionServiceImpl implements SessionService {
+
+    public static final String KEY_PREFIX = "sessions:";
+    private static final int MAX_DEVICE_LENGTH = 64;
+
+    // Xoá session hết hạn, evict session cũ nhất (theo createdAt) nếu vượt cap, rồi thêm session mới
+    private static final RedisScript<List> CREATE_SCRIPT = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[3])
+            local maxIdle = tonumber(ARGV[4])
+            local entries = redis.call('HGETALL', KEYS[1])
+            local live = {}
+            for i = 1, #entries, 2 do
+                local created, lastUsed = string.match(entries[i + 1], '^[^|]*|(%d+)|(%d+)|')
+                if not lastUsed or now - tonumber(lastUsed) > maxIdle then
+                    redis.call('HDEL', KEYS[1], entries[i])
+                elseif entries[i] ~= ARGV[1] then
+                    table.insert(live, { entries[i], tonumber(created) })
+                end
+            end
+            table.sort(live, function(a, b) return a[2] < b[2] end)
+            local evicted = {}
+            for i = 1, #live + 1 - tonumber(ARGV[5]) do
+                redis.call('HDEL', KEYS[1], live[i][1])
+                table.insert(evicted, live[i][1])
+            end
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[6])
+            return evicted
+            """, List.class);
+
+    // CAS: 1 = rotated, 2 = fingerprint khác (token cũ bị dùng lại), 0 = không có / hết hạn
+    private static final RedisScript<Long> ROTATE_SCRIPT = new DefaultRedisScript<>("""
+            local value = redis.call('HGET', KEYS[1], ARGV[1])
+            if not value then
+                return 0
+            end
+            local fp, created, lastUsed, device = string.match(value, '^([^|]*)|(%d+)|(%d+)|(.*)$')
+            if not lastUsed or tonumber(ARGV[4]) - tonumber(lastUsed) > tonumber(ARGV[5]) then
+                redis.call('HDEL', KEYS[1], ARGV[1])
+                return 0
+            end
+            if fp ~= ARGV[2] then
+                return 2
+            end
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[3] .. '|' .. created .. '|' .. ARGV[4] .. '|' .. device)
+            redis.call('PEXPIRE', KEYS[1], ARGV[5])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final TokenRevocationService tokenRevocationService;
+
+    @Value("${jwt.refresh-expiration-ms}")
+    private long refreshTokenExpirationMs;
+
+    @Value("${session.max-per-account:5}")
+    private int maxSessionsPerAccount;
+
+    private record StoredSession(String fingerprint, long createdAt, long lastUsedAt, String device) {
+        static StoredSession parse(String value) {
+            String[] parts = value.split("\\|", 4);
+            if (parts.length != 4) {
+                return null;
+            }
+            return new StoredSession(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[3]);
+        }
+    }
+
+    @Override
+    public String newSessionId() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Override
+    public void create(UUID accountId, String sessionId, String refreshToken, String device) {
+        long now = System.currentTimeMillis();
+        String value = fingerprint(refreshToken) + "|" + now + "|" + now + "|" + resolveDevice(device);
+        List<?> evicted = redisTemplate.execute(CREATE_SCRIPT, List.of(KEY_PREFIX + accountId),
+                sessionId, value, String.valueOf(now), String.valueOf(refreshTokenExpirationMs),
+                String.valueOf(maxSessionsPerAccount), String.valueOf(refreshTokenExpirationMs));
+        if (evicted != null && !evicted.isEmpty()) {
+            log.info("Session cap reached for account {}, evicted {}", accountId, evicted);
+            evicted.forEach(evictedId -> revokeTokens(evictedId.toString()));
+        }
+    }
+
+    @Override
+    public RotationResult rotate(UUID accountId, String sessionId, String presentedToken, String newToken) {
+        Long result = redisTemplate.execute(ROTATE_SCRIPT, List.of(KEY_PREFIX + accountId),
+                sessionId, fingerprint(presentedToken), fingerprint(newToken),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(refreshTokenExpirationMs));
+        if (result == null || result == 0) {
+            return RotationResult.NOT_FOUND;
+        }
+        return result == 1 ? RotationResult.ROTATED : RotationResult.REUSE_DETECTED;
+    }
+
+    @Override
+    public boolean validate(UUID accountId, String sessionId, String refreshToken) {
+        Object value = redisTemplate.opsForHash().get(KEY_PREFIX + accountId, sessionId);
+        StoredSession session = value == null ? null : StoredSession.parse(value.toString());
+        return session != null && isLive(session, System.currentTimeMillis())
+                && MessageDigest.isEqual(session.fingerprint().getBytes(StandardCharsets.US_ASCII),
+                fingerprint(refreshToken).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public List<SessionDto> list(UUID accountId, String currentSessionId) {
+        long now = System.currentTimeMillis();
+        List<SessionDto> sessions = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : redisTemplate.opsForHash().entries(KEY_PREFIX + accountId).entrySet()) {
+            StoredSession session = StoredSession.parse(entry.getValue().toString());
+            if (session == null || !isLive(session, now)) {
+                continue;
+            }
+            String sessionId = entry.getKey().toString();
+            sessions.add(SessionDto.builder()
+                    .sessionId(sessionId)
+                    .device(session.device())
+                    .createdDate(toLocalDateTime(session.createdAt()))
+                    .lastUsedDate(toLocalDateTime(session.lastUsedAt()))
+                    .current(sessionId.equals(currentSessionId))
+                    .build());
+        }
+        sessions.sort(Comparator.comparing(SessionDto::getLastUsedDate).reversed());
+        return sessions;
+    }
+
+    @Override
+    public boolean revoke(UUID accountId, String sessionId) {
+        Long removed = redisTemplate.opsForHash().delete(KEY_PREFIX + accountId, sessionId);
+        if (removed == null || removed == 0) {
+            return false;
+        }
+        revokeTokens(sessionId);
+        return true;
+    }
+
+    @Override
+    public void revokeOthers(UUID accountId, String keepSessionId) {
+        Object[] others = redisTemplate.opsForHash().keys(KEY_PREFIX + accountId).stream()
+                .filter(sessionId -> !sessionId.equals(keepSessionId))
+                .toArray();
+        if (others.length > 0) {
+            redisTemplate.opsForHash().delete(KEY_PREFIX + accountId, others);
+            for (Object sessionId : others) {
+                revokeTokens(sessionId.toString());
+            }
+        }
+    }
+
+    @Override
+    public void revokeAll(UUID accountId) {
+        redisTemplate.delete(KEY_PREFIX + accountId);
+        tokenRevocationService.revokeAccount(accountId);
+    }
+
+    private void revokeTokens(String sessionId) {
+        tokenRevocationService.revokeTokenId(sessionId, System.currentTimeMillis() + refreshTokenExpirationMs);
+    }
+
+    private boolean isLive(StoredSession session, long now) {
+        return now - session.lastUsedAt() <= refreshTokenExpirationMs;
+    }
+
+    // Label do client gửi, không có thì lấy User-Agent của request hiện tại
+    private static String resolveDevice(String device) {
+        String label = device;
+        if ((label == null || label.isBlank())
+                && RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            label = attributes.getRequest().getHeader("User-Agent");
+        }
+        if (label == null || label.isBlank()) {
+            return "unknown";
+        }
+        label = label.trim();
+        return label.length() > MAX_DEVICE_LENGTH ? label.substring(0, MAX_DEVICE_LENGTH) : label;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static String fingerprint(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.alpha_code.alpha_code_user_service.service.impl;
+
+import com.alpha_code.alpha_code_user_service.repository.AccountSignupDailyRepository;
+import com.alpha_code.alpha_code_user_service.service.DashboardService;
+import com.alpha_code.alpha_code_user_service.service.SignupRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Writes to the {@code account_signup_daily} rollup. Increments run through plain JDBC on the
+ * connection of the surrounding JPA transaction (they are called while Hibernate flushes the
+ * account), so the rollup commits or rolls back together with the account row.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SignupRollupServiceImpl implements SignupRollupService {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO account_signup_daily (signup_date, role_id, signups) VALUES (?, ?, ?)
+            ON CONFLICT (signup_date, role_id) DO UPDATE SET signups = account_signup_daily.signups + EXCLUDED.signups
+            """;
+
+    private final AccountSignupDailyRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DashboardService dashboardService;
+
+    @Override
+    public void recordSignup(LocalDateTime createdDate, UUID roleId) {
+        add(createdDate, roleId, 1);
+    }
+
+    @Override
+    public void recordRoleChange(LocalDateTime createdDate, UUID fromRoleId, UUID toRoleId) {
+        if (fromRoleId == null || toRoleId == null || Objects.equals(fromRoleId, toRoleId)) {
+            return;
+        }
+        add(createdDate, fromRoleId, -1);
+        add(createdDate, toRoleId, 1);
+        evictAfterCommit(createdDate, List.of(fromRoleId, toRoleId));
+    }
+
+    @Override
+    public void recordRemoval(LocalDateTime createdDate, UUID roleId) {
+        if (roleId == null) {
+            return;
+        }
+        add(createdDate, roleId, -1);
+        evictAfterCommit(createdDate, List.of(roleId));
+    }
+
+    @Override
+    public int rebuild() {
+        Integer rows = transactionTemplate.execute(status -> {
+            repository.lockForRebuild();
+            repository.deleteAllRows();
+            return repository.insertFromAccounts();
+        });
+        dashboardService.clearSignupTimeSeries();
+        log.info("Signup rollup rebuilt with {} row(s)", rows);
+        return rows != null ? rows : 0;
+    }
+
+    // Lần đầu deploy bảng rollup còn trống
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (repository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    // Chạy lại hằng đêm để sửa lệch nếu có ghi account bỏ qua JPA
+    @Scheduled(cron = "${dashboard.signup-rollup.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Failed to rebuild signup rollup", e);
+        }
+    }
+
+    // Số liệu của bucket quá khứ (đã cache) thay đổi -> xoá cache sau khi commit
+    private void evictAfterCommit(LocalDateTime createdDate, List<UUID> roleIds) {
+        if (createdDate == null || !createdDate.toLocalDate().isBefore(LocalDate.now())) {
+            return;
+        }
+        LocalDate day = createdDate.toLocalDate();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dashboardService.evictSignupTimeSeries(day, roleIds);
+                }
+            });
+        } else {
+            dashboardService.evictSignupTimeSeries(day, roleIds);
+        }
+    }
+
+    private void add(LocalDateTime createdDate, UUID roleId, long delta) {
+        if (createdDate == null || roleId == null) {
+            return;
+        }
+        jdbcTemplate.update(UPSERT_SQL, Date.valueOf(createdDate.toLocalDate()), roleId, delta);
+    }
+}
@@ -0,0 +1,37 @@
+package com.alpha_code.alpha_code_user_service.service.impl;
+
+import com.alpha_code.alpha_code_user_service.service.TableStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TableStatsServiceImpl implements TableStatsService {
+
+    private static final String ESTIMATE_SQL =
+            "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = to_regclass(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public OptionalLong estimateRowCount(String table) {
+        try {
+            List<Long> rows = jdbcTemplate.queryForList(ESTIMATE_SQL, Long.class, table);
+            // reltuples = -1 khi bảng chưa từng được ANALYZE
+            if (rows.isEmpty() || rows.get(0) == null || rows.get(0) < 0) {
+                return OptionalLong.empty();
+            }
+            return OptionalLong.of(rows.get(0));
+        } catch (DataAccessException e) {
+            log.debug("No planner estimate for {}: {}", table, e.getMessage());
+            return OptionalLong.empty();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.alpha_code.alpha_code_user_service.service.impl;
+
+import com.alpha_code.alpha_code_user_service.service.TokenRevocationService;
+import com.alpha_code.alpha_code_user_service.util.BloomFilter;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Revoked token ids ({@code jti} or session id) and per-account "not before" timestamps, stored in
+ * two Redis sorted sets and mirrored in memory on every instance.
+ * <p>
+ * {@link #isRevoked} runs on each authenticated request: a Bloom filter answers "never revoked"
+ * without any I/O, a hit is confirmed against the exact local maps and only falls back to Redis when
+ * the local maps disagree (a false positive). Revocations reach other instances over
+ * {@link #CHANNEL}; the filter is rebuilt from Redis periodically to drop expired entries.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationServiceImpl implements TokenRevocationService, MessageListener {
+
+    // member = token id, score = thời điểm hết hiệu lực của việc thu hồi (ms)
+    public static final String REVOKED_IDS_KEY = "jwt:revoked:ids";
+    // member = accountId, score = not-before (ms)
+    public static final String REVOKED_ACCOUNTS_KEY = "jwt:revoked:accounts";
+    public static final String CHANNEL = "jwt:revoked";
+
+    private static final String ID_PREFIX = "id:";
+    private static final String ACCOUNT_PREFIX = "acc:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    // Refresh token cũng có thể được gửi kèm Bearer nên giữ entry theo thời hạn dài nhất
+    @Value("${jwt.refresh-expiration-ms}")
+    private long retentionMs;
+
+    @Value("${jwt.revocation.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    @Value("${jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    private volatile Snapshot snapshot;
+    // Snapshot đang được dựng lại; message đến trong lúc rebuild được ghi vào cả hai
+    private volatile Snapshot rebuilding;
+    private volatile long lastRebuildAt;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder bloomHits = new LongAdder();
+    private final LongAdder redisLookups = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private record Snapshot(BloomFilter filter, Map<String, Long> ids, Map<String, Long> accounts) {
+        void addId(String id, long untilMs) {
+            ids.merge(id, untilMs, Math::max);
+            filter.put(ID_PREFIX + id);
+        }
+
+        void addAccount(String accountId, long notBeforeMs) {
+            accounts.merge(accountId, notBeforeMs, Math::max);
+            filter.put(ACCOUNT_PREFIX + accountId);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        snapshot = newSnapshot();
+        // Subscribe trước khi load để không lỡ revocation xảy ra trong lúc load
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval-ms:600000}",
+            initialDelayString = "${jwt.revocation.rebuild-interval-ms:600000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Failed to rebuild token revocation filter, keeping the current one", e);
+        }
+    }
+
+    void rebuild() {
+        long now = System.currentTimeMillis();
+        Snapshot next = newSnapshot();
+        rebuilding = next;
+        try {
+            redisTemplate.opsForZSet().removeRangeByScore(REVOKED_IDS_KEY, Double.NEGATIVE_INFINITY, now);
+            redisTemplate.opsForZSet().removeRangeByScore(REVOKED_ACCOUNTS_KEY, Double.NEGATIVE_INFINITY, now - retentionMs);
+            load(REVOKED_IDS_KEY, next::addId);
+            load(REVOKED_ACCOUNTS_KEY, next::addAccount);
+            snapshot = next;
+            lastRebuildAt = now;
+        } finally {
+            rebuilding = null;
+        }
+        log.debug("Token revocation filter rebuilt with {} id(s) and {} account(s)",
+                next.ids().size(), next.accounts().size());
+    }
+
+    @Override
+    public void revokeTokenId(String tokenId, long untilMs) {
+        if (tokenId == null || untilMs <= System.currentTimeMillis()) {
+            return;
+        }
+        redisTemplate.opsForZSet().add(REVOKED_IDS_KEY, tokenId, untilMs);
+        apply(ID_PREFIX, tokenId, untilMs);
+        publish(ID_PREFIX + tokenId + "|" + untilMs);
+    }
+
+    @Override
+    public void revokeAccount(UUID accountId) {
+        long now = System.currentTimeMillis();
+        String id = accountId.toString();
+        redisTemplate.opsForZSet().add(REVOKED_ACCOUNTS_KEY, id, now);
+        apply(ACCOUNT_PREFIX, id, now);
+        publish(ACCOUNT_PREFIX + id + "|" + now);
+    }
+
+    @Override
+    public boolean isRevoked(Claims claims) {
+        checks.increment();
+        Snapshot current = snapshot;
+        long now = System.currentTimeMillis();
+        boolean revoked = isRevokedId(current, claims.getId(), now)
+                || isRevokedId(current, claims.get("sid", String.class), now)
+                || issuedBeforeNotBefore(current, claims);
+        if (revoked) {
+            rejected.increment();
+        }
+        return revoked;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf('|');
+        try {
+            String prefix = body.startsWith(ID_PREFIX) ? ID_PREFIX : ACCOUNT_PREFIX;
+            if (separator < 0 || !body.startsWith(prefix)) {
+                return;
+            }
+            apply(prefix, body.substring(prefix.length(), separator), Long.parseLong(body.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed token revocation message: {}", body);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("checks", checks.sum());
+        stats.put("bloomHits", bloomHits.sum());
+        stats.put("redisLookups", redisLookups.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("revokedIds", current.ids().size());
+        stats.put("revokedAccounts", current.accounts().size());
+        stats.put("bloomBits", current.filter().bitSize());
+        stats.put("lastRebuildAt", lastRebuildAt);
+        return stats;
+    }
+
+    private boolean isRevokedId(Snapshot current, String id, long now) {
+        if (id == null || !current.filter().mightContain(ID_PREFIX + id)) {
+            return false;
+        }
+        bloomHits.increment();
+        Long untilMs = current.ids().get(id);
+        if (untilMs == null) {
+            untilMs = lookup(REVOKED_IDS_KEY, id);
+            if (untilMs != null) {
+                current.ids().merge(id, untilMs, Math::max);
+            }
+        }
+        return untilMs != null && untilMs > now;
+    }
+
+    private boolean issuedBeforeNotBefore(Snapshot current, Claims claims) {
+        String accountId = claims.get("id", String.class);
+        Date issuedAt = claims.getIssuedAt();
+        if (accountId == null || issuedAt == null || !current.filter().mightContain(ACCOUNT_PREFIX + accountId)) {
+            return false;
+        }
+        bloomHits.increment();
+        Long notBeforeMs = current.accounts().get(accountId);
+        if (notBeforeMs == null) {
+            notBeforeMs = lookup(REVOKED_ACCOUNTS_KEY, accountId);
+            if (notBeforeMs != null) {
+                current.accounts().merge(accountId, notBeforeMs, Math::max);
+            }
+        }
+        // iat chỉ có độ chính xác giây: token cấp cùng giây sau thời điểm thu hồi cũng bị từ chối
+        return notBeforeMs != null && issuedAt.getTime() < notBeforeMs;
+    }
+
+    // Chỉ gặp khi Bloom filter báo "có" mà map local không có (false positive)
+    private Long lookup(String key, String member) {
+        redisLookups.increment();
+        try {
+            Double score = redisTemplate.opsForZSet().score(key, member);
+            return score == null ? null : score.longValue();
+        } catch (Exception e) {
+            log.warn("Token revocation lookup failed, trusting the local state: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void apply(String prefix, String id, long value) {
+        for (Snapshot target : new Snapshot[]{snapshot, rebuilding}) {
+            if (target == null) {
+                continue;
+            }
+            if (ID_PREFIX.equals(prefix)) {
+                target.addId(id, value);
+            } else {
+                target.addAccount(id, value);
+            }
+        }
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, message);
+        } catch (Exception e) {
+            log.error("Failed to publish token revocation", e);
+        }
+    }
+
+    private void load(String key, BiConsumer<String, Long> consumer) {
+        Set<TypedTuple<String>> entries = redisTemplate.opsForZSet().rangeWithScores(key, 0, -1);
+        if (entries == null) {
+            return;
+        }
+        for (TypedTuple<String> entry : entries) {
+            if (entry.getValue() != null && entry.getScore() != null) {
+                consumer.accept(entry.getValue(), entry.getScore().longValue());
+            }
+        }
+    }
+
+    private Snapshot newSnapshot() {
+        return new Snapshot(new BloomFilter(expectedInsertions, falsePositiveRate),
+                new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+}
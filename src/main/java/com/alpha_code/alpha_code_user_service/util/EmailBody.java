@@ -1,120 +1,96 @@
 package com.alpha_code.alpha_code_user_service.util;
 
+import jakarta.activation.DataHandler;
+import jakarta.activation.DataSource;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Part;
+import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.internet.PreencodedMimeBodyPart;
+import jakarta.mail.util.ByteArrayDataSource;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
 @Component
 public class EmailBody {
 
+    public static final String LOGO_CONTENT_ID = "alphacode-logo";
+
+    // Template được parse một lần khi class được load (bean khởi tạo lúc startup)
+    private static final EmailTemplate RESET_PASSWORD = EmailTemplate.load("mail-templates/reset-password.html");
+    private static final EmailTemplate PAYMENT_SUCCESS = EmailTemplate.load("mail-templates/payment-success.html");
+    private static final EmailTemplate COURSE_COMPLETED = EmailTemplate.load("mail-templates/course-completed.html");
+
+    // Logo đọc và base64 sẵn một lần; DataSource trả stream mới mỗi lần nên dùng chung được cho mọi message
+    private static final DataSource ENCODED_LOGO = loadEncodedLogo();
+
     @Value("${web-base-url}")
     private String websiteUrl;
 
     public static String getResetPasswordEmailBody(String fullName, String resetLink) {
-        return """
-                <html>
-                <body style="font-family: Arial, sans-serif; background-color: #f5f7fa; margin: 0; padding: 0;">
-                    <table align="center" width="100%" cellpadding="0" cellspacing="0"
-                           style="max-width: 600px; margin: auto; background: #ffffff; border-radius: 12px;
-                                  overflow: hidden; box-shadow: 0 4px 12px rgba(0,0,0,0.1);">
-                        <tr style="background-color: #2b2d42;">
-                            <td align="center" style="padding: 24px;">
-                                <img src="cid:alphacode-logo" alt="alphaCode Logo" width="80" 
-                                     style="display:block; margin-bottom: 12px;" />
-                                <h1 style="color: #ffffff; font-size: 20px; margin: 0;">AlphaCode</h1>
-                                <p style="color: #dce0e6; font-size: 14px; margin: 4px 0 0;">
-                                    Nền tảng quản lý robot Alpha Mini
-                                </p>
-                            </td>
-                        </tr>
-                        <tr>
-                            <td style="padding: 32px;">
-                                <h2 style="color: #2b2d42; font-size: 22px; margin: 0 0 16px;">Đặt lại mật khẩu</h2>
-                                <p style="color: #444; font-size: 15px; line-height: 1.6; margin: 0 0 24px;">
-                                    Xin chào <b>{fullName}</b>,<br><br>
-                                    Chúng tôi nhận được yêu cầu đặt lại mật khẩu cho tài khoản của bạn. 
-                                    Vui lòng nhấn vào nút bên dưới để tiếp tục:
-                                </p>
-                                <div style="text-align: center; margin: 24px 0;">
-                                    <a href="{resetLink}" 
-                                       style="background-color: #ef233c; color: #ffffff; text-decoration: none; 
-                                              padding: 12px 24px; border-radius: 8px; font-size: 16px; 
-                                              font-weight: bold; display: inline-block;">
-                                        Đặt lại mật khẩu
-                                    </a>
-                                </div>
-                                <p style="color: #777; font-size: 14px; line-height: 1.6; margin: 0;">
-                                    Nếu bạn không yêu cầu thay đổi này, vui lòng bỏ qua email này.<br>
-                                    Vì lý do bảo mật, đường dẫn sẽ hết hạn sau một khoảng thời gian.
-                                </p>
-                            </td>
-                        </tr>
-                        <tr style="background-color: #f5f7fa;">
-                            <td align="center" style="padding: 16px; font-size: 12px; color: #999;">
-                                © 2025 alphaCode. All rights reserved.<br>
-                                Nền tảng quản lý robot thông minh Alpha Mini.
-                            </td>
-                        </tr>
-                    </table>
-                </body>
-                </html>
-                """
-                .replace("{fullName}", fullName)
-                .replace("{resetLink}", resetLink);
+        return RESET_PASSWORD.render(values(
+                "fullName", fullName,
+                "resetLink", resetLink));
     }
 
     public static String getPaymentSuccessEmailBody(String fullName, String serviceName, Long orderCode, Integer price) {
-        return String.format("""
-                <html>
-                <body style="font-family: Arial, sans-serif; color: #333;">
-                    <div style="max-width: 600px; margin: auto; border: 1px solid #ddd; border-radius: 8px; padding: 20px;">
-                        <div style="text-align: center;">
-                            <img src="cid:alphacode-logo" alt="AlphaCode Logo" style="width: 120px;"/>
-                            <h2 style="color: #2a7ae2;">Cảm ơn %s đã thanh toán thành công!</h2>
-                        </div>
-                        <p>Xin chào <b>%s</b>,</p>
-                        <p>Bạn vừa mua gói dịch vụ <b>%s</b> với thông tin như sau:</p>
-                        <ul>
-                            <li><b>Mã đơn hàng:</b> #%d</li>
-                            <li><b>Giá trị:</b> %,d VND</li>
-                        </ul>
-                        <p>Cảm ơn bạn đã tin tưởng sử dụng dịch vụ của <b>AlphaCode</b></p>
-                        <p>Nếu có bất kỳ thắc mắc nào, vui lòng liên hệ với chúng tôi qua email: <a href="mailto:alphacodeedu@gmail.com">alphacodeedu@gmail.com</a>.</p>
-                        <br>
-                        <p style="font-size: 12px; color: #777;">Trân trọng,<br>Đội ngũ AlphaCode</p>
-                    </div>
-                </body>
-                </html>
-                """, fullName, fullName, serviceName, orderCode, price);
+        return PAYMENT_SUCCESS.render(values(
+                "fullName", fullName,
+                "serviceName", serviceName,
+                "orderCode", orderCode,
+                "price", String.format("%,d", price)));
     }
 
     public String getCourseCompletedEmailBody(String fullName, String courseName, String courseId, String accountId) {
-        String certificateLink = String.format("%s/certificate?accountId=%s&courseId=%s", websiteUrl, accountId, courseId);
+        String certificateLink = websiteUrl + "/certificate?accountId=" + accountId + "&courseId=" + courseId;
 
-        return String.format("""
-            <html>
-            <body style="font-family: Arial, sans-serif; color: #333; background-color: #f5f7fa; margin: 0; padding: 0;">
-                <div style="max-width: 600px; margin: 40px auto; background: #fff; border-radius: 12px; padding: 24px; box-shadow: 0 4px 12px rgba(0,0,0,0.1);">
-                    <div style="text-align: center;">
-                        <img src="cid:alphacode-logo" alt="AlphaCode Logo" style="width: 120px;"/>
-                        <h2 style="color: #2a7ae2;">🎉 Chúc mừng %s đã hoàn thành khóa học!</h2>
-                    </div>
-                    <p>Xin chào <b>%s</b>,</p>
-                    <p>Bạn vừa hoàn thành khóa học <b>%s</b> (Mã: <b>%s</b>).</p>
-                    <p>Chứng chỉ của bạn đã sẵn sàng! Nhấn vào nút bên dưới để xem và tải chứng chỉ của bạn:</p>
+        return COURSE_COMPLETED.render(values(
+                "fullName", fullName,
+                "courseName", courseName,
+                "courseId", courseId,
+                "certificateLink", certificateLink));
+    }
+
+    /**
+     * Attaches the logo referenced by {@code cid:alphacode-logo} in every template. The part wraps
+     * bytes that are already base64-encoded, so messages neither re-read nor re-encode the image.
+     */
+    public static void addInlineLogo(MimeMessageHelper helper) throws MessagingException {
+        if (ENCODED_LOGO == null) {
+            return;
+        }
+        MimeBodyPart part = new PreencodedMimeBodyPart("base64");
+        part.setDataHandler(new DataHandler(ENCODED_LOGO));
+        part.setDisposition(Part.INLINE);
+        part.setHeader("Content-ID", "<" + LOGO_CONTENT_ID + ">");
+        helper.getMimeMultipart().addBodyPart(part);
+    }
 
-                    <div style="text-align: center; margin: 30px 0;">
-                        <a href="%s" target="_blank" rel="noopener noreferrer"
-                           style="background-color: #2a7ae2; color: #fff; text-decoration: none;
-                                  padding: 14px 28px; border-radius: 8px; font-size: 16px; font-weight: bold; display: inline-block;">
-                            Xem chứng chỉ
-                        </a>
-                    </div>
+    private static Map<String, Object> values(Object... namesAndValues) {
+        Map<String, Object> values = new HashMap<>(namesAndValues.length);
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            values.put((String) namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return values;
+    }
 
-                    <p style="color: #777; font-size: 14px;">Cảm ơn bạn đã học cùng <b>AlphaCode</b> 💙</p>
-                    <p style="font-size: 12px; color: #aaa; text-align: center;">© 2025 AlphaCode. All rights reserved.</p>
-                </div>
-            </body>
-            </html>
-           """, fullName, fullName, courseName, courseId, certificateLink);
+    private static DataSource loadEncodedLogo() {
+        ClassPathResource logoImage = new ClassPathResource("images/alphacode-logo.png");
+        if (!logoImage.exists()) {
+            return null;
+        }
+        try (InputStream in = logoImage.getInputStream()) {
+            // MIME encoder: dòng 76 ký tự + CRLF, đúng định dạng base64 của mail
+            return new ByteArrayDataSource(Base64.getMimeEncoder().encode(in.readAllBytes()), "image/png");
+        } catch (IOException e) {
+            return null;
+        }
     }
 }
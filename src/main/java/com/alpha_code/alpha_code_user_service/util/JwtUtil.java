@@ -1,25 +1,44 @@
 package com.alpha_code.alpha_code_user_service.util;
 
 import com.alpha_code.alpha_code_user_service.entity.Account;
-import com.alpha_code.alpha_code_user_service.service.RoleService;
+import com.alpha_code.alpha_code_user_service.service.JwtKeyService;
+import com.alpha_code.alpha_code_user_service.service.RoleRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
-    private final RoleService roleService;
+    private final RoleRegistry roleRegistry;
+    private final JwtKeyService jwtKeyService;
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -32,57 +51,152 @@ public class JwtUtil {
     @Value("${jwt.reset-password-expiration-ms}")
     private int resetPasswordTokenExpirationMs;
 
-    public JwtUtil(RoleService roleService) {
-        this.roleService = roleService;
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    // Chỉ bật tạm khi vừa chuyển sang ES256, tối đa một vòng đời refresh token, để token HS512 cũ (không có kid)
+    // còn dùng được; mặc định tắt để secret HS512 dùng chung không còn là đường ký hợp lệ
+    @Value("${jwt.legacy-hs512.enabled:false}")
+    private boolean legacyHs512Enabled;
+
+    private SecretKey legacyKey;
+    private JwtParser jwtParser;
+
+    // Token đã verify chữ ký -> claims, key là SHA-256 của token, hết hạn đúng theo exp của token
+    private Cache<String, Claims> verifiedTokens;
+
+    public JwtUtil(RoleRegistry roleRegistry, JwtKeyService jwtKeyService) {
+        this.roleRegistry = roleRegistry;
+        this.jwtKeyService = jwtKeyService;
+    }
+
+    @PostConstruct
+    void init() {
+        legacyKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String kid = header.getKeyId();
+                        if (kid == null) {
+                            if (legacyHs512Enabled) return legacyKey;
+                            throw new JwtException("JWT has no key id");
+                        }
+                        return jwtKeyService.findVerificationKey(kid)
+                                .orElseThrow(() -> new JwtException("Unknown JWT key id: " + kid));
+                    }
+                })
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        if (expiration == null) {
+                            return 0;
+                        }
+                        long remainingMs = expiration.getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
     }
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    private String sign(JwtBuilder builder) {
+        JwtKeyService.SigningKey key = jwtKeyService.getActiveSigningKey();
+        return builder
+                .header().keyId(key.kid()).and()
+                .signWith(key.privateKey(), Jwts.SIG.ES256)
+                .compact();
     }
 
-    public String generateAccessToken(Account account) {
-        var role = roleService.getById(account.getRoleId());
-        return Jwts.builder()
+    public String generateAccessToken(Account account, String sessionId) {
+        var role = roleRegistry.getById(account.getRoleId());
+        return sign(Jwts.builder()
                 .claims(Map.of(
                         "id", account.getId(),
                         "fullName", account.getFullName(),
                         "username", account.getUsername(),
                         "email", account.getEmail(),
                         "roleId", account.getRoleId(),
-                        "roleName", role.getName()
+                        "roleName", role.getName(),
+                        "sid", sessionId
                 ))
+                .id(UUID.randomUUID().toString())
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSigningKey(), Jwts.SIG.HS512)
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + jwtExpirationMs)));
     }
 
     public Integer getRefreshTokenExpirationMs() {
         return refreshTokenExpirationMs;
     }
 
-    public String generateRefreshToken(Account account) {
-        return Jwts.builder()
+    public String generateRefreshToken(Account account, String sessionId) {
+        return sign(Jwts.builder()
                 .claims(Map.of(
                         "id", account.getId().toString(),
                         "fullName", account.getFullName(),
                         "username", account.getUsername(),
                         "email", account.getEmail(),
                         "roleId", account.getRoleId(),
-                        "roleName", roleService.getById(account.getRoleId()).getName()
+                        "roleName", roleRegistry.getById(account.getRoleId()).getName(),
+                        "sid", sessionId
                 ))
+                .id(UUID.randomUUID().toString())
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + refreshTokenExpirationMs))
-                .signWith(getSigningKey(), Jwts.SIG.HS512)
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + refreshTokenExpirationMs)));
     }
 
+    /**
+     * Verifies the token at most once per distinct token value: the parsed claims are kept in a
+     * bounded cache until the token's own expiry, so repeated requests with the same token skip
+     * the signature check. Throws {@link JwtException} / {@link IllegalArgumentException} when invalid.
+     */
     public Claims getAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("JWT must not be empty");
+        }
+        return verifiedTokens.get(digest(token), key -> jwtParser.parseSignedClaims(token).getPayload());
+    }
+
+    public Optional<Claims> parseVerifiedClaims(String token) {
+        try {
+            return Optional.of(getAllClaims(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    public Map<String, Object> getVerifiedTokenCacheStats() {
+        CacheStats stats = verifiedTokens.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("size", verifiedTokens.estimatedSize());
+        return result;
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     public String getFullNameFromToken(String token) {
@@ -94,21 +208,18 @@ public class JwtUtil {
         return UUID.fromString(idStr);
     }
 
+    // Token phát hành trước khi có session store không có sid
+    public String getSessionIdFromToken(String token) {
+        return getAllClaims(token).get("sid", String.class);
+    }
+
     public UUID getRoleIdFromToken(String token) {
         String idStr = getAllClaims(token).get("roleId", String.class);
         return UUID.fromString(idStr);
     }
 
     public boolean validateJwtToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return parseVerifiedClaims(token).isPresent();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -117,15 +228,13 @@ public class JwtUtil {
     }
 
     public String generateResetPasswordToken(Account account) {
-        return Jwts.builder()
+        return sign(Jwts.builder()
                 .claims(Map.of(
                         "id", account.getId(),
                         "email", account.getEmail()
                 ))
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + resetPasswordTokenExpirationMs))
-                .signWith(getSigningKey(), Jwts.SIG.HS512)
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + resetPasswordTokenExpirationMs)));
     }
 
     public String extractEmail(String token) {
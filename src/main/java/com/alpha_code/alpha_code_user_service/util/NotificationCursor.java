@@ -0,0 +1,59 @@
+package com.alpha_code.alpha_code_user_service.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of an item in the notification feed, handed to clients as an opaque string. Items still
+ * in Redis are positioned by their sorted-set score (epoch ms), archived ones by
+ * {@code created_date} in epoch microseconds so the Postgres keyset stays exact; ties are broken by id.
+ */
+public record NotificationCursor(boolean cold, long position, UUID id) {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC);
+
+    public static NotificationCursor hot(double score, UUID id) {
+        return new NotificationCursor(false, (long) score, id);
+    }
+
+    public static NotificationCursor cold(LocalDateTime createdDate, UUID id) {
+        return new NotificationCursor(true, ChronoUnit.MICROS.between(EPOCH, createdDate), id);
+    }
+
+    // Score tương ứng trong sorted set
+    public double score() {
+        return cold ? Math.floorDiv(position, 1000) : position;
+    }
+
+    // Thứ tự chung cho bản trong Redis và bản trong kho lạnh
+    public long epochMicros() {
+        return cold ? position : position * 1000;
+    }
+
+    public LocalDateTime createdDate() {
+        return cold ? EPOCH.plus(position, ChronoUnit.MICROS) : EPOCH.plus(position, ChronoUnit.MILLIS);
+    }
+
+    public String encode() {
+        String value = (cold ? "c" : "h") + ":" + position + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static NotificationCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3 || !(parts[0].equals("c") || parts[0].equals("h"))) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new NotificationCursor(parts[0].equals("c"), Long.parseLong(parts[1]), UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException cũng là IllegalArgumentException
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
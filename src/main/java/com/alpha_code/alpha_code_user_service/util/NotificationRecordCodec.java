@@ -0,0 +1,120 @@
+package com.alpha_code.alpha_code_user_service.util;
+
+import com.alpha_code.alpha_code_user_service.dto.NotificationDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ByteString;
+import notification.NotificationRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Encodes notification records stored under {@code notification:<uuid>}. New records are written
+ * in the configured format; reads accept both, told apart by the first byte (JSON records always
+ * start with '{'), so records written before a switch stay readable until they are rewritten.
+ */
+@Component
+public class NotificationRecordCodec {
+
+    public enum Format {
+        JSON,
+        PROTOBUF
+    }
+
+    static final byte PROTOBUF_V1 = 0x01;
+
+    private final ObjectMapper objectMapper;
+    private final Format writeFormat;
+
+    public NotificationRecordCodec(ObjectMapper objectMapper,
+                                   @Value("${notification.record-format:PROTOBUF}") Format writeFormat) {
+        this.objectMapper = objectMapper;
+        this.writeFormat = writeFormat;
+    }
+
+    public byte[] encode(NotificationDto dto) throws IOException {
+        if (writeFormat == Format.JSON) {
+            return objectMapper.writeValueAsBytes(dto);
+        }
+        byte[] body = toRecord(dto).toByteArray();
+        byte[] result = new byte[body.length + 1];
+        result[0] = PROTOBUF_V1;
+        System.arraycopy(body, 0, result, 1, body.length);
+        return result;
+    }
+
+    public NotificationDto decode(byte[] record) throws IOException {
+        if (record == null || record.length == 0) {
+            throw new IOException("Empty notification record");
+        }
+        return switch (record[0]) {
+            case '{' -> objectMapper.readValue(record, NotificationDto.class);
+            case PROTOBUF_V1 -> fromRecord(NotificationRecord.parseFrom(Arrays.copyOfRange(record, 1, record.length)));
+            default -> throw new IOException("Unknown notification record version " + record[0]);
+        };
+    }
+
+    private static NotificationRecord toRecord(NotificationDto dto) {
+        NotificationRecord.Builder builder = NotificationRecord.newBuilder();
+        if (dto.getId() != null) builder.setId(toBytes(dto.getId()));
+        if (dto.getAccountId() != null) builder.setAccountId(toBytes(dto.getAccountId()));
+        if (dto.getType() != null) builder.setType(dto.getType());
+        if (dto.getTitle() != null) builder.setTitle(dto.getTitle());
+        if (dto.getMessage() != null) builder.setMessage(dto.getMessage());
+        if (dto.getIsRead() != null) builder.setIsRead(dto.getIsRead());
+        if (dto.getStatus() != null) builder.setStatus(dto.getStatus());
+        if (dto.getCreatedDate() != null) builder.setCreatedMicros(toMicros(dto.getCreatedDate()));
+        if (dto.getLastUpdated() != null) builder.setLastUpdatedMicros(toMicros(dto.getLastUpdated()));
+        if (dto.getOrderCode() != null) builder.setOrderCode(dto.getOrderCode());
+        if (dto.getServiceName() != null) builder.setServiceName(dto.getServiceName());
+        if (dto.getPrice() != null) builder.setPrice(dto.getPrice());
+        return builder.build();
+    }
+
+    private static NotificationDto fromRecord(NotificationRecord record) {
+        NotificationDto dto = new NotificationDto();
+        dto.setId(toUuid(record.getId()));
+        dto.setAccountId(toUuid(record.getAccountId()));
+        dto.setType(record.hasType() ? record.getType() : null);
+        dto.setTitle(record.hasTitle() ? record.getTitle() : null);
+        dto.setMessage(record.hasMessage() ? record.getMessage() : null);
+        dto.setIsRead(record.hasIsRead() ? record.getIsRead() : null);
+        dto.setStatus(record.hasStatus() ? record.getStatus() : null);
+        dto.setCreatedDate(record.hasCreatedMicros() ? fromMicros(record.getCreatedMicros()) : null);
+        dto.setLastUpdated(record.hasLastUpdatedMicros() ? fromMicros(record.getLastUpdatedMicros()) : null);
+        dto.setOrderCode(record.hasOrderCode() ? record.getOrderCode() : null);
+        dto.setServiceName(record.hasServiceName() ? record.getServiceName() : null);
+        dto.setPrice(record.hasPrice() ? record.getPrice() : null);
+        return dto;
+    }
+
+    private static ByteString toBytes(UUID uuid) {
+        return ByteString.copyFrom(ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array());
+    }
+
+    private static UUID toUuid(ByteString bytes) {
+        if (bytes.size() != 16) {
+            return null;
+        }
+        ByteBuffer buffer = bytes.asReadOnlyByteBuffer();
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static long toMicros(LocalDateTime utc) {
+        return utc.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + utc.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
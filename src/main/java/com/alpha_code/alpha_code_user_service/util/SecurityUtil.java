@@ -0,0 +1,38 @@
+package com.alpha_code.alpha_code_user_service.util;
+
+import com.alpha_code.alpha_code_user_service.exception.AuthenticationException;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Access to the verified access-token claims that {@code JwtAuthenticationFilter} attaches to the
+ * current authentication.
+ */
+public final class SecurityUtil {
+
+    private SecurityUtil() {
+    }
+
+    public static Optional<Claims> currentClaims() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getDetails() instanceof Claims claims) {
+            return Optional.of(claims);
+        }
+        return Optional.empty();
+    }
+
+    public static UUID currentAccountId() {
+        return currentClaims()
+                .map(claims -> claims.get("id", String.class))
+                .map(UUID::fromString)
+                .orElseThrow(() -> new AuthenticationException("Chưa đăng nhập"));
+    }
+
+    public static String currentSessionId() {
+        return currentClaims().map(claims -> claims.get("sid", String.class)).orElse(null);
+    }
+}
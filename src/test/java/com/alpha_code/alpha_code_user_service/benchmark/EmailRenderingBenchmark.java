@@ -0,0 +1,108 @@
+package com.alpha_code.alpha_code_user_service.benchmark;
+
+import com.alpha_code.alpha_code_user_service.util.EmailBody;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput (ops/ms) of building the payment-success email, before and after precompiled templates:
+ * <ul>
+ *     <li>{@code legacy*}: the old per-send work, i.e. {@code String.format} over the whole page
+ *     and a fresh {@link ClassPathResource} for the logo that is re-read on every write.</li>
+ *     <li>{@code compiled*}: {@link EmailBody} with templates compiled at startup and the cached logo.</li>
+ * </ul>
+ * The {@code *Message} variants also serialize the MIME message, which is what the outbox worker pays per mail.
+ * <p>
+ * Run: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.alpha_code.alpha_code_user_service.benchmark.EmailRenderingBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class EmailRenderingBenchmark {
+
+    private Session session;
+    private String legacyFormat;
+
+    @Setup
+    public void setUp() throws IOException {
+        // mail.from để Message-ID không phải tra hostname máy mỗi lần writeTo
+        Properties properties = new Properties();
+        properties.put("mail.from", "noreply@alphacode.local");
+        session = Session.getInstance(properties);
+        try (InputStream in = new ClassPathResource("mail-templates/payment-success.html").getInputStream()) {
+            // Dựng lại format string cũ từ template
+            legacyFormat = new String(in.readAllBytes(), StandardCharsets.UTF_8)
+                    .replace("{{fullName}}", "%s")
+                    .replace("{{serviceName}}", "%s")
+                    .replace("{{orderCode}}", "%d")
+                    .replace("{{price}}", "%,d");
+        }
+    }
+
+    @Benchmark
+    public String legacyRender() {
+        return String.format(legacyFormat, "Nguyễn Văn A", "Nguyễn Văn A", "Gói Premium", 123456789L, 1990000);
+    }
+
+    @Benchmark
+    public String compiledRender() {
+        return EmailBody.getPaymentSuccessEmailBody("Nguyễn Văn A", "Gói Premium", 123456789L, 1990000);
+    }
+
+    @Benchmark
+    public MimeMessage legacyMessage() throws MessagingException, IOException {
+        MimeMessage message = new MimeMessage(session);
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setTo("user@example.com");
+        helper.setSubject("Xác nhận thanh toán thành công - AlphaCode");
+        helper.setText(legacyRender(), true);
+        helper.addInline("alphacode-logo", new ClassPathResource("images/alphacode-logo.png"));
+        message.writeTo(OutputStream.nullOutputStream());
+        return message;
+    }
+
+    @Benchmark
+    public MimeMessage compiledMessage() throws MessagingException, IOException {
+        MimeMessage message = new MimeMessage(session);
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setTo("user@example.com");
+        helper.setSubject("Xác nhận thanh toán thành công - AlphaCode");
+        helper.setText(compiledRender(), true);
+        EmailBody.addInlineLogo(helper);
+        message.writeTo(OutputStream.nullOutputStream());
+        return message;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EmailRenderingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
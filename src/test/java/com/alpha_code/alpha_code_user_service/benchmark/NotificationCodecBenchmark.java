@@ -0,0 +1,131 @@
+package com.alpha_code.alpha_code_user_service.benchmark;
+
+import com.alpha_code.alpha_code_user_service.dto.NotificationDto;
+import com.alpha_code.alpha_code_user_service.enums.NotificationTypeEnum;
+import com.alpha_code.alpha_code_user_service.util.NotificationRecordCodec;
+import com.alpha_code.alpha_code_user_service.util.PaymentNotification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput (ops/ms) of the notification record codec for both stored formats, on a payment
+ * notification and a course-completion notification as the consumers build them:
+ * <ul>
+ *     <li>{@code JSON}: the old Jackson record, still readable for keys written before the switch.</li>
+ *     <li>{@code PROTOBUF}: the versioned protobuf record written now.</li>
+ * </ul>
+ * {@code main} also prints the bytes per record of each format, which is what Redis memory scales with.
+ * <p>
+ * Run: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.alpha_code.alpha_code_user_service.benchmark.NotificationCodecBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class NotificationCodecBenchmark {
+
+    @Param({"JSON", "PROTOBUF"})
+    public NotificationRecordCodec.Format format;
+
+    private NotificationRecordCodec codec;
+    private NotificationDto payment;
+    private NotificationDto courseCompleted;
+    private byte[] paymentRecord;
+    private byte[] courseCompletedRecord;
+
+    @Setup
+    public void setUp() throws IOException {
+        codec = codec(format);
+        payment = paymentNotification();
+        courseCompleted = courseCompletedNotification();
+        paymentRecord = codec.encode(payment);
+        courseCompletedRecord = codec.encode(courseCompleted);
+    }
+
+    @Benchmark
+    public byte[] encodePayment() throws IOException {
+        return codec.encode(payment);
+    }
+
+    @Benchmark
+    public NotificationDto decodePayment() throws IOException {
+        return codec.decode(paymentRecord);
+    }
+
+    @Benchmark
+    public byte[] encodeCourseCompleted() throws IOException {
+        return codec.encode(courseCompleted);
+    }
+
+    @Benchmark
+    public NotificationDto decodeCourseCompleted() throws IOException {
+        return codec.decode(courseCompletedRecord);
+    }
+
+    private static NotificationRecordCodec codec(NotificationRecordCodec.Format format) {
+        return new NotificationRecordCodec(new ObjectMapper().findAndRegisterModules(), format);
+    }
+
+    private static NotificationDto paymentNotification() {
+        NotificationDto dto = baseNotification();
+        dto.setType(NotificationTypeEnum.PAYMENT_SUCCESS.getCode());
+        dto.setTitle(PaymentNotification.getTitle("Gói Premium"));
+        dto.setMessage(PaymentNotification.getMessage(123456789L, "Gói Premium", 1990000));
+        dto.setOrderCode(123456789L);
+        dto.setServiceName("Gói Premium");
+        dto.setPrice(1990000);
+        return dto;
+    }
+
+    private static NotificationDto courseCompletedNotification() {
+        NotificationDto dto = baseNotification();
+        dto.setType(NotificationTypeEnum.FINISHCOURSE.getCode());
+        dto.setTitle("Chúc mừng bạn đã hoàn thành khóa học!");
+        dto.setMessage("Lập trình Robot cơ bản");
+        dto.setServiceName(UUID.randomUUID().toString());
+        return dto;
+    }
+
+    private static NotificationDto baseNotification() {
+        NotificationDto dto = new NotificationDto();
+        dto.setId(UUID.randomUUID());
+        dto.setAccountId(UUID.randomUUID());
+        dto.setStatus(1);
+        dto.setIsRead(false);
+        dto.setCreatedDate(LocalDateTime.of(2026, 10, 18, 9, 30, 15, 123_000_000));
+        dto.setLastUpdated(LocalDateTime.of(2026, 10, 18, 9, 30, 15, 123_000_000));
+        return dto;
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        for (NotificationRecordCodec.Format format : NotificationRecordCodec.Format.values()) {
+            NotificationRecordCodec codec = codec(format);
+            System.out.printf("%s: payment %d bytes, course completed %d bytes%n", format,
+                    codec.encode(paymentNotification()).length, codec.encode(courseCompletedNotification()).length);
+        }
+        new Runner(new OptionsBuilder()
+                .include(NotificationCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,55 @@
+package com.alpha_code.alpha_code_user_service.config;
+
+import com.alpha_code.alpha_code_user_service.consumer.WebSocketPresenceListener;
+import com.alpha_code.alpha_code_user_service.service.DashboardStreamService;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardSubscriptionInterceptorTest {
+
+    private final DashboardSubscriptionInterceptor interceptor = new DashboardSubscriptionInterceptor();
+
+    @Test
+    void preSend_rejectsUserOnDashboardTopic() {
+        assertThrows(AccessDeniedException.class,
+                () -> interceptor.preSend(subscribe(DashboardStreamService.TOPIC, "User"), null));
+    }
+
+    @Test
+    void preSend_rejectsUserSubscribingWithPattern() {
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(subscribe("/topic/**", "User"), null));
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(subscribe("/topic/dash*", "User"), null));
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(subscribe("/topic/*/x", null), null));
+    }
+
+    @Test
+    void preSend_allowsAdminPatternAndUserOnOtherTopics() {
+        Message<byte[]> adminPattern = subscribe("/topic/**", "Admin");
+        Message<byte[]> userTopic = subscribe("/topic/notifications", "User");
+
+        assertSame(adminPattern, interceptor.preSend(adminPattern, null));
+        assertSame(userTopic, interceptor.preSend(userTopic, null));
+    }
+
+    private static Message<byte[]> subscribe(String destination, String roleName) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setSessionId("s1");
+        accessor.setSubscriptionId("sub-1");
+        Map<String, Object> attributes = new HashMap<>();
+        if (roleName != null) {
+            attributes.put(WebSocketPresenceListener.ROLE_NAME_ATTRIBUTE, roleName);
+        }
+        accessor.setSessionAttributes(attributes);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,172 @@
+package com.alpha_code.alpha_code_user_service.repository;
+
+import com.alpha_code.alpha_code_user_service.entity.Account;
+import com.alpha_code.alpha_code_user_service.entity.Profile;
+import com.alpha_code.alpha_code_user_service.entity.Role;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:account-repo;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.naming.physical-strategy=org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class AccountRepositoryTest {
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountSignupDailyRepository signupRollup;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private UUID roleId;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role();
+        role.setName("User");
+        role.setStatus(1);
+        entityManager.persist(role);
+        roleId = role.getId();
+
+        Account account = newAccount("testuser", "test@example.com");
+        entityManager.persist(account);
+        entityManager.persist(newProfile(account.getId(), "Parent"));
+        entityManager.persist(newProfile(account.getId(), "Kid"));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findForLogin_byUsername_loadsProfilesInOneStatement() {
+        List<Account> result = accountRepository.findForLogin("testuser");
+
+        assertEquals(1, result.size());
+        assertEquals(2, result.get(0).getProfiles().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findForLogin_byEmail_loadsProfilesInOneStatement() {
+        List<Account> result = accountRepository.findForLogin("test@example.com");
+
+        assertEquals(1, result.size());
+        assertEquals("testuser", result.get(0).getUsername());
+        assertEquals(2, result.get(0).getProfiles().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findWithProfilesByEmail_loadsProfilesInOneStatement() {
+        Account account = accountRepository.findWithProfilesByEmail("test@example.com").orElseThrow();
+
+        assertEquals(2, account.getProfiles().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void replaceImage_rewritesOnlyExactMatches() {
+        Account legacy = newAccount("legacy", "legacy@example.com");
+        legacy.setImage("data:image/png;base64,AAAA");
+        entityManager.persist(legacy);
+        Account uploaded = newAccount("uploaded", "uploaded@example.com");
+        uploaded.setImage("data:image/png;base64,BBBB");
+        entityManager.persist(uploaded);
+        entityManager.flush();
+
+        int updated = accountRepository.replaceImage("data:image/png;base64,AAAA", "/assets/images/alphacode-logo.png");
+        entityManager.clear();
+
+        assertEquals(1, updated);
+        assertEquals("/assets/images/alphacode-logo.png",
+                accountRepository.findById(legacy.getId()).orElseThrow().getImage());
+        assertEquals("data:image/png;base64,BBBB",
+                accountRepository.findById(uploaded.getId()).orElseThrow().getImage());
+        assertEquals("image", accountRepository.findForLogin("testuser").get(0).getImage());
+        assertEquals(0, accountRepository.replaceImage("data:image/png;base64,AAAA", "/assets/images/alphacode-logo.png"));
+    }
+
+    @Test
+    void findConflicts_matchesAnyFieldInOneStatement() {
+        var byEmail = accountRepository.findConflicts("someone-else", "test@example.com", null);
+        var none = accountRepository.findConflicts("someone-else", null, null);
+
+        assertEquals(1, byEmail.size());
+        assertEquals("testuser", byEmail.get(0).getUsername());
+        assertTrue(none.isEmpty());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void signupRollup_rebuiltFromAccountsAnswersRangeSums() {
+        Account old = newAccount("old", "old@example.com");
+        old.setCreatedDate(LocalDateTime.now().minusMonths(2));
+        entityManager.persist(old);
+        entityManager.flush();
+
+        signupRollup.deleteAllRows();
+        signupRollup.insertFromAccounts();
+        LocalDate startOfMonth = LocalDate.now().withDayOfMonth(1);
+
+        assertEquals(2, signupRollup.sumAll());
+        assertEquals(2, signupRollup.sumByRoleId(roleId));
+        assertEquals(1, signupRollup.sumBetween(startOfMonth, startOfMonth.plusMonths(1)));
+        assertEquals(1, signupRollup.sumByRoleIdBetween(roleId, startOfMonth, startOfMonth.plusMonths(1)));
+        assertEquals(0, signupRollup.sumByRoleId(UUID.randomUUID()));
+    }
+
+    private Account newAccount(String username, String email) {
+        Account account = new Account();
+        account.setUsername(username);
+        account.setPassword("hash");
+        account.setFullName("Test User");
+        account.setEmail(email);
+        account.setGender(0);
+        account.setImage("image");
+        account.setStatus(1);
+        account.setRoleId(roleId);
+        account.setCreatedDate(LocalDateTime.now());
+        return account;
+    }
+
+    private Profile newProfile(UUID accountId, String name) {
+        Profile profile = new Profile();
+        profile.setName(name);
+        profile.setAccountId(accountId);
+        profile.setRoleId(roleId);
+        profile.setIsKid(false);
+        profile.setPassCode("code");
+        profile.setStatus(1);
+        profile.setCreatedDate(LocalDateTime.now());
+        return profile;
+    }
+}
@@ -0,0 +1,140 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import com.alpha_code.alpha_code_user_service.exception.ConflictException;
+import com.alpha_code.alpha_code_user_service.repository.AccountRepository;
+import com.alpha_code.alpha_code_user_service.repository.AccountRepository.AccountIdentifiers;
+import com.alpha_code.alpha_code_user_service.service.impl.AccountAvailabilityServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountAvailabilityServiceTest {
+
+    @Mock
+    private AccountRepository repository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @InjectMocks
+    private AccountAvailabilityServiceImpl availabilityService;
+
+    private static AccountIdentifiers ids(String username, String email, String phone) {
+        return new AccountIdentifiers() {
+            public String getUsername() { return username; }
+            public String getEmail() { return email; }
+            public String getPhone() { return phone; }
+        };
+    }
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(availabilityService, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(availabilityService, "falsePositiveRate", 0.001);
+        when(repository.findAllIdentifiers(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(ids("alice", "alice@mail.com", "0900000001"))));
+        availabilityService.init();
+    }
+
+    @Test
+    void checkAvailability_skipsDatabaseWhenFilterSaysAbsent() {
+        Map<String, Boolean> result = availabilityService.checkAvailability("bob", "bob@mail.com", null);
+
+        assertEquals(Map.of("username", true, "email", true), result);
+        verify(repository, never()).findConflicts(any(), any(), any());
+    }
+
+    @Test
+    void checkAvailability_confirmsMaybePresentAgainstDatabase() {
+        when(repository.findConflicts("alice", null, null))
+                .thenReturn(List.of(ids("alice", "alice@mail.com", "0900000001")));
+
+        Map<String, Boolean> result = availabilityService.checkAvailability("alice", "new@mail.com", null);
+
+        assertFalse(result.get("username"));
+        assertTrue(result.get("email"));
+    }
+
+    @Test
+    void checkAvailability_requiresAtLeastOneField() {
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.checkAvailability(" ", null, ""));
+    }
+
+    @Test
+    void recordTaken_updatesFilterAndPublishes() {
+        availabilityService.recordTaken("carol", "carol@mail.com", null);
+        when(repository.findConflicts("carol", null, null)).thenReturn(List.of());
+
+        assertTrue(availabilityService.checkAvailability("carol", null, null).get("username"));
+        verify(repository).findConflicts("carol", null, null);
+        verify(redisTemplate).convertAndSend(eq(AccountAvailabilityServiceImpl.ADDED_CHANNEL), anyString());
+    }
+
+    @Test
+    void onMessage_addsValuesFromOtherInstances() {
+        availabilityService.onMessage(new DefaultMessage(
+                AccountAvailabilityServiceImpl.ADDED_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "dave\n\n0900000002".getBytes(StandardCharsets.UTF_8)), null);
+        when(repository.findConflicts(null, null, "0900000002"))
+                .thenReturn(List.of(ids("dave", null, "0900000002")));
+
+        assertFalse(availabilityService.checkAvailability(null, null, "0900000002").get("phone"));
+    }
+
+    @Test
+    void scheduledRebuild_picksUpAccountsMissedByPubSub() {
+        when(repository.findAllIdentifiers(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(ids("alice", "alice@mail.com", "0900000001"),
+                        ids("erin", "erin@mail.com", null))));
+        when(repository.findConflicts("erin", null, null))
+                .thenReturn(List.of(ids("erin", "erin@mail.com", null)));
+
+        availabilityService.scheduledRebuild();
+
+        assertFalse(availabilityService.checkAvailability("erin", null, null).get("username"));
+    }
+
+    @Test
+    void scheduledRebuild_keepsCurrentFiltersWhenLoadFails() {
+        when(repository.findAllIdentifiers(any(Pageable.class))).thenThrow(new RuntimeException("db down"));
+        when(repository.findConflicts("alice", null, null))
+                .thenReturn(List.of(ids("alice", "alice@mail.com", "0900000001")));
+
+        availabilityService.scheduledRebuild();
+
+        assertFalse(availabilityService.checkAvailability("alice", null, null).get("username"));
+    }
+
+    @Test
+    void assertAvailable_usesSingleQueryAndReportsFirstConflict() {
+        when(repository.findConflicts("bob", "alice@mail.com", null))
+                .thenReturn(List.of(ids("alice", "alice@mail.com", "0900000001")));
+
+        ConflictException ex = assertThrows(ConflictException.class,
+                () -> availabilityService.assertAvailable("bob", "alice@mail.com", ""));
+
+        assertEquals("Email đã được sử dụng", ex.getMessage());
+        verify(repository, times(1)).findConflicts(any(), any(), any());
+    }
+}
@@ -1,6 +1,8 @@
 package com.alpha_code.alpha_code_user_service.service;
 
 import com.alpha_code.alpha_code_user_service.dto.AccountDto;
+import com.alpha_code.alpha_code_user_service.dto.PagedResult;
+import com.alpha_code.alpha_code_user_service.dto.RoleDto;
 import com.alpha_code.alpha_code_user_service.entity.Account;
 import com.alpha_code.alpha_code_user_service.entity.Role;
 import com.alpha_code.alpha_code_user_service.exception.AuthenticationException;
@@ -20,11 +22,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -40,11 +43,23 @@ class AccountServiceTest {
     @Mock
     private RoleRepository roleRepository;
 
+    @Mock
+    private RoleRegistry roleRegistry;
+
+    @Mock
+    private AccountAvailabilityService accountAvailabilityService;
+
     @Mock
     private S3Service s3Service;
 
     @Mock
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private SessionService sessionService;
+
+    @Mock
+    private TableStatsService tableStatsService;
 
     @InjectMocks
     private AccountServiceImpl accountService;
@@ -98,7 +113,7 @@ class AccountServiceTest {
 
         when(repository.findAll(pageable)).thenReturn(page);
 
-        var result = accountService.getAll(1, 10, null);
+        var result = accountService.getAll(1, 10, null, PagedResult.CountMode.EXACT);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalCount());
@@ -112,13 +127,39 @@ class AccountServiceTest {
 
         when(repository.findAllByStatus(1, pageable)).thenReturn(page);
 
-        var result = accountService.getAll(1, 10, 1);
+        var result = accountService.getAll(1, 10, 1, PagedResult.CountMode.EXACT);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalCount());
         verify(repository).findAllByStatus(1, pageable);
     }
 
+    @Test
+    void testGetAll_estimateUsesPlannerStatistics() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(repository.findSliceBy(pageable)).thenReturn(new SliceImpl<>(java.util.List.of(account), pageable, true));
+        when(tableStatsService.estimateRowCount("account")).thenReturn(OptionalLong.of(5000));
+
+        var result = accountService.getAll(1, 10, null, PagedResult.CountMode.ESTIMATE);
+
+        assertTrue(result.isTotalIsEstimate());
+        assertEquals(5000, result.getTotalCount());
+        assertEquals(500, result.getTotalPages());
+        verify(repository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void testGetAll_estimateOnLastPageIsExact() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(repository.findSliceByStatus(1, pageable)).thenReturn(new SliceImpl<>(java.util.List.of(account), pageable, false));
+
+        var result = accountService.getAll(1, 10, 1, PagedResult.CountMode.ESTIMATE);
+
+        assertFalse(result.isTotalIsEstimate());
+        assertEquals(1, result.getTotalCount());
+        verifyNoInteractions(tableStatsService);
+    }
+
     @Test
     void testGetById_Success() {
         when(repository.findById(accountId)).thenReturn(Optional.of(account));
@@ -140,38 +181,38 @@ class AccountServiceTest {
 
     @Test
     void testCreate_Success() throws Exception {
-        when(repository.existsByUsername(accountDto.getUsername())).thenReturn(false);
-        when(repository.existsByEmail(accountDto.getEmail())).thenReturn(false);
-        when(repository.existsByPhone(accountDto.getPhone())).thenReturn(false);
-        when(roleRepository.findById(roleId)).thenReturn(Optional.of(role));
-        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        when(roleRegistry.findById(roleId)).thenReturn(Optional.of(new RoleDto(roleId, "USER", 1)));
+        when(passwordHashingService.encode(anyString())).thenReturn("encodedPassword");
         when(repository.save(any(Account.class))).thenReturn(account);
 
         var result = accountService.create(accountDto, null);
 
         assertNotNull(result);
-        verify(repository).existsByUsername(accountDto.getUsername());
-        verify(repository).existsByEmail(accountDto.getEmail());
-        verify(repository).existsByPhone(accountDto.getPhone());
+        verify(accountAvailabilityService).assertAvailable(
+                accountDto.getUsername(), accountDto.getEmail(), accountDto.getPhone());
         verify(repository).save(any(Account.class));
+        verify(accountAvailabilityService).recordTaken(account.getUsername(), account.getEmail(), account.getPhone());
     }
 
     @Test
     void testCreate_UsernameExists() {
-        when(repository.existsByUsername(accountDto.getUsername())).thenReturn(true);
+        doThrow(new ConflictException("Tên đăng nhập đã được sử dụng"))
+                .when(accountAvailabilityService)
+                .assertAvailable(accountDto.getUsername(), accountDto.getEmail(), accountDto.getPhone());
 
         assertThrows(ConflictException.class, () -> accountService.create(accountDto, null));
-        verify(repository).existsByUsername(accountDto.getUsername());
         verify(repository, never()).save(any(Account.class));
     }
 
     @Test
     void testCreate_EmailExists() {
-        when(repository.existsByUsername(accountDto.getUsername())).thenReturn(false);
-        when(repository.existsByEmail(accountDto.getEmail())).thenReturn(true);
+        doThrow(new ConflictException("Email đã được sử dụng"))
+                .when(accountAvailabilityService)
+                .assertAvailable(accountDto.getUsername(), accountDto.getEmail(), accountDto.getPhone());
 
-        assertThrows(ConflictException.class, () -> accountService.create(accountDto, null));
-        verify(repository).existsByEmail(accountDto.getEmail());
+        ConflictException ex = assertThrows(ConflictException.class, () -> accountService.create(accountDto, null));
+        assertEquals("Email đã được sử dụng", ex.getMessage());
+        verify(accountAvailabilityService, never()).recordTaken(any(), any(), any());
     }
 
     @Test
@@ -197,31 +238,27 @@ class AccountServiceTest {
 
     @Test
     void testChangeStatus_Success() {
-        Role userRole = new Role();
-        userRole.setId(roleId);
-        userRole.setName("USER");
-        account.setRole(userRole);
-
-        when(repository.findAccountById(accountId)).thenReturn(Optional.of(account));
+        when(repository.findById(accountId)).thenReturn(Optional.of(account));
+        when(roleRegistry.findById(roleId)).thenReturn(Optional.of(new RoleDto(roleId, "USER", 1)));
         when(repository.save(any(Account.class))).thenReturn(account);
 
         var result = accountService.changeStatus(accountId, 0, "Banned");
 
         assertNotNull(result);
-        verify(repository).findAccountById(accountId);
+        assertEquals("USER", result.getRoleName());
+        verify(repository).findById(accountId);
         verify(repository).save(any(Account.class));
+        verify(sessionService).revokeAll(accountId);
     }
 
     @Test
     void testChangeStatus_AdminCannotBeChanged() {
-        role.setName("Admin");
-        account.setRole(role);
-
-        when(repository.findAccountById(accountId)).thenReturn(Optional.of(account));
+        when(repository.findById(accountId)).thenReturn(Optional.of(account));
+        when(roleRegistry.findById(roleId)).thenReturn(Optional.of(new RoleDto(roleId, "Admin", 1)));
 
         assertThrows(ConflictException.class, 
             () -> accountService.changeStatus(accountId, 0, "Banned"));
-        verify(repository).findAccountById(accountId);
+        verify(repository).findById(accountId);
         verify(repository, never()).save(any(Account.class));
     }
 
@@ -2,6 +2,7 @@ package com.alpha_code.alpha_code_user_service.service;
 
 import com.alpha_code.alpha_code_user_service.dto.LoginDto;
 import com.alpha_code.alpha_code_user_service.dto.ResetPassworDto;
+import com.alpha_code.alpha_code_user_service.dto.RoleDto;
 import com.alpha_code.alpha_code_user_service.dto.request.SwitchProfileRequest;
 import com.alpha_code.alpha_code_user_service.entity.Account;
 import com.alpha_code.alpha_code_user_service.entity.Profile;
@@ -14,6 +15,7 @@ import com.alpha_code.alpha_code_user_service.repository.AccountRepository;
 import com.alpha_code.alpha_code_user_service.repository.ProfileRepository;
 import com.alpha_code.alpha_code_user_service.repository.RoleRepository;
 import com.alpha_code.alpha_code_user_service.service.impl.AuthServiceImpl;
+import com.alpha_code.alpha_code_user_service.service.impl.PasswordHashingServiceImpl;
 import com.alpha_code.alpha_code_user_service.util.JwtUtil;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
@@ -26,6 +28,7 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -45,6 +48,12 @@ class AuthServiceTest {
     @Mock
     private RoleRepository roleRepository;
 
+    @Mock
+    private RoleRegistry roleRegistry;
+
+    @Mock
+    private AccountAvailabilityService accountAvailabilityService;
+
     @Mock
     private ProfileRepository profileRepository;
 
@@ -54,8 +63,11 @@ class AuthServiceTest {
     @Mock
     private DashboardService dashboardService;
 
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
     @Spy
-    private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private PasswordHashingService passwordHashingService =
+            new PasswordHashingServiceImpl(passwordEncoder, 4, 1, 8, 10_000, 1);
 
     @InjectMocks
     private AuthServiceImpl authService;
@@ -107,16 +119,83 @@ class AuthServiceTest {
         request.setUsername("testuser");
         request.setPassword("password123");
 
-        when(accountRepository.findAccountByUsername("testuser"))
-                .thenReturn(Optional.of(account));
-        when(profileRepository.findByAccountId(accountId))
-                .thenReturn(List.of(profile));
+        when(accountRepository.findForLogin("testuser"))
+                .thenReturn(List.of(account));
+        when(roleRegistry.getById(roleId))
+                .thenReturn(new RoleDto(roleId, "USER", 1));
+        account.setProfiles(List.of(profile));
 
         var response = authService.login(request);
 
         assertTrue(response.getRequiresProfile());
         assertEquals(1, response.getProfiles().size());
-        verify(dashboardService, never()).addOnlineUser(any());
+        verify(dashboardService, never()).addOnlineUser(any(), any());
+        verify(profileRepository, never()).findByAccountId(any());
+    }
+
+    @Test
+    void login_rehashes_password_when_cost_changed() {
+        account.setPassword(new BCryptPasswordEncoder(5).encode("password123"));
+
+        LoginDto.LoginRequest request = new LoginDto.LoginRequest();
+        request.setUsername("testuser");
+        request.setPassword("password123");
+
+        when(accountRepository.findForLogin("testuser"))
+                .thenReturn(List.of(account));
+        when(roleRegistry.getById(roleId))
+                .thenReturn(new RoleDto(roleId, "USER", 1));
+        account.setProfiles(List.of());
+
+        authService.login(request);
+
+        verify(accountRepository).save(account);
+        assertTrue(account.getPassword().startsWith("$2a$04$"));
+        assertTrue(passwordEncoder.matches("password123", account.getPassword()));
+    }
+
+    @Test
+    void login_locked_account_does_not_rehash_password() {
+        String storedHash = new BCryptPasswordEncoder(5).encode("password123");
+        account.setPassword(storedHash);
+        account.setStatus(0);
+
+        LoginDto.LoginRequest request = new LoginDto.LoginRequest();
+        request.setUsername("testuser");
+        request.setPassword("password123");
+
+        when(accountRepository.findForLogin("testuser"))
+                .thenReturn(List.of(account));
+
+        assertThrows(AuthenticationException.class,
+                () -> authService.login(request));
+
+        verify(passwordHashingService, never()).encode(any());
+        verify(accountRepository, never()).save(any());
+        assertEquals(storedHash, account.getPassword());
+    }
+
+    @Test
+    void login_prefers_username_match_over_email_match() {
+        Account emailMatch = new Account();
+        emailMatch.setId(UUID.randomUUID());
+        emailMatch.setUsername("someone");
+        emailMatch.setEmail("testuser");
+        emailMatch.setPassword(passwordEncoder.encode("other"));
+
+        LoginDto.LoginRequest request = new LoginDto.LoginRequest();
+        request.setUsername("testuser");
+        request.setPassword("password123");
+
+        when(accountRepository.findForLogin("testuser"))
+                .thenReturn(List.of(emailMatch, account));
+        when(roleRegistry.getById(roleId))
+                .thenReturn(new RoleDto(roleId, "USER", 1));
+        account.setProfiles(List.of());
+
+        var response = authService.login(request);
+
+        assertEquals(accountId, response.getAccountId());
     }
 
     @Test
@@ -125,8 +204,8 @@ class AuthServiceTest {
         request.setUsername("testuser");
         request.setPassword("wrong");
 
-        when(accountRepository.findAccountByUsername("testuser"))
-                .thenReturn(Optional.of(account));
+        when(accountRepository.findForLogin("testuser"))
+                .thenReturn(List.of(account));
 
         assertThrows(AuthenticationException.class,
                 () -> authService.login(request));
@@ -142,17 +221,22 @@ class AuthServiceTest {
         request.setEmail("new@mail.com");
         request.setFullName("New User");
 
-        when(accountRepository.existsByUsername("newuser")).thenReturn(false);
-        when(accountRepository.existsByEmail("new@mail.com")).thenReturn(false);
-        when(roleRepository.findByNameIgnoreCase("User"))
-                .thenReturn(Optional.of(role));
+        when(roleRegistry.findByName("User"))
+                .thenReturn(Optional.of(new RoleDto(roleId, "User", 1)));
         when(accountRepository.save(any(Account.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
+        ReflectionTestUtils.setField(authService, "defaultAvatarUrl", "/assets/images/alphacode-logo.png");
+
         var result = authService.register(request);
 
         assertEquals("newuser", result.getUsername());
+        assertEquals("/assets/images/alphacode-logo.png", result.getImage());
+        assertEquals("User", result.getRoleName());
         assertTrue(passwordEncoder.matches("123456", result.getPassword()));
+        verify(roleRepository, never()).findByNameIgnoreCase(any());
+        verify(accountAvailabilityService).assertAvailable("newuser", "new@mail.com", null);
+        verify(accountAvailabilityService).recordTaken("newuser", "new@mail.com", null);
     }
 
     @Test
@@ -160,10 +244,12 @@ class AuthServiceTest {
         LoginDto.RegisterRequest request = new LoginDto.RegisterRequest();
         request.setUsername("testuser");
 
-        when(accountRepository.existsByUsername("testuser")).thenReturn(true);
+        doThrow(new ConflictException("Tên đăng nhập đã được sử dụng"))
+                .when(accountAvailabilityService).assertAvailable("testuser", null, null);
 
         assertThrows(ConflictException.class,
                 () -> authService.register(request));
+        verify(accountRepository, never()).save(any());
     }
 
     // ================= RESET PASSWORD =================
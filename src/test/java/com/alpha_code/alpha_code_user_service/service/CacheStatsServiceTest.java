@@ -0,0 +1,58 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import com.alpha_code.alpha_code_user_service.service.impl.CacheStatsServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheStatsServiceTest {
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private RedisCache cache;
+
+    @Mock
+    private CacheStatistics statistics;
+
+    @InjectMocks
+    private CacheStatsServiceImpl cacheStatsService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getStats_reportsHitRatioPerCache() {
+        when(cacheManager.getCacheNames()).thenReturn(List.of("notifications_list"));
+        when(cacheManager.getCache("notifications_list")).thenReturn(cache);
+        when(cache.getStatistics()).thenReturn(statistics);
+        when(statistics.getHits()).thenReturn(3L);
+        when(statistics.getMisses()).thenReturn(1L);
+
+        Map<String, Object> stats = (Map<String, Object>) cacheStatsService.getStats().get("notifications_list");
+
+        assertEquals(3L, stats.get("hits"));
+        assertEquals(0.75, stats.get("hitRatio"));
+    }
+
+    @Test
+    void resetStats_clearsEveryRedisCache() {
+        when(cacheManager.getCacheNames()).thenReturn(List.of("notifications_list"));
+        when(cacheManager.getCache("notifications_list")).thenReturn(cache);
+
+        cacheStatsService.resetStats();
+
+        verify(cache).clearStatistics();
+    }
+}
@@ -1,8 +1,8 @@
 package com.alpha_code.alpha_code_user_service.service;
 
-import com.alpha_code.alpha_code_user_service.entity.Role;
-import com.alpha_code.alpha_code_user_service.repository.AccountRepository;
-import com.alpha_code.alpha_code_user_service.repository.RoleRepository;
+import com.alpha_code.alpha_code_user_service.dto.RoleDto;
+import com.alpha_code.alpha_code_user_service.dto.TimeSeriesPointDto;
+import com.alpha_code.alpha_code_user_service.repository.AccountSignupDailyRepository;
 import com.alpha_code.alpha_code_user_service.service.impl.DashboardServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,11 +10,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
 
-import java.time.LocalDateTime;
-import java.util.Set;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,107 +30,111 @@ class DashboardServiceTest {
     private RedisTemplate<String, String> redisTemplate;
 
     @Mock
-    private AccountRepository accountRepository;
+    private AccountSignupDailyRepository signupRollup;
 
     @Mock
-    private RoleRepository roleRepository;
+    private RoleRegistry roleRegistry;
 
     @Mock
-    private ValueOperations<String, String> valueOperations;
+    private PresenceService presenceService;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
 
     @InjectMocks
     private DashboardServiceImpl dashboardService;
 
     private UUID accountId;
     private UUID roleId;
-    private Role role;
+    private RoleDto role;
 
     @BeforeEach
     void setUp() {
         accountId = UUID.randomUUID();
         roleId = UUID.randomUUID();
 
-        role = new Role();
-        role.setId(roleId);
-        role.setName("USER");
+        role = new RoleDto(roleId, "USER", 1);
     }
 
     @Test
     void testCountOnlineUsers() {
-        Set<String> keys = Set.of("online:user:1", "online:user:2");
-        when(redisTemplate.keys("online:user:*")).thenReturn(keys);
+        when(presenceService.countOnline()).thenReturn(2L);
 
         long result = dashboardService.countOnlineUsers();
 
         assertEquals(2, result);
-        verify(redisTemplate).keys("online:user:*");
-    }
-
-    @Test
-    void testCountOnlineUsers_NoUsers() {
-        when(redisTemplate.keys("online:user:*")).thenReturn(null);
-
-        long result = dashboardService.countOnlineUsers();
-
-        assertEquals(0, result);
+        verify(redisTemplate, never()).keys(anyString());
     }
 
     @Test
     void testAddOnlineUser() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-
-        dashboardService.addOnlineUser(accountId);
+        dashboardService.addOnlineUser(accountId, "USER");
 
-        verify(redisTemplate.opsForValue()).set(eq("online:user:" + accountId), eq("online"), eq(5L), any());
+        verify(presenceService).heartbeat(accountId, "USER");
     }
 
     @Test
     void testRemoveOnlineUser() {
         dashboardService.removeOnlineUser(accountId);
 
-        verify(redisTemplate).delete("online:user:" + accountId);
+        verify(presenceService).offline(accountId);
+    }
+
+    @Test
+    void testGetActiveUserStats() {
+        when(presenceService.countOnline()).thenReturn(3L);
+        when(presenceService.countOnlineByRole()).thenReturn(Map.of("USER", 3L));
+        when(presenceService.countDailyActive(any())).thenReturn(10L);
+        when(presenceService.countMonthlyActive(any())).thenReturn(42L);
+
+        var result = dashboardService.getActiveUserStats();
+
+        assertEquals(3L, result.get("online"));
+        assertEquals(Map.of("USER", 3L), result.get("onlineByRole"));
+        assertEquals(10L, result.get("dailyActive"));
+        assertEquals(42L, result.get("monthlyActive"));
     }
 
     @Test
     void testCountUsersByRole() {
-        when(roleRepository.findByNameIgnoreCase("USER")).thenReturn(java.util.Optional.of(role));
-        when(accountRepository.countByRoleId(roleId)).thenReturn(10L);
+        when(roleRegistry.findByName("USER")).thenReturn(java.util.Optional.of(role));
+        when(signupRollup.sumByRoleId(roleId)).thenReturn(10L);
 
         long result = dashboardService.countUsersByRole("USER");
 
         assertEquals(10L, result);
-        verify(roleRepository).findByNameIgnoreCase("USER");
-        verify(accountRepository).countByRoleId(roleId);
+        verify(roleRegistry).findByName("USER");
+        verify(signupRollup).sumByRoleId(roleId);
     }
 
     @Test
     void testCountNewUsersByRoleThisMonth() {
-        when(roleRepository.findByNameIgnoreCase("USER")).thenReturn(java.util.Optional.of(role));
-        when(accountRepository.countByRoleIdAndCreatedDateBetween(any(), any(), any())).thenReturn(5L);
+        when(roleRegistry.findByName("USER")).thenReturn(java.util.Optional.of(role));
+        LocalDate startOfMonth = LocalDate.now().withDayOfMonth(1);
+        when(signupRollup.sumByRoleIdBetween(roleId, startOfMonth, startOfMonth.plusMonths(1))).thenReturn(5L);
 
         long result = dashboardService.countNewUsersByRoleThisMonth("USER");
 
         assertEquals(5L, result);
-        verify(accountRepository).countByRoleIdAndCreatedDateBetween(any(), any(), any());
     }
 
     @Test
     void testCalculateGrowthRateByRole() {
-        when(roleRepository.findByNameIgnoreCase("USER")).thenReturn(java.util.Optional.of(role));
-        when(accountRepository.countByRoleIdAndCreatedDateBetween(any(), any(), any()))
+        when(roleRegistry.findByName("USER")).thenReturn(java.util.Optional.of(role));
+        when(signupRollup.sumByRoleIdBetween(any(), any(), any()))
             .thenReturn(10L)  // this month
             .thenReturn(5L);   // last month
 
         double result = dashboardService.calculateGrowthRateByRole("USER");
 
         assertEquals(100.0, result, 0.01);
-        verify(accountRepository, times(2)).countByRoleIdAndCreatedDateBetween(any(), any(), any());
+        verify(signupRollup, times(2)).sumByRoleIdBetween(any(), any(), any());
     }
 
     @Test
     void testCalculateGrowthRateByRole_ZeroLastMonth() {
-        when(roleRepository.findByNameIgnoreCase("USER")).thenReturn(java.util.Optional.of(role));
-        when(accountRepository.countByRoleIdAndCreatedDateBetween(any(), any(), any()))
+        when(roleRegistry.findByName("USER")).thenReturn(java.util.Optional.of(role));
+        when(signupRollup.sumByRoleIdBetween(any(), any(), any()))
             .thenReturn(5L)   // this month
             .thenReturn(0L);  // last month
 
@@ -139,15 +145,14 @@ class DashboardServiceTest {
 
     @Test
     void testGetUserStats() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime startOfMonth = now.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
-        LocalDateTime endOfMonth = startOfMonth.plusMonths(1);
-        LocalDateTime startOfLastMonth = startOfMonth.minusMonths(1);
-        LocalDateTime endOfLastMonth = startOfMonth;
+        LocalDate startOfMonth = LocalDate.now().withDayOfMonth(1);
+        LocalDate endOfMonth = startOfMonth.plusMonths(1);
+        LocalDate startOfLastMonth = startOfMonth.minusMonths(1);
+        LocalDate endOfLastMonth = startOfMonth;
 
-        when(accountRepository.countByCreatedDateBetween(startOfMonth, endOfMonth)).thenReturn(20L);
-        when(accountRepository.countByCreatedDateBetween(startOfLastMonth, endOfLastMonth)).thenReturn(10L);
-        when(accountRepository.count()).thenReturn(100L);
+        when(signupRollup.sumBetween(startOfMonth, endOfMonth)).thenReturn(20L);
+        when(signupRollup.sumBetween(startOfLastMonth, endOfLastMonth)).thenReturn(10L);
+        when(signupRollup.sumAll()).thenReturn(100L);
 
         var result = dashboardService.getUserStats();
 
@@ -160,13 +165,57 @@ class DashboardServiceTest {
 
     @Test
     void testGetSummaryStats() {
-        when(accountRepository.count()).thenReturn(100L);
+        when(signupRollup.sumAll()).thenReturn(100L);
 
         var result = dashboardService.getSummaryStats();
 
         assertNotNull(result);
         assertEquals(100L, result.get("totalAccounts"));
-        verify(accountRepository).count();
+        verify(signupRollup).sumAll();
+    }
+
+    @Test
+    void testGetSignupTimeSeries_queriesOnlyOpenBucketWhenPastIsCached() {
+        LocalDate today = LocalDate.now();
+        String key = DashboardServiceImpl.SIGNUP_SERIES_KEY_PREFIX + "day:all";
+        doReturn(hashOperations).when(redisTemplate).opsForHash();
+        when(hashOperations.multiGet(key, List.of(today.minusDays(2).toString(), today.minusDays(1).toString())))
+                .thenReturn(List.of("4", "6"));
+        when(signupRollup.sumByBucket("day", today, today.plusDays(1)))
+                .thenReturn(List.of(bucket(today, 2L)));
+
+        var result = dashboardService.getSignupTimeSeries(DashboardService.Granularity.DAY, null, today.minusDays(2), today);
+
+        assertEquals(List.of(4L, 6L, 2L), result.stream().map(TimeSeriesPointDto::getCount).toList());
+        verify(hashOperations, never()).putAll(anyString(), anyMap());
+    }
+
+    @Test
+    void testGetSignupTimeSeries_cachesMissingClosedBucketsFromOneQuery() {
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        LocalDate lastMonth = thisMonth.minusMonths(1);
+        String key = DashboardServiceImpl.SIGNUP_SERIES_KEY_PREFIX + "month:" + roleId;
+        when(roleRegistry.findByName("USER")).thenReturn(java.util.Optional.of(role));
+        doReturn(hashOperations).when(redisTemplate).opsForHash();
+        when(hashOperations.multiGet(key, List.of(lastMonth.toString()))).thenReturn(Arrays.asList((Object) null));
+        when(signupRollup.sumByRoleIdAndBucket("month", roleId, lastMonth, thisMonth.plusMonths(1)))
+                .thenReturn(List.of(bucket(thisMonth, 3L)));
+
+        var result = dashboardService.getSignupTimeSeries(DashboardService.Granularity.MONTH, "USER",
+                lastMonth.plusDays(3), LocalDate.now());
+
+        assertEquals(List.of(lastMonth, thisMonth), result.stream().map(TimeSeriesPointDto::getBucketStart).toList());
+        assertEquals(List.of(0L, 3L), result.stream().map(TimeSeriesPointDto::getCount).toList());
+        verify(hashOperations).putAll(key, Map.of(lastMonth.toString(), "0"));
+    }
+
+    @Test
+    void testGetSignupTimeSeries_rejectsReversedRange() {
+        LocalDate today = LocalDate.now();
+
+        assertThrows(IllegalArgumentException.class, () -> dashboardService.getSignupTimeSeries(
+                DashboardService.Granularity.DAY, null, today, today.minusDays(1)));
+        verifyNoInteractions(signupRollup);
     }
 
     @Test
@@ -175,5 +224,19 @@ class DashboardServiceTest {
 
         assertNotNull(result);
     }
+
+    private static AccountSignupDailyRepository.BucketCount bucket(LocalDate start, long total) {
+        return new AccountSignupDailyRepository.BucketCount() {
+            @Override
+            public String getBucket() {
+                return start.toString();
+            }
+
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+        };
+    }
 }
 
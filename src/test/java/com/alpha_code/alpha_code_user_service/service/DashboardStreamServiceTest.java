@@ -0,0 +1,80 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import com.alpha_code.alpha_code_user_service.service.impl.DashboardStreamServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardStreamServiceTest {
+
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @InjectMocks
+    private DashboardStreamServiceImpl dashboardStreamService;
+
+    @Test
+    void tick_skipsWorkWithoutSubscribers() {
+        dashboardStreamService.tick();
+
+        verifyNoInteractions(dashboardService, messagingTemplate);
+    }
+
+    @Test
+    void tick_broadcastsOnlyChangedFields() {
+        dashboardStreamService.handleSubscribe(new SessionSubscribeEvent(this, subscribe("s1", "sub-1")));
+        dashboardStreamService.handleSubscribe(new SessionSubscribeEvent(this, subscribe("s2", "sub-1")));
+        when(dashboardService.getSummaryStats()).thenReturn(Map.of("totalAccounts", 10L));
+        when(dashboardService.getUserStats()).thenReturn(Map.of("newUsersThisMonth", 3L));
+        when(dashboardService.getActiveUserStats()).thenReturn(Map.of("online", 2L), Map.of("online", 5L));
+
+        dashboardStreamService.tick();
+        dashboardStreamService.tick();
+
+        verify(messagingTemplate).convertAndSend(DashboardStreamService.TOPIC,
+                (Object) Map.of("totalAccounts", 10L, "newUsersThisMonth", 3L, "online", 2L));
+        verify(messagingTemplate).convertAndSend(DashboardStreamService.TOPIC, (Object) Map.of("online", 5L));
+        verify(dashboardService, times(2)).getSummaryStats();
+        assertEquals(2, dashboardStreamService.getSubscriberCount());
+    }
+
+    @Test
+    void handleDisconnect_dropsSessionSubscriptions() {
+        dashboardStreamService.handleSubscribe(new SessionSubscribeEvent(this, subscribe("s1", "sub-1")));
+
+        dashboardStreamService.handleDisconnect(
+                new SessionDisconnectEvent(this, subscribe("s1", "sub-1"), "s1", CloseStatus.NORMAL));
+        dashboardStreamService.tick();
+
+        assertEquals(0, dashboardStreamService.getSubscriberCount());
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    private static Message<byte[]> subscribe(String sessionId, String subscriptionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(DashboardStreamService.TOPIC);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
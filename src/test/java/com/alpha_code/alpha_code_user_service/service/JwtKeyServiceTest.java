@@ -0,0 +1,193 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import com.alpha_code.alpha_code_user_service.service.impl.JwtKeyServiceImpl;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtKeyServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @InjectMocks
+    private JwtKeyServiceImpl jwtKeyService;
+
+    // Redis giả lập trong bộ nhớ
+    private final Map<Object, Object> keys = new HashMap<>();
+    private final Map<Object, Object> privateKeys = new HashMap<>();
+    private final Map<String, String> values = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtKeyService, "rotationPeriodMs", 1000L);
+        ReflectionTestUtils.setField(jwtKeyService, "gracePeriodMs", 60_000L);
+        ReflectionTestUtils.setField(jwtKeyService, "encryptionSecret", "test-encryption-secret-of-at-least-32-bytes");
+
+        doReturn(hashOperations).when(redisTemplate).opsForHash();
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(hashOperations.entries(JwtKeyServiceImpl.KEYS_HASH)).thenAnswer(inv -> new HashMap<>(keys));
+        lenient().doAnswer(inv -> hash(inv.getArgument(0)).put(inv.getArgument(1), inv.getArgument(2)))
+                .when(hashOperations).put(anyString(), any(), any());
+        lenient().when(hashOperations.get(eq(JwtKeyServiceImpl.PRIVATE_KEYS_HASH), any()))
+                .thenAnswer(inv -> privateKeys.get(inv.getArgument(1)));
+        lenient().doAnswer(inv -> {
+            Object[] args = inv.getArguments();
+            Map<Object, Object> hash = hash((String) args[0]);
+            long removed = 0;
+            for (int i = 1; i < args.length; i++) {
+                removed += hash.remove(args[i]) != null ? 1 : 0;
+            }
+            return removed;
+        }).when(hashOperations).delete(anyString(), any());
+        when(valueOperations.get(anyString())).thenAnswer(inv -> values.get(inv.<String>getArgument(0)));
+        when(valueOperations.setIfAbsent(eq(JwtKeyServiceImpl.LOCK_KEY), anyString(), any(Duration.class)))
+                .thenAnswer(inv -> values.putIfAbsent(JwtKeyServiceImpl.LOCK_KEY, inv.getArgument(1)) == null);
+        doAnswer(inv -> values.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString());
+        when(redisTemplate.delete(JwtKeyServiceImpl.LOCK_KEY))
+                .thenAnswer(inv -> values.remove(JwtKeyServiceImpl.LOCK_KEY) != null);
+    }
+
+    @Test
+    void init_createsActiveKeyWhenRingIsEmpty() {
+        jwtKeyService.init();
+
+        JwtKeyService.SigningKey active = jwtKeyService.getActiveSigningKey();
+        assertEquals(active.kid(), values.get(JwtKeyServiceImpl.ACTIVE_KID_KEY));
+        assertTrue(jwtKeyService.findVerificationKey(active.kid()).isPresent());
+        assertFalse(values.containsKey(JwtKeyServiceImpl.LOCK_KEY));
+        verify(redisTemplate).convertAndSend(eq(JwtKeyServiceImpl.REFRESH_CHANNEL), anyString());
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> jwks = (List<Map<String, Object>>) jwtKeyService.getJwks().get("keys");
+        assertEquals(1, jwks.size());
+        assertEquals(active.kid(), jwks.get(0).get("kid"));
+        assertEquals("ES256", jwks.get(0).get("alg"));
+        assertFalse(jwks.get(0).containsKey("d"));
+    }
+
+    @Test
+    void rotateIfDue_keepsPreviousKeyForGracePeriod() throws InterruptedException {
+        jwtKeyService.init();
+        JwtKeyService.SigningKey previous = jwtKeyService.getActiveSigningKey();
+        String token = Jwts.builder()
+                .header().keyId(previous.kid()).and()
+                .subject("user")
+                .signWith(previous.privateKey(), Jwts.SIG.ES256)
+                .compact();
+
+        Thread.sleep(1100);
+        jwtKeyService.rotateIfDue();
+
+        JwtKeyService.SigningKey current = jwtKeyService.getActiveSigningKey();
+        assertNotEquals(previous.kid(), current.kid());
+        assertEquals(2, keys.size());
+        // Key đã nghỉ chỉ còn phần public
+        assertEquals(Set.of(current.kid()), privateKeys.keySet());
+
+        var publicKey = jwtKeyService.findVerificationKey(previous.kid()).orElseThrow();
+        assertEquals("user", Jwts.parser().verifyWith(publicKey).build()
+                .parseSignedClaims(token).getPayload().getSubject());
+    }
+
+    @Test
+    void init_storesOnlyEncryptedPrivateKeyInRedis() throws Exception {
+        jwtKeyService.init();
+        JwtKeyService.SigningKey active = jwtKeyService.getActiveSigningKey();
+        String pkcs8 = Base64.getEncoder().encodeToString(active.privateKey().getEncoded());
+
+        assertEquals(3, keys.get(active.kid()).toString().split("\\|").length);
+        assertFalse(keys.get(active.kid()).toString().contains(pkcs8));
+        assertFalse(privateKeys.get(active.kid()).toString().contains(pkcs8));
+
+        // Instance khác đọc cùng Redis nhưng không có encryption key thì chỉ verify được, không ký được
+        JwtKeyServiceImpl other = new JwtKeyServiceImpl(redisTemplate, listenerContainer);
+        ReflectionTestUtils.setField(other, "encryptionKey", new SecretKeySpec(
+                MessageDigest.getInstance("SHA-256").digest("another-secret".getBytes(StandardCharsets.UTF_8)), "AES"));
+        other.reload();
+        assertTrue(other.findVerificationKey(active.kid()).isPresent());
+        assertThrows(IllegalStateException.class, other::getActiveSigningKey);
+    }
+
+    @Test
+    void init_failsWithoutTakingOverWhenEncryptionKeyDiffers() {
+        jwtKeyService.init();
+        JwtKeyService.SigningKey active = jwtKeyService.getActiveSigningKey();
+        Map<Object, Object> keysBefore = new HashMap<>(keys);
+        Map<Object, Object> privateKeysBefore = new HashMap<>(privateKeys);
+
+        // Pod thứ hai dùng cùng Redis nhưng sai jwt.keys.encryption-key, rotation đã tới hạn
+        JwtKeyServiceImpl misconfigured = new JwtKeyServiceImpl(redisTemplate, listenerContainer);
+        ReflectionTestUtils.setField(misconfigured, "rotationPeriodMs", 0L);
+        ReflectionTestUtils.setField(misconfigured, "gracePeriodMs", 60_000L);
+        ReflectionTestUtils.setField(misconfigured, "encryptionSecret", "another-encryption-secret-of-32-bytes!!");
+
+        assertThrows(IllegalStateException.class, misconfigured::init);
+        misconfigured.rotateIfDue();
+
+        assertEquals(active.kid(), values.get(JwtKeyServiceImpl.ACTIVE_KID_KEY));
+        assertEquals(keysBefore, keys);
+        assertEquals(privateKeysBefore, privateKeys);
+        assertTrue(misconfigured.findVerificationKey(active.kid()).isPresent());
+        assertThrows(IllegalStateException.class, misconfigured::getActiveSigningKey);
+
+        jwtKeyService.reload();
+        assertEquals(active.kid(), jwtKeyService.getActiveSigningKey().kid());
+    }
+
+    @Test
+    void rotate_replacesLegacyPlaintextKey() throws Exception {
+        KeyPair legacy = Jwts.SIG.ES256.keyPair().build();
+        Base64.Encoder encoder = Base64.getEncoder();
+        keys.put("legacy", System.currentTimeMillis() + "|0|" + encoder.encodeToString(legacy.getPrivate().getEncoded())
+                + "|" + encoder.encodeToString(legacy.getPublic().getEncoded()));
+        values.put(JwtKeyServiceImpl.ACTIVE_KID_KEY, "legacy");
+
+        jwtKeyService.init();
+
+        assertNotEquals("legacy", jwtKeyService.getActiveSigningKey().kid());
+        String[] parts = keys.get("legacy").toString().split("\\|");
+        assertEquals(3, parts.length);
+        assertTrue(Long.parseLong(parts[1]) > System.currentTimeMillis());
+        assertTrue(jwtKeyService.findVerificationKey("legacy").isPresent());
+    }
+
+    private Map<Object, Object> hash(String name) {
+        return JwtKeyServiceImpl.PRIVATE_KEYS_HASH.equals(name) ? privateKeys : keys;
+    }
+}
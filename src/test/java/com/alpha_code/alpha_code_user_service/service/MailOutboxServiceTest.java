@@ -0,0 +1,142 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import com.alpha_code.alpha_code_user_service.entity.MailOutbox;
+import com.alpha_code.alpha_code_user_service.enums.MailOutboxStatusEnum;
+import com.alpha_code.alpha_code_user_service.repository.MailOutboxRepository;
+import com.alpha_code.alpha_code_user_service.service.impl.MailOutboxServiceImpl;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MailOutboxServiceTest {
+
+    @Mock
+    private MailOutboxRepository repository;
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MailOutboxServiceImpl mailOutboxService;
+
+    @BeforeEach
+    void setUp() {
+        mailOutboxService = new MailOutboxServiceImpl(repository, mailSender, transactionManager, 1);
+        ReflectionTestUtils.setField(mailOutboxService, "batchSize", 10);
+        ReflectionTestUtils.setField(mailOutboxService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(mailOutboxService, "backoffBaseMs", 1000L);
+        ReflectionTestUtils.setField(mailOutboxService, "backoffMaxMs", 60_000L);
+        ReflectionTestUtils.setField(mailOutboxService, "leaseMs", 300_000L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        mailOutboxService.shutdown();
+    }
+
+    @Test
+    void enqueue_savesPendingRowDueNow() {
+        mailOutboxService.enqueue("a@example.com", "Subject", "<p>Body</p>");
+
+        ArgumentCaptor<MailOutbox> captor = ArgumentCaptor.forClass(MailOutbox.class);
+        verify(repository).save(captor.capture());
+        MailOutbox saved = captor.getValue();
+        assertEquals("a@example.com", saved.getRecipient());
+        assertEquals(MailOutboxStatusEnum.PENDING.getCode(), saved.getStatus());
+        assertEquals(0, saved.getAttempts());
+        assertFalse(saved.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        verifyNoInteractions(mailSender);
+    }
+
+    @Test
+    void dispatchDue_sendsClaimedBatchInOneCall() throws Exception {
+        MailOutbox first = pending("a@example.com", 0);
+        MailOutbox second = pending("b@example.com", 0);
+        when(repository.lockDue(any(LocalDateTime.class), eq(10))).thenReturn(List.of(first, second));
+        when(mailSender.createMimeMessage()).thenAnswer(inv -> newMessage());
+
+        mailOutboxService.dispatchDue();
+        verify(repository, timeout(2000)).saveAll(anyList());
+
+        verify(mailSender).send(any(MimeMessage.class), any(MimeMessage.class));
+        assertEquals(MailOutboxStatusEnum.SENT.getCode(), first.getStatus());
+        assertEquals(MailOutboxStatusEnum.SENT.getCode(), second.getStatus());
+        assertNotNull(first.getSentAt());
+    }
+
+    @Test
+    void sendBatch_reschedulesOnlyFailedMessagesWithBackoff() {
+        MailOutbox ok = pending("a@example.com", 0);
+        MailOutbox bad = pending("b@example.com", 1);
+        when(mailSender.createMimeMessage()).thenAnswer(inv -> newMessage());
+        doAnswer(inv -> {
+            MimeMessage[] messages = (MimeMessage[]) inv.getRawArguments()[0];
+            MimeMessage failed = messages[0].getAllRecipients()[0].toString().equals("b@example.com")
+                    ? messages[0] : messages[1];
+            throw new MailSendException(Map.of(failed, new RuntimeException("550 mailbox unavailable")));
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        LocalDateTime before = LocalDateTime.now();
+        ReflectionTestUtils.invokeMethod(mailOutboxService, "sendBatch", List.of(ok, bad));
+
+        assertEquals(MailOutboxStatusEnum.SENT.getCode(), ok.getStatus());
+        assertEquals(MailOutboxStatusEnum.PENDING.getCode(), bad.getStatus());
+        assertEquals(2, bad.getAttempts());
+        // attempt thứ 2 -> base * 2
+        assertFalse(bad.getNextAttemptAt().isBefore(before.plusSeconds(2)));
+        assertTrue(bad.getLastError().contains("550"));
+    }
+
+    @Test
+    void sendBatch_marksFailedAfterMaxAttempts() {
+        MailOutbox mail = pending("a@example.com", 2);
+        when(mailSender.createMimeMessage()).thenAnswer(inv -> newMessage());
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(MimeMessage[].class));
+
+        ReflectionTestUtils.invokeMethod(mailOutboxService, "sendBatch", List.of(mail));
+
+        assertEquals(MailOutboxStatusEnum.FAILED.getCode(), mail.getStatus());
+        assertEquals(3, mail.getAttempts());
+        verify(repository).saveAll(List.of(mail));
+    }
+
+    private static MailOutbox pending(String to, int attempts) {
+        return MailOutbox.builder()
+                .id(UUID.randomUUID())
+                .recipient(to)
+                .subject("Subject")
+                .body("<p>Body</p>")
+                .status(MailOutboxStatusEnum.PENDING.getCode())
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .createdDate(LocalDateTime.now())
+                .build();
+    }
+
+    private static MimeMessage newMessage() {
+        return new MimeMessage(Session.getInstance(new Properties()));
+    }
+}
@@ -3,18 +3,12 @@ package com.alpha_code.alpha_code_user_service.service;
 import com.alpha_code.alpha_code_user_service.service.impl.MailServiceImpl;
 import com.alpha_code.alpha_code_user_service.util.EmailBody;
 import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 
-import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -22,21 +16,16 @@ import static org.mockito.Mockito.*;
 class MailServiceTest {
 
     @Mock
-    private JavaMailSender mailSender;
+    private MailOutboxService mailOutboxService;
 
     @Mock
     private EmailBody emailBody;
 
-    @Mock
-    private MimeMessage mimeMessage;
-
     @InjectMocks
     private MailServiceImpl mailService;
 
     @Test
     void testSendPaymentSuccessEmail_Success() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-
         mailService.sendPaymentSuccessEmail(
             "test@example.com",
             "Test User",
@@ -45,13 +34,21 @@ class MailServiceTest {
             100000
         );
 
-        verify(mailSender).createMimeMessage();
-        verify(mailSender).send(any(MimeMessage.class));
+        verify(mailOutboxService).enqueue(eq("test@example.com"),
+            eq("Xác nhận thanh toán thành công - AlphaCode"), contains("Test Service"));
+    }
+
+    @Test
+    void testSendPaymentSuccessEmail_EscapesValues() throws MessagingException {
+        mailService.sendPaymentSuccessEmail("test@example.com", "<script>x</script>", "A & B", 1L, 1000);
+
+        verify(mailOutboxService).enqueue(eq("test@example.com"), anyString(), argThat(body ->
+            body.contains("&lt;script&gt;x&lt;/script&gt;") && body.contains("A &amp; B")
+                && body.contains("#1") && !body.contains("{{")));
     }
 
     @Test
     void testSendCourseCompletedEmail_Success() throws MessagingException {
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
         when(emailBody.getCourseCompletedEmailBody(anyString(), anyString(), anyString(), anyString()))
             .thenReturn("<html>Course completed</html>");
 
@@ -63,8 +60,7 @@ class MailServiceTest {
             "account123"
         );
 
-        verify(mailSender).createMimeMessage();
-        verify(mailSender).send(any(MimeMessage.class));
+        verify(mailOutboxService).enqueue("test@example.com",
+            "Chúc mừng bạn đã hoàn thành khóa học - AlphaCode", "<html>Course completed</html>");
     }
 }
-
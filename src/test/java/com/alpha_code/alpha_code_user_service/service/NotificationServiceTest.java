@@ -0,0 +1,654 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import com.alpha_code.alpha_code_user_service.dto.NotificationDto;
+import com.alpha_code.alpha_code_user_service.exception.ResourceNotFoundException;
+import com.alpha_code.alpha_code_user_service.publisher.NotificationPublisher;
+import com.alpha_code.alpha_code_user_service.repository.AccountRepository;
+import com.alpha_code.alpha_code_user_service.service.impl.NotificationServiceImpl;
+import com.alpha_code.alpha_code_user_service.util.NotificationCursor;
+import com.alpha_code.alpha_code_user_service.util.NotificationRecordCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private NotificationPublisher notificationPublisher;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private MailService mailService;
+
+    @Mock
+    private NotificationArchiveService archiveService;
+
+    @Mock
+    private RedisTemplate<String, byte[]> recordRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, byte[]> valueOperations;
+
+    @Mock
+    private ValueOperations<String, String> stringValueOperations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final NotificationRecordCodec recordCodec =
+            new NotificationRecordCodec(objectMapper, NotificationRecordCodec.Format.PROTOBUF);
+
+    private NotificationServiceImpl notificationService;
+
+    private final UUID id = UUID.randomUUID();
+    private final UUID accountId = UUID.randomUUID();
+    private NotificationDto stored;
+    private byte[] record;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        notificationService = new NotificationServiceImpl(redisTemplate, recordRedisTemplate, notificationPublisher,
+                accountRepository, mailService, recordCodec, archiveService);
+        ReflectionTestUtils.setField(notificationService, "maxPerAccount", 200L);
+        ReflectionTestUtils.setField(notificationService, "maxAgeDays", 90L);
+        stored = new NotificationDto();
+        stored.setId(id);
+        stored.setAccountId(accountId);
+        stored.setTitle("Title");
+        stored.setMessage("Message");
+        stored.setType(1);
+        stored.setStatus(1);
+        stored.setIsRead(false);
+        stored.setCreatedDate(LocalDateTime.of(2026, 10, 1, 8, 0));
+        record = recordCodec.encode(stored);
+    }
+
+    @Test
+    void getAll_withStatusReadsStatusIndexPage() {
+        String statusKey = "notifications:account:" + accountId + ":status:1";
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(zSetOperations.zCard(statusKey)).thenReturn(11L);
+        when(zSetOperations.reverseRange(statusKey, 10, 19)).thenReturn(new LinkedHashSet<>(List.of(id.toString())));
+        when(valueOperations.multiGet(List.of("notification:" + id))).thenReturn(List.of(record));
+
+        var result = notificationService.getAll(2, 10, accountId, 1);
+
+        assertEquals(11, result.getTotalCount());
+        assertEquals(1, result.getData().size());
+        verify(zSetOperations, never()).zCard("notifications:account:" + accountId);
+        verifyNoInteractions(archiveService);
+    }
+
+    @Test
+    void getAll_continuesIntoColdTierPastHotWindow() {
+        String accountKey = "notifications:account:" + accountId;
+        LocalDateTime oldestHot = LocalDateTime.of(2026, 9, 1, 0, 0);
+        NotificationDto archived = new NotificationDto();
+        archived.setId(UUID.randomUUID());
+        archived.setCreatedDate(oldestHot.minusDays(1));
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(zSetOperations.zCard(accountKey)).thenReturn(1L);
+        when(setOperations.isMember("notifications:cold-accounts", accountId.toString())).thenReturn(true);
+        when(zSetOperations.rangeWithScores(accountKey, 0, 0)).thenReturn(Set.of(
+                ZSetOperations.TypedTuple.of(id.toString(), (double) oldestHot.toInstant(ZoneOffset.UTC).toEpochMilli())));
+        when(archiveService.count(accountId, null, oldestHot)).thenReturn(4L);
+        when(zSetOperations.reverseRange(accountKey, 0, 2)).thenReturn(new LinkedHashSet<>(List.of(id.toString())));
+        when(valueOperations.multiGet(List.of("notification:" + id))).thenReturn(List.of(record));
+        when(archiveService.findPage(accountId, null, oldestHot, 0, 2)).thenReturn(List.of(archived));
+
+        var result = notificationService.getAll(1, 3, accountId, null);
+
+        assertEquals(5, result.getTotalCount());
+        assertEquals(List.of(id, archived.getId()), result.getData().stream().map(NotificationDto::getId).toList());
+    }
+
+    @Test
+    void getAll_globalViewMergesRowsArchivedByOneAccountsCap() throws Exception {
+        // Account A vượt cap nên bản lúc 2s đã xuống kho lạnh; account B không vượt nên bản lúc 1s vẫn trong Redis
+        UUID newestOfB = UUID.randomUUID();
+        UUID oldestOfB = UUID.randomUUID();
+        NotificationDto cappedOfA = archivedAt(LocalDateTime.of(1970, 1, 1, 0, 0, 2));
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(zSetOperations.zCard("notifications:all")).thenReturn(2L);
+        when(setOperations.isMember("notifications:cold-accounts", "all")).thenReturn(true);
+        when(archiveService.count(null, null, null)).thenReturn(1L);
+        when(zSetOperations.reverseRangeWithScores("notifications:all", 0, 2)).thenReturn(tuples(newestOfB, 3000, oldestOfB, 1000));
+        when(archiveService.findPage(null, null, null, 0, 3)).thenReturn(List.of(cappedOfA));
+        when(valueOperations.multiGet(List.of("notification:" + newestOfB, "notification:" + oldestOfB)))
+                .thenReturn(List.of(recordOf(newestOfB), recordOf(oldestOfB)));
+
+        var result = notificationService.getAll(1, 3, null, null);
+
+        assertEquals(3, result.getTotalCount());
+        assertEquals(List.of(newestOfB, cappedOfA.getId(), oldestOfB),
+                result.getData().stream().map(NotificationDto::getId).toList());
+    }
+
+    @Test
+    void getFeed_globalViewMergesColdRowsNewerThanHotOnes() throws Exception {
+        UUID newestOfB = UUID.randomUUID();
+        UUID oldestOfB = UUID.randomUUID();
+        NotificationDto cappedOfA = archivedAt(LocalDateTime.of(1970, 1, 1, 0, 0, 2));
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(setOperations.isMember("notifications:cold-accounts", "all")).thenReturn(true);
+        when(zSetOperations.reverseRangeWithScores("notifications:all", 0, 2)).thenReturn(tuples(newestOfB, 3000, oldestOfB, 1000));
+        when(valueOperations.multiGet(List.of("notification:" + newestOfB, "notification:" + oldestOfB)))
+                .thenReturn(List.of(recordOf(newestOfB), recordOf(oldestOfB)));
+        when(archiveService.findOlder(null, null, null, null, 3)).thenReturn(List.of(cappedOfA));
+
+        var first = notificationService.getFeed(null, null, null, 2);
+
+        assertEquals(List.of(newestOfB, cappedOfA.getId()), first.getData().stream().map(NotificationDto::getId).toList());
+        assertTrue(first.isHasMore());
+
+        // Cursor đã ở kho lạnh nhưng bản cũ hơn của B vẫn nằm trong Redis
+        when(zSetOperations.reverseRangeByScoreWithScores("notifications:all", Double.NEGATIVE_INFINITY, 2000.0, 0, 3))
+                .thenReturn(tuples(oldestOfB, 1000));
+        when(valueOperations.multiGet(List.of("notification:" + oldestOfB))).thenReturn(List.of(recordOf(oldestOfB)));
+        when(archiveService.findOlder(null, null, LocalDateTime.of(1970, 1, 1, 0, 0, 2), cappedOfA.getId(), 3))
+                .thenReturn(List.of());
+
+        var second = notificationService.getFeed(null, null, first.getNextCursor(), 2);
+
+        assertEquals(List.of(oldestOfB), second.getData().stream().map(NotificationDto::getId).toList());
+        assertFalse(second.isHasMore());
+    }
+
+    @Test
+    void getFeed_firstPageReturnsNextAndSinceCursors() throws Exception {
+        String accountKey = "notifications:account:" + accountId;
+        UUID newest = UUID.randomUUID();
+        UUID middle = UUID.randomUUID();
+        UUID oldest = UUID.randomUUID();
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(zSetOperations.reverseRangeWithScores(accountKey, 0, 2)).thenReturn(tuples(
+                newest, 3000, middle, 2000, oldest, 1000));
+        when(valueOperations.multiGet(List.of("notification:" + newest, "notification:" + middle, "notification:" + oldest)))
+                .thenReturn(List.of(recordOf(newest), recordOf(middle), recordOf(oldest)));
+
+        var result = notificationService.getFeed(accountId, null, null, 2);
+
+        assertEquals(List.of(newest, middle), result.getData().stream().map(NotificationDto::getId).toList());
+        assertTrue(result.isHasMore());
+        assertEquals(NotificationCursor.hot(2000, middle), NotificationCursor.decode(result.getNextCursor()));
+        assertEquals(NotificationCursor.hot(3000, newest), NotificationCursor.decode(result.getSinceCursor()));
+        verify(zSetOperations, never()).reverseRange(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void getFeed_nextPageSkipsItemsAtCursorAndContinuesIntoColdTier() throws Exception {
+        String accountKey = "notifications:account:" + accountId;
+        UUID seen = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+        UUID sameScoreSeen = UUID.fromString("00000000-0000-0000-0000-00000000000c");
+        UUID sameScoreNext = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+        NotificationDto archived = new NotificationDto();
+        archived.setId(UUID.randomUUID());
+        archived.setCreatedDate(LocalDateTime.of(1970, 1, 1, 0, 0, 1));
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(zSetOperations.reverseRangeByScoreWithScores(accountKey, Double.NEGATIVE_INFINITY, 2000.0, 0, 3))
+                .thenReturn(tuples(sameScoreSeen, 2000, seen, 2000, sameScoreNext, 2000));
+        when(valueOperations.multiGet(List.of("notification:" + sameScoreNext))).thenReturn(List.of(recordOf(sameScoreNext)));
+        when(setOperations.isMember("notifications:cold-accounts", accountId.toString())).thenReturn(true);
+        when(zSetOperations.rangeWithScores(accountKey, 0, 0)).thenReturn(tuples(sameScoreNext, 2000));
+        when(archiveService.findOlder(accountId, null, LocalDateTime.of(1970, 1, 1, 0, 0, 2), sameScoreNext, 2))
+                .thenReturn(List.of(archived));
+
+        var result = notificationService.getFeed(accountId, null, NotificationCursor.hot(2000, seen).encode(), 2);
+
+        assertEquals(List.of(sameScoreNext, archived.getId()), result.getData().stream().map(NotificationDto::getId).toList());
+        assertFalse(result.isHasMore());
+        assertNull(result.getNextCursor());
+        assertNull(result.getSinceCursor());
+    }
+
+    @Test
+    void getFeed_doesNotRepeatItemsArchivedBetweenPages() throws Exception {
+        String accountKey = "notifications:account:" + accountId;
+        UUID newest = UUID.randomUUID();
+        UUID middle = UUID.randomUUID();
+        UUID oldest = UUID.randomUUID();
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(zSetOperations.reverseRangeWithScores(accountKey, 0, 2)).thenReturn(tuples(
+                newest, 3000, middle, 2000, oldest, 1000));
+        when(valueOperations.multiGet(List.of("notification:" + newest, "notification:" + middle, "notification:" + oldest)))
+                .thenReturn(List.of(recordOf(newest), recordOf(middle), recordOf(oldest)));
+
+        var first = notificationService.getFeed(accountId, null, null, 2);
+        assertEquals(List.of(newest, middle), first.getData().stream().map(NotificationDto::getId).toList());
+
+        // Retention chuyển middle và oldest xuống kho lạnh trước khi client lấy trang sau
+        NotificationDto archivedOldest = new NotificationDto();
+        archivedOldest.setId(oldest);
+        archivedOldest.setCreatedDate(LocalDateTime.of(1970, 1, 1, 0, 0, 1));
+        when(zSetOperations.reverseRangeByScoreWithScores(accountKey, Double.NEGATIVE_INFINITY, 2000.0, 0, 3))
+                .thenReturn(new LinkedHashSet<>());
+        when(setOperations.isMember("notifications:cold-accounts", accountId.toString())).thenReturn(true);
+        when(zSetOperations.rangeWithScores(accountKey, 0, 0)).thenReturn(tuples(newest, 3000));
+        when(archiveService.findOlder(accountId, null, LocalDateTime.of(1970, 1, 1, 0, 0, 2), middle, 3))
+                .thenReturn(List.of(archivedOldest));
+
+        var second = notificationService.getFeed(accountId, null, first.getNextCursor(), 2);
+
+        assertEquals(List.of(oldest), second.getData().stream().map(NotificationDto::getId).toList());
+        assertFalse(second.isHasMore());
+        verify(archiveService).findOlder(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getFeedSince_returnsOnlyNewerItemsNewestFirst() throws Exception {
+        String accountKey = "notifications:account:" + accountId;
+        UUID seen = UUID.randomUUID();
+        UUID newer = UUID.randomUUID();
+        UUID newest = UUID.randomUUID();
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(zSetOperations.rangeByScoreWithScores(accountKey, 2000.0, Double.POSITIVE_INFINITY, 0, 3))
+                .thenReturn(tuples(seen, 2000, newer, 3000, newest, 4000));
+        when(valueOperations.multiGet(List.of("notification:" + newer, "notification:" + newest)))
+                .thenReturn(List.of(recordOf(newer), recordOf(newest)));
+
+        var result = notificationService.getFeedSince(accountId, null, NotificationCursor.hot(2000, seen).encode(), 2);
+
+        assertEquals(List.of(newest, newer), result.getData().stream().map(NotificationDto::getId).toList());
+        assertFalse(result.isHasMore());
+        assertEquals(NotificationCursor.hot(4000, newest), NotificationCursor.decode(result.getSinceCursor()));
+        verifyNoInteractions(archiveService);
+    }
+
+    @Test
+    void getFeed_rejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> notificationService.getFeed(accountId, null, "not-a-cursor", 10));
+    }
+
+    @Test
+    void getById_fallsBackToColdTier() {
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(archiveService.findById(id)).thenReturn(Optional.of(stored));
+
+        assertEquals(stored.getCreatedDate().plusHours(7), notificationService.getById(id).getCreatedDate());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void enforceRetention_archivesExpiredBeforeRemovingFromRedis() {
+        String account = "notifications:account:" + accountId;
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(zSetOperations.rangeByScore(eq("notifications:all"), eq(Double.NEGATIVE_INFINITY), anyDouble(), eq(0L), eq(500L)))
+                .thenReturn(new LinkedHashSet<>(List.of(id.toString())));
+        when(valueOperations.multiGet(List.of("notification:" + id))).thenReturn(List.of(record));
+        when(redisTemplate.opsForValue()).thenReturn(stringValueOperations);
+        when(stringValueOperations.multiGet(List.of("notifications:deleted:" + id))).thenReturn(Arrays.asList((String) null));
+        when(recordRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+
+        notificationService.enforceRetention();
+
+        InOrder inOrder = inOrder(archiveService, recordRedisTemplate);
+        inOrder.verify(archiveService).archive(argThat(batch -> batch.size() == 1 && batch.get(0).getId().equals(id)));
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        inOrder.verify(recordRedisTemplate).execute(any(RedisScript.class), keys.capture(), args.capture());
+        // Bản chưa đọc: bộ đếm chưa đọc ở kho lạnh được tăng cùng lúc với việc gỡ khỏi Redis
+        assertEquals(List.of("notifications:list-gen:all", "notifications:list-gen:" + accountId, "notification:" + id,
+                        "notifications:all", "notifications:all:status:1", account, account + ":status:1", account + ":unread",
+                        account + ":cold-unread"),
+                keys.getValue());
+        assertEquals("5", new String((byte[]) args.getValue()[1], StandardCharsets.UTF_8));
+        assertArrayEquals(record, (byte[]) args.getValue()[2]);
+        assertEquals("1", new String((byte[]) args.getValue()[4], StandardCharsets.UTF_8));
+        verify(setOperations).add("notifications:cold-accounts", "all", accountId.toString());
+        verifyNoInteractions(notificationPublisher);
+    }
+
+    @Test
+    void enforceRetention_keepsRedisCopyWhenColdTierFails() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(setOperations.pop("notifications:retention:over-cap", 500)).thenReturn(List.of(accountId.toString()), List.of());
+        when(zSetOperations.zCard("notifications:account:" + accountId)).thenReturn(201L);
+        when(zSetOperations.range("notifications:account:" + accountId, 0, 0)).thenReturn(new LinkedHashSet<>(List.of(id.toString())));
+        when(valueOperations.multiGet(List.of("notification:" + id))).thenReturn(List.of(record));
+        doThrow(new RuntimeException("db down")).when(archiveService).archive(anyList());
+
+        notificationService.enforceRetention();
+
+        verify(recordRedisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        verify(setOperations).add("notifications:retention:over-cap", accountId.toString());
+    }
+
+    @Test
+    void enforceRetention_dropsArchivedCopyOfNotificationDeletedMidBatch() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(redisTemplate.opsForValue()).thenReturn(stringValueOperations);
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(zSetOperations.rangeByScore(eq("notifications:all"), eq(Double.NEGATIVE_INFINITY), anyDouble(), eq(0L), eq(500L)))
+                .thenReturn(new LinkedHashSet<>(List.of(id.toString())));
+        when(valueOperations.multiGet(List.of("notification:" + id))).thenReturn(List.of(record));
+        // delete chạy giữa lúc đọc lô và lúc chép xuống Postgres
+        when(stringValueOperations.multiGet(List.of("notifications:deleted:" + id))).thenReturn(List.of("1"));
+
+        notificationService.enforceRetention();
+
+        InOrder inOrder = inOrder(archiveService);
+        inOrder.verify(archiveService).archive(anyList());
+        inOrder.verify(archiveService).delete(id);
+        verify(recordRedisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void delete_alsoRemovesCopyArchivedByInFlightRetentionBatch() {
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForValue()).thenReturn(stringValueOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(valueOperations.get("notification:" + id)).thenReturn(record);
+        when(recordRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+        // Lô retention đã upsert bản này và đánh dấu account trước khi delete gỡ nó khỏi Redis
+        when(setOperations.isMember("notifications:cold-accounts", accountId.toString())).thenReturn(true);
+
+        notificationService.delete(id);
+
+        verify(stringValueOperations).set(eq("notifications:deleted:" + id), eq("1"), any(Duration.class));
+        verify(archiveService).delete(id);
+        verify(stringValueOperations, never()).increment(anyString(), anyLong());
+    }
+
+    @Test
+    void delete_fallsBackToColdTierWhenRetentionMovedItFirst() {
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForValue()).thenReturn(stringValueOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(valueOperations.get("notification:" + id)).thenReturn(record, (byte[]) null);
+        when(recordRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L, 1L);
+        when(archiveService.delete(id)).thenReturn(Optional.of(stored));
+
+        notificationService.delete(id);
+
+        verify(archiveService).delete(id);
+        verify(stringValueOperations).increment("notifications:account:" + accountId + ":cold-unread", -1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void changeStatus_movesIdBetweenStatusIndexesInOneScript() {
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("notification:" + id)).thenReturn(record);
+        when(recordRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+
+        var result = notificationService.changeStatus(id, 0);
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(recordRedisTemplate).execute(any(RedisScript.class), keys.capture(), args.capture());
+        String account = "notifications:account:" + accountId;
+        assertEquals(List.of("notification:" + id, "notifications:all:status:1", account + ":status:1",
+                        "notifications:all", "notifications:all:status:0", account, account + ":status:0", account + ":unread",
+                        "notifications:list-gen:all", "notifications:list-gen:" + accountId),
+                keys.getValue());
+        assertArrayEquals(record, (byte[]) args.getValue()[0]);
+        assertEquals("2", new String((byte[]) args.getValue()[4], StandardCharsets.UTF_8));
+        assertEquals("5", new String((byte[]) args.getValue()[5], StandardCharsets.UTF_8));
+        assertEquals(0, result.getStatus());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readNotification_retriesWhenChangedConcurrently() {
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("notification:" + id)).thenReturn(record);
+        when(recordRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L, 1L);
+
+        var result = notificationService.readNotification(id);
+
+        assertTrue(result.getIsRead());
+        verify(valueOperations, times(2)).get("notification:" + id);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readNotification_pushesNewUnreadCount() {
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(valueOperations.get("notification:" + id)).thenReturn(record);
+        when(recordRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+        when(zSetOperations.zCard("notifications:account:" + accountId + ":unread")).thenReturn(4L);
+        when(redisTemplate.opsForValue()).thenReturn(stringValueOperations);
+
+        notificationService.readNotification(id);
+
+        verify(notificationPublisher).sendUnreadCount(accountId, 4L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void changeStatus_doesNotPushUnreadCountWhenReadStateUnchanged() {
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("notification:" + id)).thenReturn(record);
+        when(recordRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+
+        notificationService.changeStatus(id, 0);
+
+        verifyNoInteractions(notificationPublisher);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readAllNotifications_marksUnreadBatchInOneScriptWithoutKeysScan() throws Exception {
+        UUID missingId = UUID.randomUUID();
+        String account = "notifications:account:" + accountId;
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(zSetOperations.range(account + ":unread", 0, -1))
+                .thenReturn(new LinkedHashSet<>(List.of(id.toString(), missingId.toString())));
+        when(valueOperations.multiGet(List.of("notification:" + id, "notification:" + missingId)))
+                .thenReturn(Arrays.asList(record, null));
+        when(recordRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(List.of(1L, List.of()));
+
+        var result = notificationService.readAllNotifications(accountId);
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(recordRedisTemplate, times(1)).execute(any(RedisScript.class), keys.capture(), args.capture());
+        assertEquals(List.of(account + ":unread", account + ":read", "notifications:list-gen:" + accountId,
+                "notifications:list-gen:all", "notification:" + id, "notification:" + missingId), keys.getValue());
+        assertEquals(8, args.getValue().length);
+        assertTrue(recordCodec.decode((byte[]) args.getValue()[1]).getIsRead());
+        assertEquals(1L, result.get("count"));
+        verify(redisTemplate, never()).keys(anyString());
+        verify(valueOperations, never()).set(anyString(), any(byte[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readAllNotifications_reloadsAndRerunsNotificationsChangedBeforeScript() throws Exception {
+        UUID otherId = UUID.randomUUID();
+        NotificationDto other = new NotificationDto();
+        other.setId(otherId);
+        other.setAccountId(accountId);
+        other.setIsRead(false);
+        other.setCreatedDate(stored.getCreatedDate());
+        stored.setStatus(0);
+        byte[] changed = recordCodec.encode(stored);
+        String account = "notifications:account:" + accountId;
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(zSetOperations.range(account + ":unread", 0, -1))
+                .thenReturn(new LinkedHashSet<>(List.of(id.toString(), otherId.toString())));
+        when(valueOperations.multiGet(List.of("notification:" + id, "notification:" + otherId)))
+                .thenReturn(List.of(record, recordCodec.encode(other)));
+        // id bị đổi status giữa MGET và script
+        when(valueOperations.multiGet(List.of("notification:" + id))).thenReturn(List.of(changed));
+        when(recordRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, List.of(id.toString().getBytes(StandardCharsets.UTF_8))), List.of(1L, List.of()));
+
+        var result = notificationService.readAllNotifications(accountId);
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(recordRedisTemplate, times(2)).execute(any(RedisScript.class), keys.capture(), args.capture());
+        assertEquals("notification:" + id, keys.getValue().get(4));
+        assertEquals(5, keys.getValue().size());
+        assertArrayEquals(changed, (byte[]) args.getValue()[0]);
+        assertEquals(2L, result.get("count"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readAllNotifications_failsWhenNotificationKeepsChanging() {
+        String account = "notifications:account:" + accountId;
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(zSetOperations.range(account + ":unread", 0, -1)).thenReturn(new LinkedHashSet<>(List.of(id.toString())));
+        when(valueOperations.multiGet(List.of("notification:" + id))).thenReturn(List.of(record));
+        when(recordRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, List.of(id.toString().getBytes(StandardCharsets.UTF_8))));
+
+        assertThrows(RuntimeException.class, () -> notificationService.readAllNotifications(accountId));
+
+        verify(recordRedisTemplate, times(3)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void getUnreadCount_isCardinalityOfUnreadIndex() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForValue()).thenReturn(stringValueOperations);
+        when(zSetOperations.zCard("notifications:account:" + accountId + ":unread")).thenReturn(7L);
+
+        assertEquals(7L, notificationService.getUnreadCount(accountId));
+    }
+
+    @Test
+    void getUnreadCount_includesUnreadMovedToColdTier() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForValue()).thenReturn(stringValueOperations);
+        when(zSetOperations.zCard("notifications:account:" + accountId + ":unread")).thenReturn(7L);
+        when(stringValueOperations.get("notifications:account:" + accountId + ":cold-unread")).thenReturn("3");
+
+        assertEquals(10L, notificationService.getUnreadCount(accountId));
+    }
+
+    @Test
+    void readNotification_inColdTierDecrementsColdUnreadCounter() {
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForValue()).thenReturn(stringValueOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(archiveService.markRead(id)).thenReturn(Optional.of(stored));
+        when(zSetOperations.zCard("notifications:account:" + accountId + ":unread")).thenReturn(0L);
+        when(stringValueOperations.get("notifications:account:" + accountId + ":cold-unread")).thenReturn("2");
+
+        notificationService.readNotification(id);
+
+        verify(stringValueOperations).increment("notifications:account:" + accountId + ":cold-unread", -1);
+        verify(notificationPublisher).sendUnreadCount(accountId, 2L);
+    }
+
+    @Test
+    void readNotification_alreadyReadInColdTierLeavesCounter() {
+        stored.setIsRead(true);
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(archiveService.markRead(id)).thenReturn(Optional.empty());
+        when(archiveService.findById(id)).thenReturn(Optional.of(stored));
+
+        assertTrue(notificationService.readNotification(id).getIsRead());
+        verifyNoInteractions(notificationPublisher);
+        verify(redisTemplate, never()).opsForValue();
+    }
+
+    @Test
+    void getById_readsRecordsWrittenInEitherFormat() throws Exception {
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("notification:" + id)).thenReturn(objectMapper.writeValueAsBytes(stored), record);
+
+        var fromJson = notificationService.getById(id);
+        var fromProtobuf = notificationService.getById(id);
+
+        assertEquals(fromJson, fromProtobuf);
+        assertEquals(stored.getCreatedDate().plusHours(7), fromProtobuf.getCreatedDate());
+        assertTrue(record.length < objectMapper.writeValueAsBytes(stored).length);
+    }
+
+    @Test
+    void readNotification_throwsWhenMissing() {
+        when(recordRedisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        assertThrows(ResourceNotFoundException.class, () -> notificationService.readNotification(id));
+    }
+
+    private Set<ZSetOperations.TypedTuple<String>> tuples(Object... idsAndScores) {
+        Set<ZSetOperations.TypedTuple<String>> tuples = new LinkedHashSet<>();
+        for (int i = 0; i < idsAndScores.length; i += 2) {
+            tuples.add(ZSetOperations.TypedTuple.of(idsAndScores[i].toString(), ((Number) idsAndScores[i + 1]).doubleValue()));
+        }
+        return tuples;
+    }
+
+    private NotificationDto archivedAt(LocalDateTime createdDate) {
+        NotificationDto dto = new NotificationDto();
+        dto.setId(UUID.randomUUID());
+        dto.setAccountId(UUID.randomUUID());
+        dto.setCreatedDate(createdDate);
+        return dto;
+    }
+
+    private byte[] recordOf(UUID notificationId) throws Exception {
+        NotificationDto dto = recordCodec.decode(record);
+        dto.setId(notificationId);
+        return recordCodec.encode(dto);
+    }
+}
@@ -0,0 +1,81 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import com.alpha_code.alpha_code_user_service.exception.ServiceUnavailableException;
+import com.alpha_code.alpha_code_user_service.service.impl.PasswordHashingServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+
+    private PasswordHashingServiceImpl service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void encodeAndMatch_useConfiguredStrength() {
+        service = new PasswordHashingServiceImpl(new BCryptPasswordEncoder(4), 4, 2, 4, 10_000, 1);
+
+        String hash = service.encode("secret");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(service.matches("secret", hash));
+        assertFalse(service.matches("other", hash));
+        assertFalse(service.matches("secret", ""));
+    }
+
+    @Test
+    void needsRehash_whenStoredCostDiffers() {
+        service = new PasswordHashingServiceImpl(new BCryptPasswordEncoder(4), 4, 1, 1, 10_000, 1);
+
+        assertFalse(service.needsRehash(new BCryptPasswordEncoder(4).encode("secret")));
+        assertTrue(service.needsRehash(new BCryptPasswordEncoder(5).encode("secret")));
+        assertFalse(service.needsRehash("not-a-bcrypt-hash"));
+        assertFalse(service.needsRehash(null));
+    }
+
+    @Test
+    void encode_rejectsWith503WhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BCryptPasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        service = new PasswordHashingServiceImpl(blockingEncoder, 4, 1, 1, 10_000, 3);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("b"));
+        while (service.getStats().get("queued").equals(0)) {
+            Thread.onSpinWait();
+        }
+
+        ServiceUnavailableException ex = assertThrows(ServiceUnavailableException.class, () -> service.encode("c"));
+        assertEquals(3, ex.getRetryAfterSeconds());
+        assertEquals(1L, service.getStats().get("rejected"));
+
+        release.countDown();
+        assertNotNull(running.get(5, TimeUnit.SECONDS));
+        assertNotNull(queued.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,93 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import com.alpha_code.alpha_code_user_service.grpc.client.PaymentServiceClient;
+import com.alpha_code.alpha_code_user_service.service.impl.PaymentKeyServiceImpl;
+import com.google.common.util.concurrent.Futures;
+import io.grpc.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import payment.GetKeyResponse;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentKeyServiceTest {
+
+    @Mock
+    private PaymentServiceClient paymentServiceClient;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @InjectMocks
+    private PaymentKeyServiceImpl paymentKeyService;
+
+    private final UUID accountId = UUID.randomUUID();
+    private final String cacheKey = PaymentKeyServiceImpl.KEY_PREFIX + accountId;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(paymentKeyService, "deadlineMs", 800L);
+        ReflectionTestUtils.setField(paymentKeyService, "cacheTtlMs", 60_000L);
+        ReflectionTestUtils.setField(paymentKeyService, "staleTtlMs", 3_600_000L);
+        ReflectionTestUtils.setField(paymentKeyService, "failureThreshold", 2);
+        ReflectionTestUtils.setField(paymentKeyService, "openMs", 60_000L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void getKeyAsync_returnsFreshCachedKeyWithoutCallingPayment() {
+        when(valueOperations.get(cacheKey)).thenReturn(System.currentTimeMillis() + "|cached-key");
+
+        assertEquals("cached-key", paymentKeyService.getKeyAsync(accountId).join());
+        verifyNoInteractions(paymentServiceClient);
+    }
+
+    @Test
+    void getKeyAsync_fetchesAndCachesOnMiss() {
+        when(paymentServiceClient.getKeyByAccountIdAsync(accountId, 800L))
+                .thenReturn(Futures.immediateFuture(GetKeyResponse.newBuilder().setKey("new-key").build()));
+
+        assertEquals("new-key", paymentKeyService.getKeyAsync(accountId).join());
+        verify(valueOperations).set(eq(cacheKey), endsWith("|new-key"), eq(Duration.ofMillis(3_600_000L)));
+    }
+
+    @Test
+    void getKeyAsync_fallsBackToStaleKeyOnFailure() {
+        long stale = System.currentTimeMillis() - 120_000L;
+        when(valueOperations.get(cacheKey)).thenReturn(stale + "|stale-key");
+        when(paymentServiceClient.getKeyByAccountIdAsync(accountId, 800L))
+                .thenReturn(Futures.immediateFailedFuture(Status.DEADLINE_EXCEEDED.asRuntimeException()));
+
+        assertEquals("stale-key", paymentKeyService.getKeyAsync(accountId).join());
+    }
+
+    @Test
+    void getKeyAsync_opensCircuitAfterConsecutiveFailures() {
+        when(paymentServiceClient.getKeyByAccountIdAsync(accountId, 800L))
+                .thenReturn(Futures.immediateFailedFuture(Status.UNAVAILABLE.asRuntimeException()));
+
+        assertEquals("", paymentKeyService.getKeyAsync(accountId).join());
+        assertEquals("", paymentKeyService.getKeyAsync(accountId).join());
+        assertEquals("", paymentKeyService.getKeyAsync(accountId).join());
+
+        verify(paymentServiceClient, times(2)).getKeyByAccountIdAsync(accountId, 800L);
+        assertEquals("open", paymentKeyService.getStats().get("circuit"));
+        assertEquals(1L, paymentKeyService.getStats().get("shortCircuited"));
+    }
+}
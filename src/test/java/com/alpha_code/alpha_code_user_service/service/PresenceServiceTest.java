@@ -0,0 +1,127 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import com.alpha_code.alpha_code_user_service.dto.RoleDto;
+import com.alpha_code.alpha_code_user_service.service.impl.PresenceServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.HyperLogLogOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PresenceServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RoleRegistry roleRegistry;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private StringRedisConnection connection;
+
+    @InjectMocks
+    private PresenceServiceImpl presenceService;
+
+    private final UUID accountId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(presenceService, "onlineWindowMs", 300_000L);
+        ReflectionTestUtils.setField(presenceService, "heartbeatIntervalMs", 30_000L);
+        presenceService.init();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void heartbeat_writesOncePerIntervalInOnePipeline() {
+        presenceService.heartbeat(accountId, "User");
+        presenceService.heartbeat(accountId, "User");
+
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate, times(1)).executePipelined(callback.capture());
+        callback.getValue().doInRedis(connection);
+
+        String member = accountId.toString();
+        verify(connection).zAdd(eq(PresenceServiceImpl.ONLINE_KEY), anyDouble(), eq(member));
+        verify(connection).zAdd(eq(PresenceServiceImpl.ROLE_KEY_PREFIX + "User"), anyDouble(), eq(member));
+        verify(connection).pfAdd(PresenceServiceImpl.DAU_KEY_PREFIX + LocalDate.now(), member);
+        verify(connection, never()).zRem(anyString(), any(String[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void heartbeat_movesAccountToNewRoleOnProfileSwitch() {
+        presenceService.heartbeat(accountId, "User");
+        presenceService.heartbeat(accountId, "Teacher");
+
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate, times(2)).executePipelined(callback.capture());
+        callback.getAllValues().get(1).doInRedis(connection);
+
+        verify(connection).zRem(PresenceServiceImpl.ROLE_KEY_PREFIX + "User", accountId.toString());
+    }
+
+    @Test
+    void countOnline_usesZCountOverWindow() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.count(eq(PresenceServiceImpl.ONLINE_KEY), anyDouble(), eq(Double.POSITIVE_INFINITY)))
+                .thenReturn(7L);
+
+        assertEquals(7L, presenceService.countOnline());
+        verify(redisTemplate, never()).keys(anyString());
+    }
+
+    @Test
+    void countOnlineByRole_countsEachRole() {
+        when(roleRegistry.getAll()).thenReturn(List.of(
+                new RoleDto(UUID.randomUUID(), "Admin", 1), new RoleDto(UUID.randomUUID(), "User", 1)));
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.count(eq(PresenceServiceImpl.ROLE_KEY_PREFIX + "Admin"), anyDouble(), anyDouble())).thenReturn(1L);
+        when(zSetOperations.count(eq(PresenceServiceImpl.ROLE_KEY_PREFIX + "User"), anyDouble(), anyDouble())).thenReturn(5L);
+
+        assertEquals(Map.of("Admin", 1L, "User", 5L), presenceService.countOnlineByRole());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void countDailyActive_readsHyperLogLog() {
+        HyperLogLogOperations<String, String> hll = mock(HyperLogLogOperations.class);
+        LocalDate day = LocalDate.of(2026, 10, 18);
+        when(redisTemplate.opsForHyperLogLog()).thenReturn(hll);
+        when(hll.size(PresenceServiceImpl.DAU_KEY_PREFIX + "2026-10-18")).thenReturn(12L);
+
+        assertEquals(12L, presenceService.countDailyActive(day));
+    }
+
+    @Test
+    void trim_removesMembersOutsideWindow() {
+        when(roleRegistry.getAll()).thenReturn(List.of(new RoleDto(UUID.randomUUID(), "User", 1)));
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+
+        presenceService.trim();
+
+        verify(zSetOperations).removeRangeByScore(eq(PresenceServiceImpl.ONLINE_KEY), eq(Double.NEGATIVE_INFINITY), anyDouble());
+        verify(zSetOperations).removeRangeByScore(eq(PresenceServiceImpl.ROLE_KEY_PREFIX + "User"), eq(Double.NEGATIVE_INFINITY), anyDouble());
+    }
+}
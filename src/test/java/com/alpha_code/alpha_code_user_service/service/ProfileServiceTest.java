@@ -1,12 +1,12 @@
 package com.alpha_code.alpha_code_user_service.service;
 
+import com.alpha_code.alpha_code_user_service.dto.PagedResult;
 import com.alpha_code.alpha_code_user_service.dto.ProfileDto;
+import com.alpha_code.alpha_code_user_service.dto.RoleDto;
 import com.alpha_code.alpha_code_user_service.entity.Account;
 import com.alpha_code.alpha_code_user_service.entity.Profile;
-import com.alpha_code.alpha_code_user_service.entity.Role;
 import com.alpha_code.alpha_code_user_service.repository.AccountRepository;
 import com.alpha_code.alpha_code_user_service.repository.ProfileRepository;
-import com.alpha_code.alpha_code_user_service.repository.RoleRepository;
 import com.alpha_code.alpha_code_user_service.service.impl.ProfileServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,7 +18,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
@@ -43,10 +42,13 @@ class ProfileServiceTest {
     private S3Service s3Service;
 
     @Mock
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Mock
-    private RoleRepository roleRepository;
+    private RoleRegistry roleRegistry;
+
+    @Mock
+    private TableStatsService tableStatsService;
 
     @InjectMocks
     private ProfileServiceImpl profileService;
@@ -54,7 +56,7 @@ class ProfileServiceTest {
     private Profile profile;
     private ProfileDto profileDto;
     private Account account;
-    private Role role;
+    private RoleDto role;
     private UUID profileId;
     private UUID accountId;
     private UUID roleId;
@@ -65,9 +67,7 @@ class ProfileServiceTest {
         accountId = UUID.randomUUID();
         roleId = UUID.randomUUID();
 
-        role = new Role();
-        role.setId(roleId);
-        role.setName("Parent");
+        role = new RoleDto(roleId, "Parent", 1);
 
         account = new Account();
         account.setId(accountId);
@@ -100,7 +100,7 @@ class ProfileServiceTest {
 
         when(profileRepository.searchProfiles(null, null, null, null, null, pageable)).thenReturn(page);
 
-        var result = profileService.searchProfiles(1, 10, null, null, null, null, null);
+        var result = profileService.searchProfiles(1, 10, null, null, null, null, null, PagedResult.CountMode.EXACT);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalCount());
@@ -128,8 +128,8 @@ class ProfileServiceTest {
     @Test
     void testCreateProfile_Success() throws Exception {
         when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
-        when(roleRepository.findByNameIgnoreCase("Parent")).thenReturn(Optional.of(role));
-        when(passwordEncoder.encode("passCode123")).thenReturn("encodedPassCode");
+        when(roleRegistry.findByName("Parent")).thenReturn(Optional.of(role));
+        when(passwordHashingService.encode("passCode123")).thenReturn("encodedPassCode");
         when(profileRepository.save(any(Profile.class))).thenReturn(profile);
 
         var result = profileService.createProfile(profileDto);
@@ -149,8 +149,8 @@ class ProfileServiceTest {
     @Test
     void testUpdateProfile_Success() {
         when(profileRepository.findById(profileId)).thenReturn(Optional.of(profile));
-        when(roleRepository.findByNameIgnoreCase("Parent")).thenReturn(Optional.of(role));
-        when(passwordEncoder.encode("passCode123")).thenReturn("encodedPassCode");
+        when(roleRegistry.findByName("Parent")).thenReturn(Optional.of(role));
+        when(passwordHashingService.encode("passCode123")).thenReturn("encodedPassCode");
         when(profileRepository.save(any(Profile.class))).thenReturn(profile);
 
         var result = profileService.updateProfile(profileId, profileDto);
@@ -163,7 +163,7 @@ class ProfileServiceTest {
     @Test
     void testPatchUpdateProfile_Success() {
         when(profileRepository.findById(profileId)).thenReturn(Optional.of(profile));
-        when(roleRepository.findByNameIgnoreCase("Parent")).thenReturn(Optional.of(role));
+        when(roleRegistry.findByName("Parent")).thenReturn(Optional.of(role));
         when(profileRepository.save(any(Profile.class))).thenReturn(profile);
 
         var result = profileService.patchUpdateProfile(profileDto);
@@ -201,7 +201,7 @@ class ProfileServiceTest {
     void testUpdateProfilePassCode_Success() {
         profile.setPassCode("oldEncodedPassCode");
         when(profileRepository.findById(profileId)).thenReturn(Optional.of(profile));
-        when(passwordEncoder.encode("newPassCode")).thenReturn("newEncodedPassCode");
+        when(passwordHashingService.encode("newPassCode")).thenReturn("newEncodedPassCode");
         when(profileRepository.save(any(Profile.class))).thenReturn(profile);
 
         var result = profileService.updateProfilePassCode(profileId, "oldEncodedPassCode", "newPassCode");
@@ -0,0 +1,118 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import com.alpha_code.alpha_code_user_service.dto.LoginDto;
+import com.alpha_code.alpha_code_user_service.dto.RoleDto;
+import com.alpha_code.alpha_code_user_service.entity.Account;
+import com.alpha_code.alpha_code_user_service.exception.AuthenticationException;
+import com.alpha_code.alpha_code_user_service.repository.AccountRepository;
+import com.alpha_code.alpha_code_user_service.service.SessionService.RotationResult;
+import com.alpha_code.alpha_code_user_service.service.impl.RefreshTokenServiceImpl;
+import com.alpha_code.alpha_code_user_service.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private SessionService sessionService;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private RoleRegistry roleRegistry;
+
+    @Mock
+    private PaymentKeyService paymentKeyService;
+
+    @InjectMocks
+    private RefreshTokenServiceImpl refreshTokenService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID roleId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(jwtUtil.getUserIdFromToken("old-refresh")).thenReturn(userId);
+        when(jwtUtil.getSessionIdFromToken("old-refresh")).thenReturn("sid-1");
+    }
+
+    private void stubRefresh() {
+        Account account = new Account();
+        account.setId(userId);
+        RoleDto role = new RoleDto();
+        role.setId(roleId);
+
+        when(jwtUtil.getRoleIdFromToken("old-refresh")).thenReturn(roleId);
+        when(jwtUtil.getFullNameFromToken("old-refresh")).thenReturn("User");
+        when(accountRepository.findById(userId)).thenReturn(Optional.of(account));
+        when(roleRegistry.getById(roleId)).thenReturn(role);
+        when(paymentKeyService.getKeyAsync(userId)).thenReturn(CompletableFuture.completedFuture("key"));
+        when(jwtUtil.generateAccessToken(any(Account.class), eq("sid-1"))).thenReturn("new-access");
+        when(jwtUtil.generateRefreshToken(any(Account.class), eq("sid-1"))).thenReturn("new-refresh");
+    }
+
+    @Test
+    void refreshNewToken_rotatesAtomically() {
+        stubRefresh();
+        when(sessionService.rotate(userId, "sid-1", "old-refresh", "new-refresh"))
+                .thenReturn(RotationResult.ROTATED);
+
+        LoginDto.LoginResponse response = refreshTokenService.refreshNewToken("old-refresh");
+
+        assertEquals("new-access", response.getAccessToken());
+        assertEquals("new-refresh", response.getRefreshToken());
+        assertEquals("key", response.getKey());
+        verify(sessionService, never()).revoke(any(), any());
+    }
+
+    @Test
+    void refreshNewToken_revokesSessionOnReuse() {
+        stubRefresh();
+        when(sessionService.rotate(userId, "sid-1", "old-refresh", "new-refresh"))
+                .thenReturn(RotationResult.REUSE_DETECTED);
+
+        assertThrows(AuthenticationException.class, () -> refreshTokenService.refreshNewToken("old-refresh"));
+        verify(sessionService).revoke(userId, "sid-1");
+        verify(sessionService, never()).revokeAll(any());
+        verify(dashboardService).removeOnlineUser(userId);
+    }
+
+    @Test
+    void refreshNewToken_rejectsUnknownSession() {
+        stubRefresh();
+        when(sessionService.rotate(userId, "sid-1", "old-refresh", "new-refresh"))
+                .thenReturn(RotationResult.NOT_FOUND);
+
+        assertThrows(AuthenticationException.class, () -> refreshTokenService.refreshNewToken("old-refresh"));
+        verify(sessionService, never()).revoke(any(), any());
+    }
+
+    @Test
+    void logout_revokesOnlyTheTokensSession() {
+        assertEquals("Logged out successfully", refreshTokenService.logout("old-refresh"));
+
+        verify(sessionService).revoke(userId, "sid-1");
+        verify(sessionService, never()).revokeAll(any());
+    }
+}
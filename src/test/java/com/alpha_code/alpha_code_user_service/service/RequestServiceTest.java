@@ -1,5 +1,6 @@
 package com.alpha_code.alpha_code_user_service.service;
 
+import com.alpha_code.alpha_code_user_service.dto.PagedResult;
 import com.alpha_code.alpha_code_user_service.dto.RequestDto;
 import com.alpha_code.alpha_code_user_service.entity.Request;
 import com.alpha_code.alpha_code_user_service.repository.RequestRepository;
@@ -14,6 +15,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -28,6 +30,9 @@ class RequestServiceTest {
     @Mock
     private RequestRepository repository;
 
+    @Mock
+    private TableStatsService tableStatsService;
+
     @InjectMocks
     private RequestServiceImpl requestService;
 
@@ -68,13 +73,28 @@ class RequestServiceTest {
 
         when(repository.searchRequests(null, null, null, null, null, pageable)).thenReturn(page);
 
-        var result = requestService.getAllRequest(1, 10, null, null, null, null, null);
+        var result = requestService.getAllRequest(1, 10, null, null, null, null, null, PagedResult.CountMode.EXACT);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalCount());
         verify(repository).searchRequests(null, null, null, null, null, pageable);
     }
 
+    @Test
+    void testGetAllRequest_estimateWithFilterReturnsLowerBoundWithoutCount() {
+        Pageable pageable = PageRequest.of(1, 1);
+        when(repository.searchRequestsSlice(null, "FEATURE", null, null, null, pageable))
+                .thenReturn(new SliceImpl<>(java.util.List.of(request), pageable, true));
+
+        var result = requestService.getAllRequest(2, 1, null, "FEATURE", null, null, null, PagedResult.CountMode.ESTIMATE);
+
+        assertTrue(result.isTotalIsEstimate());
+        assertEquals(3, result.getTotalCount());
+        assertTrue(result.isHasNext());
+        verify(repository, never()).searchRequests(any(), any(), any(), any(), any(), any());
+        verifyNoInteractions(tableStatsService);
+    }
+
     @Test
     void testGetRequestById_Success() {
         when(repository.findById(requestId)).thenReturn(java.util.Optional.of(request));
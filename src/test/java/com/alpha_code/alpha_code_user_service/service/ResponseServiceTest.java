@@ -1,5 +1,6 @@
 package com.alpha_code.alpha_code_user_service.service;
 
+import com.alpha_code.alpha_code_user_service.dto.PagedResult;
 import com.alpha_code.alpha_code_user_service.dto.ResponseDto;
 import com.alpha_code.alpha_code_user_service.entity.Request;
 import com.alpha_code.alpha_code_user_service.entity.Response;
@@ -33,6 +34,9 @@ class ResponseServiceTest {
     @Mock
     private RequestRepository requestRepository;
 
+    @Mock
+    private TableStatsService tableStatsService;
+
     @InjectMocks
     private ResponseServiceImpl responseService;
 
@@ -76,7 +80,7 @@ class ResponseServiceTest {
 
         when(repository.search(null, null, null, pageable)).thenReturn(page);
 
-        var result = responseService.getAll(1, 10, null, null, null);
+        var result = responseService.getAll(1, 10, null, null, null, PagedResult.CountMode.EXACT);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalCount());
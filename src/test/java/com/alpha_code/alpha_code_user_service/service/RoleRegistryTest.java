@@ -0,0 +1,100 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import com.alpha_code.alpha_code_user_service.entity.Role;
+import com.alpha_code.alpha_code_user_service.exception.ResourceNotFoundException;
+import com.alpha_code.alpha_code_user_service.repository.RoleRepository;
+import com.alpha_code.alpha_code_user_service.service.impl.RoleRegistryImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoleRegistryTest {
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @InjectMocks
+    private RoleRegistryImpl roleRegistry;
+
+    private Role role(String name, int status) {
+        Role role = new Role();
+        role.setId(UUID.randomUUID());
+        role.setName(name);
+        role.setStatus(status);
+        return role;
+    }
+
+    @Test
+    void reload_indexesByIdAndCaseInsensitiveName() {
+        Role admin = role("Admin", 1);
+        when(roleRepository.findAll()).thenReturn(List.of(admin));
+
+        roleRegistry.reload();
+
+        assertEquals("Admin", roleRegistry.getById(admin.getId()).getName());
+        assertEquals(admin.getId(), roleRegistry.getIdByName("ADMIN"));
+        assertTrue(roleRegistry.findByName("admin").isPresent());
+    }
+
+    @Test
+    void reload_prefersActiveRoleOnDuplicateName() {
+        Role inactive = role("User", 0);
+        Role active = role("USER", 1);
+        when(roleRepository.findAll()).thenReturn(List.of(inactive, active));
+
+        roleRegistry.reload();
+
+        assertEquals(active.getId(), roleRegistry.getIdByName("user"));
+        assertEquals(2, roleRegistry.getAll().size());
+    }
+
+    @Test
+    void getById_notFound() {
+        when(roleRepository.findAll()).thenReturn(List.of());
+
+        roleRegistry.reload();
+
+        assertThrows(ResourceNotFoundException.class, () -> roleRegistry.getById(UUID.randomUUID()));
+    }
+
+    @Test
+    void refreshAfterCommit_withoutTransaction_reloadsAndPublishes() {
+        when(roleRepository.findAll()).thenReturn(List.of(role("Parent", 1)));
+
+        roleRegistry.refreshAfterCommit();
+
+        assertTrue(roleRegistry.findByName("parent").isPresent());
+        verify(redisTemplate).convertAndSend(eq(RoleRegistryImpl.REFRESH_CHANNEL), anyString());
+    }
+
+    @Test
+    void onMessage_fromOtherInstance_reloads() {
+        when(roleRepository.findAll()).thenReturn(List.of());
+
+        roleRegistry.onMessage(new DefaultMessage(
+                RoleRegistryImpl.REFRESH_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "other-instance".getBytes(StandardCharsets.UTF_8)), null);
+
+        verify(roleRepository).findAll();
+    }
+}
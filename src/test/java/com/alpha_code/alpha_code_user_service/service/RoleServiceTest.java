@@ -30,6 +30,9 @@ class RoleServiceTest {
     @Mock
     private RoleRepository repository;
 
+    @Mock
+    private RoleRegistry roleRegistry;
+
     @InjectMocks
     private RoleServiceImpl roleService;
 
@@ -108,6 +111,7 @@ class RoleServiceTest {
         assertNotNull(result);
         verify(repository).findByName("USER");
         verify(repository).save(any(Role.class));
+        verify(roleRegistry).refreshAfterCommit();
     }
 
     @Test
@@ -0,0 +1,125 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import com.alpha_code.alpha_code_user_service.dto.SessionDto;
+import com.alpha_code.alpha_code_user_service.service.impl.SessionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @InjectMocks
+    private SessionServiceImpl sessionService;
+
+    private final UUID accountId = UUID.randomUUID();
+    private final String key = SessionServiceImpl.KEY_PREFIX + accountId;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(sessionService, "refreshTokenExpirationMs", 60_000L);
+        ReflectionTestUtils.setField(sessionService, "maxSessionsPerAccount", 3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void create_storesFingerprintNotToken() throws Exception {
+        String token = "header.payload.signature-".repeat(20);
+
+        sessionService.create(accountId, "sid-1", token, "Robot app");
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(key)), args.capture());
+        Object[] values = args.getValue();
+        assertEquals("sid-1", values[0]);
+        String stored = (String) values[1];
+        assertTrue(stored.startsWith(fingerprint(token) + "|"));
+        assertTrue(stored.endsWith("|Robot app"));
+        assertFalse(stored.contains(token));
+        assertTrue(stored.length() < 100);
+        assertEquals("3", values[4]);
+    }
+
+    @Test
+    void list_skipsExpiredAndMarksCurrent() {
+        long now = System.currentTimeMillis();
+        Map<Object, Object> entries = new LinkedHashMap<>();
+        entries.put("old", "fp|" + (now - 200_000) + "|" + (now - 120_000) + "|Phone");
+        entries.put("a", "fp|" + (now - 50_000) + "|" + (now - 10_000) + "|Phone|with pipe");
+        entries.put("b", "fp|" + (now - 5_000) + "|" + (now - 1_000) + "|Robot");
+        doReturn(hashOperations).when(redisTemplate).opsForHash();
+        when(hashOperations.entries(key)).thenReturn(entries);
+
+        List<SessionDto> sessions = sessionService.list(accountId, "a");
+
+        assertEquals(List.of("b", "a"), sessions.stream().map(SessionDto::getSessionId).toList());
+        assertEquals("Phone|with pipe", sessions.get(1).getDevice());
+        assertTrue(sessions.get(1).isCurrent());
+        assertFalse(sessions.get(0).isCurrent());
+    }
+
+    @Test
+    void validate_comparesFingerprint() throws Exception {
+        long now = System.currentTimeMillis();
+        doReturn(hashOperations).when(redisTemplate).opsForHash();
+        when(hashOperations.get(key, "sid-1")).thenReturn(fingerprint("token-1") + "|" + now + "|" + now + "|Phone");
+
+        assertTrue(sessionService.validate(accountId, "sid-1", "token-1"));
+        assertFalse(sessionService.validate(accountId, "sid-1", "token-2"));
+    }
+
+    @Test
+    void revokeOthers_keepsCurrentSession() {
+        doReturn(hashOperations).when(redisTemplate).opsForHash();
+        when(hashOperations.keys(key)).thenReturn(Set.of("keep", "drop"));
+
+        sessionService.revokeOthers(accountId, "keep");
+
+        verify(hashOperations).delete(key, "drop");
+        verify(tokenRevocationService).revokeTokenId(eq("drop"), anyLong());
+        verify(tokenRevocationService, never()).revokeTokenId(eq("keep"), anyLong());
+    }
+
+    @Test
+    void revokeAll_revokesAccountTokens() {
+        sessionService.revokeAll(accountId);
+
+        verify(redisTemplate).delete(key);
+        verify(tokenRevocationService).revokeAccount(accountId);
+    }
+
+    private static String fingerprint(String token) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+}
@@ -0,0 +1,114 @@
+package com.alpha_code.alpha_code_user_service.service;
+
+import com.alpha_code.alpha_code_user_service.service.impl.TokenRevocationServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @InjectMocks
+    private TokenRevocationServiceImpl revocationService;
+
+    private final UUID accountId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(revocationService, "retentionMs", 60_000L);
+        ReflectionTestUtils.setField(revocationService, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(revocationService, "falsePositiveRate", 0.001);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.rangeWithScores(anyString(), eq(0L), eq(-1L))).thenReturn(Set.of());
+        revocationService.init();
+    }
+
+    @Test
+    void isRevoked_acceptsUnrevokedTokenWithoutRedisLookup() {
+        assertFalse(revocationService.isRevoked(claims("sid-1", new Date())));
+
+        verify(zSetOperations, never()).score(anyString(), any());
+        assertEquals(0L, revocationService.getStats().get("redisLookups"));
+    }
+
+    @Test
+    void revokeTokenId_rejectsTokensOfSessionAndPublishes() {
+        long until = System.currentTimeMillis() + 60_000L;
+
+        revocationService.revokeTokenId("sid-1", until);
+
+        verify(zSetOperations).add(TokenRevocationServiceImpl.REVOKED_IDS_KEY, "sid-1", until);
+        verify(redisTemplate).convertAndSend(TokenRevocationServiceImpl.CHANNEL, "id:sid-1|" + until);
+        assertTrue(revocationService.isRevoked(claims("sid-1", new Date())));
+        assertFalse(revocationService.isRevoked(claims("sid-2", new Date())));
+        verify(zSetOperations, never()).score(anyString(), any());
+    }
+
+    @Test
+    void onMessage_appliesRevocationFromOtherInstance() {
+        long until = System.currentTimeMillis() + 60_000L;
+        byte[] body = ("id:sid-9|" + until).getBytes(StandardCharsets.UTF_8);
+
+        revocationService.onMessage(new DefaultMessage(TokenRevocationServiceImpl.CHANNEL.getBytes(), body), null);
+
+        assertTrue(revocationService.isRevoked(claims("sid-9", new Date())));
+    }
+
+    @Test
+    void revokeAccount_rejectsOnlyTokensIssuedBefore() {
+        Date before = new Date(System.currentTimeMillis() - 5_000L);
+
+        revocationService.revokeAccount(accountId);
+
+        assertTrue(revocationService.isRevoked(claims("sid-1", before)));
+        assertFalse(revocationService.isRevoked(claims("sid-1", new Date(System.currentTimeMillis() + 5_000L))));
+    }
+
+    @Test
+    void rebuild_loadsRevocationsFromRedis() {
+        long until = System.currentTimeMillis() + 60_000L;
+        when(zSetOperations.rangeWithScores(TokenRevocationServiceImpl.REVOKED_IDS_KEY, 0, -1))
+                .thenReturn(Set.of(ZSetOperations.TypedTuple.of("sid-7", (double) until)));
+
+        revocationService.scheduledRebuild();
+
+        assertTrue(revocationService.isRevoked(claims("sid-7", new Date())));
+    }
+
+    private Claims claims(String sessionId, Date issuedAt) {
+        return Jwts.claims()
+                .id(UUID.randomUUID().toString())
+                .add("id", accountId.toString())
+                .add("sid", sessionId)
+                .issuedAt(issuedAt)
+                .build();
+    }
+}
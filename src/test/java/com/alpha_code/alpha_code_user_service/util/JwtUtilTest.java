@@ -0,0 +1,106 @@
+package com.alpha_code.alpha_code_user_service.util;
+
+import com.alpha_code.alpha_code_user_service.service.JwtKeyService;
+import com.alpha_code.alpha_code_user_service.service.RoleRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyPair;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtUtilTest {
+
+    private static final String KID = "kid-1";
+
+    @Mock
+    private RoleRegistry roleRegistry;
+
+    @Mock
+    private JwtKeyService jwtKeyService;
+
+    @InjectMocks
+    private JwtUtil jwtUtil;
+
+    private final KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", "x".repeat(64));
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(jwtUtil, "legacyHs512Enabled", false);
+        jwtUtil.init();
+    }
+
+    @Test
+    void getAllClaims_verifiesSignatureOncePerToken() {
+        when(jwtKeyService.findVerificationKey(KID)).thenReturn(Optional.of(keyPair.getPublic()));
+        String token = token(KID, new Date(System.currentTimeMillis() + 60_000));
+
+        Claims first = jwtUtil.getAllClaims(token);
+        Claims second = jwtUtil.getAllClaims(token);
+
+        assertSame(first, second);
+        verify(jwtKeyService, times(1)).findVerificationKey(KID);
+        assertEquals(1L, jwtUtil.getVerifiedTokenCacheStats().get("hits"));
+    }
+
+    @Test
+    void getAllClaims_dropsCachedClaimsAtExpiry() throws InterruptedException {
+        when(jwtKeyService.findVerificationKey(KID)).thenReturn(Optional.of(keyPair.getPublic()));
+        String token = token(KID, new Date(System.currentTimeMillis() + 1_500));
+        Date expiration = jwtUtil.getAllClaims(token).getExpiration();
+
+        Thread.sleep(Math.max(expiration.getTime() - System.currentTimeMillis(), 0) + 100);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.getAllClaims(token));
+        verify(jwtKeyService, times(2)).findVerificationKey(KID);
+    }
+
+    @Test
+    void getAllClaims_doesNotCacheTamperedToken() {
+        when(jwtKeyService.findVerificationKey(KID)).thenReturn(Optional.of(keyPair.getPublic()));
+        String token = token(KID, new Date(System.currentTimeMillis() + 60_000));
+        String tampered = token.substring(0, token.lastIndexOf('.') + 1) + "AAAA" + token.substring(token.lastIndexOf('.') + 5);
+
+        assertThrows(JwtException.class, () -> jwtUtil.getAllClaims(tampered));
+        assertTrue(jwtUtil.parseVerifiedClaims(tampered).isEmpty());
+        assertTrue(jwtUtil.parseVerifiedClaims("not-a-jwt").isEmpty());
+
+        verify(jwtKeyService, times(2)).findVerificationKey(KID);
+        assertEquals(0L, jwtUtil.getVerifiedTokenCacheStats().get("size"));
+    }
+
+    @Test
+    void getAllClaims_rejectsTokenSignedWithUnknownKey() {
+        when(jwtKeyService.findVerificationKey("retired")).thenReturn(Optional.empty());
+        String token = token("retired", new Date(System.currentTimeMillis() + 60_000));
+
+        assertThrows(JwtException.class, () -> jwtUtil.getAllClaims(token));
+        assertFalse(jwtUtil.validateJwtToken(token));
+        assertEquals(0L, jwtUtil.getVerifiedTokenCacheStats().get("size"));
+    }
+
+    private String token(String kid, Date expiration) {
+        return Jwts.builder()
+                .header().keyId(kid).and()
+                .subject("user")
+                .claim("sid", "sid-1")
+                .expiration(expiration)
+                .signWith(keyPair.getPrivate(), Jwts.SIG.ES256)
+                .compact();
+    }
+}